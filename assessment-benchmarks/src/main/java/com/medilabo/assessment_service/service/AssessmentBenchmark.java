@@ -0,0 +1,245 @@
+package com.medilabo.assessment_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.assessment_service.model.Note;
+import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.model.PatientBatch;
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.proxies.NoteProxy;
+import com.medilabo.assessment_service.proxies.PatientProxy;
+import feign.Request;
+import feign.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks du chemin critique de l'évaluation : recherche des déclencheurs dans les notes
+ * et calcul complet du risque d'un patient, les proxies Feign étant remplacés par des
+ * implémentations en mémoire. Le corps JSON tel que renvoyé par le service de notes est
+ * également conservé pour comparer la désérialisation en liste et la lecture en flux.
+ * <p>
+ * Les notes générées ne contiennent que trois déclencheurs distincts : la recherche ne peut
+ * donc jamais s'arrêter avant la fin de l'historique, ce qui correspond au pire cas.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssessmentBenchmark {
+
+    /** Déclencheurs configurés par défaut ({@code medilabo.assessment.triggers}). */
+    static final List<String> DECLENCHEURS = List.of(
+            "hémoglobine a1c", "microalbumine", "taille", "poids", "fumeur",
+            "anormal", "cholestérol", "vertiges", "rechute", "réaction", "anticorps");
+
+    private static final String[] VOCABULAIRE = {
+            "le", "patient", "déclare", "se", "sentir", "bien", "tension", "artérielle", "normale",
+            "pas", "de", "plainte", "particulière", "examen", "clinique", "sans", "anomalie",
+            "traitement", "poursuivi", "contrôle", "dans", "trois", "mois", "glycémie", "à", "jeun"
+    };
+
+    private static final String[] DECLENCHEURS_PRESENTS = {"Fumeur", "vertiges", "Poids"};
+
+    private static final Long PATIENT_ID = 1L;
+
+    private static final TypeReference<List<Note>> LISTE_NOTES = new TypeReference<>() { };
+
+    @Param({"1", "10", "100", "1000"})
+    private int noteCount;
+
+    @Param({"64", "512", "4096"})
+    private int noteLength;
+
+    private List<Note> notes;
+    private byte[] corpsNotes;
+    private ObjectMapper objectMapper;
+    private NoteTriggerReader lecteurNotes;
+    private AssessmentService service;
+    private AssessmentService serviceAvecCache;
+    private AssessmentService serviceEnFlux;
+
+    /**
+     * Génère l'historique de notes et construit les services évalués.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random aleatoire = new Random(42);
+        notes = new ArrayList<>(noteCount);
+        List<Map<String, Object>> documents = new ArrayList<>(noteCount);
+        for (int i = 0; i < noteCount; i++) {
+            Note note = new Note(String.valueOf(i), PATIENT_ID.intValue(), genererNote(aleatoire));
+            notes.add(note);
+
+            Map<String, Object> document = new LinkedHashMap<>();
+            document.put("id", note.getId());
+            document.put("patId", note.getPatId());
+            document.put("patient", "Benchmark");
+            document.put("date", "2024-01-01T10:00:00");
+            document.put("note", note.getNote());
+            documents.add(document);
+        }
+        objectMapper = new ObjectMapper();
+        corpsNotes = objectMapper.writeValueAsBytes(documents);
+        lecteurNotes = new NoteTriggerReader(new TriggerMatcher(DECLENCHEURS), new JsonFactory());
+
+        Patient patient = new Patient(PATIENT_ID, "Test", "Benchmark", LocalDate.of(1966, 12, 31), "F");
+        PatientProxy patientProxy = new PatientProxy() {
+            @Override
+            public Patient getPatientById(Long id) {
+                return patient;
+            }
+
+            @Override
+            public List<Patient> getPatientsPage(Long after, int limit) {
+                return List.of(patient);
+            }
+
+            @Override
+            public PatientBatch getPatientsByIds(List<Long> ids) {
+                return new PatientBatch(List.of(patient), List.of());
+            }
+        };
+        NoteProxy noteProxy = new NoteProxy() {
+            @Override
+            public List<Note> getNotesByPatientId(Long patId) {
+                return notes;
+            }
+
+            @Override
+            public List<Note> getNotesByPatientIds(List<Long> patIds) {
+                return notes;
+            }
+
+            @Override
+            public Response getNotesBodyByPatientId(Long patId) {
+                return reponseNotes();
+            }
+
+            @Override
+            public Response getNotesBodyByPatientIds(List<Long> patIds) {
+                return reponseNotes();
+            }
+        };
+
+        service = new AssessmentService(patientProxy, noteProxy, DECLENCHEURS);
+        AssessmentCache cache = new AssessmentCache(new CaffeineCacheManager(AssessmentCache.NOM));
+        serviceAvecCache = new AssessmentService(patientProxy, noteProxy, DECLENCHEURS,
+                RiskRules.parDefaut(), null, Duration.ZERO, 100, 4, cache, false);
+        serviceEnFlux = new AssessmentService(patientProxy, noteProxy, DECLENCHEURS,
+                RiskRules.parDefaut(), null, Duration.ZERO, 100, 4, null, true);
+    }
+
+    /**
+     * Désérialisation de la réponse du service de notes en liste, puis recherche des déclencheurs.
+     *
+     * @return Le nombre de déclencheurs trouvés.
+     * @throws IOException En cas de JSON invalide.
+     */
+    @Benchmark
+    public int decodeEtCompteDeclencheurs() throws IOException {
+        return service.compteDeclencheurs(objectMapper.readValue(corpsNotes, LISTE_NOTES));
+    }
+
+    /**
+     * Recherche des déclencheurs directement dans la réponse du service de notes, lue en flux.
+     *
+     * @return Le nombre de déclencheurs trouvés.
+     * @throws IOException En cas de JSON invalide.
+     */
+    @Benchmark
+    public int compteDeclencheursEnFlux() throws IOException {
+        return lecteurNotes.count(new ByteArrayInputStream(corpsNotes));
+    }
+
+    /**
+     * Recherche des déclencheurs dans l'historique complet.
+     *
+     * @return Le nombre de déclencheurs trouvés.
+     */
+    @Benchmark
+    public int compteDeclencheurs() {
+        return service.compteDeclencheurs(notes);
+    }
+
+    /**
+     * Évaluation complète sans cache : récupération du patient et des notes, recherche, règles.
+     *
+     * @return Le niveau de risque.
+     */
+    @Benchmark
+    public RiskLevel generateAssessment() {
+        return service.generateAssessment(PATIENT_ID);
+    }
+
+    /**
+     * Évaluation servie par le cache des résultats (après le premier appel).
+     *
+     * @return Le niveau de risque.
+     */
+    @Benchmark
+    public RiskLevel generateAssessmentCached() {
+        return serviceAvecCache.generateAssessment(PATIENT_ID);
+    }
+
+    /**
+     * Évaluation complète sans cache, les notes étant lues en flux depuis la réponse brute.
+     *
+     * @return Le niveau de risque.
+     */
+    @Benchmark
+    public RiskLevel generateAssessmentStreaming() {
+        return serviceEnFlux.generateAssessment(PATIENT_ID);
+    }
+
+    private Response reponseNotes() {
+        Request requete = Request.create(Request.HttpMethod.GET, "/notes/patient/" + PATIENT_ID + "/text",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(200)
+                .request(requete)
+                .body(new ByteArrayInputStream(corpsNotes), corpsNotes.length)
+                .build();
+    }
+
+    private String genererNote(Random aleatoire) {
+        StringBuilder texte = new StringBuilder(noteLength + 16);
+        while (texte.length() < noteLength) {
+            if (aleatoire.nextInt(50) == 0) {
+                texte.append(DECLENCHEURS_PRESENTS[aleatoire.nextInt(DECLENCHEURS_PRESENTS.length)]);
+            } else {
+                texte.append(VOCABULAIRE[aleatoire.nextInt(VOCABULAIRE.length)]);
+            }
+            texte.append(' ');
+        }
+        texte.setLength(noteLength);
+        return texte.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.medilabo.assessment_service.service;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée du jar de benchmarks.
+ * <p>
+ * Accepte les mêmes options que le lanceur JMH standard (filtre de benchmarks, {@code -p noteCount=100},
+ * {@code -rf json}...) et active systématiquement le profileur GC, qui ajoute au débit
+ * le taux d'allocation par opération ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+public final class AssessmentBenchmarkRunner {
+
+    private AssessmentBenchmarkRunner() {
+    }
+
+    /**
+     * Lance les benchmarks.
+     *
+     * @param args Les options JMH en ligne de commande.
+     * @throws CommandLineOptionException Si les options sont invalides.
+     * @throws RunnerException            Si l'exécution échoue.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.medilabo.assessment_service.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark des règles métier appliquées au nombre de déclencheurs.
+ * <p>
+ * Chaque invocation parcourt toutes les combinaisons âge / genre / nombre de déclencheurs,
+ * afin que le résultat ne puisse pas être calculé une fois pour toutes par le compilateur.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskRulesBenchmark {
+
+    private static final int[] AGES = {18, 29, 30, 31, 45, 80};
+    private static final String[] GENRES = {"M", "F", "X"};
+    private static final int MAX_DECLENCHEURS = 12;
+
+    /** Nombre de combinaisons évaluées par invocation : 6 âges x 3 genres x 13 nombres. */
+    private static final int COMBINAISONS = 6 * 3 * 13;
+
+    private AssessmentService service;
+
+    /**
+     * Construit le service évalué ; les proxies ne sont pas sollicités par ce benchmark.
+     */
+    @Setup
+    public void setUp() {
+        service = new AssessmentService(null, null, List.copyOf(AssessmentBenchmark.DECLENCHEURS));
+    }
+
+    /**
+     * Applique les règles à chaque combinaison.
+     *
+     * @param trou Le consommateur empêchant l'élimination des résultats.
+     */
+    @Benchmark
+    @OperationsPerInvocation(COMBINAISONS)
+    public void determineRisk(Blackhole trou) {
+        for (int age : AGES) {
+            for (String genre : GENRES) {
+                for (int nombre = 0; nombre <= MAX_DECLENCHEURS; nombre++) {
+                    trou.consume(service.determineRisk(age, genre, nombre));
+                }
+            }
+        }
+    }
+}
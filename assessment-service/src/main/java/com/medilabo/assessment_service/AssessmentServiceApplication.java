@@ -2,10 +2,10 @@ package com.medilabo.assessment_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
-@EnableFeignClients(basePackages = "com.medilabo.assessment_service.proxies")
+@EnableCaching
 public class AssessmentServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,51 @@
+package com.medilabo.assessment_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuration du pool de threads utilisé pour interroger les microservices en parallèle.
+ * <p>
+ * Le pool est borné (threads et file d'attente) : lorsqu'il est saturé, l'appel est refusé et
+ * l'évaluation échoue aussitôt (503) au lieu d'accumuler des tâches en mémoire. L'appel n'est pas
+ * exécuté par le thread appelant, où le délai d'attente de l'évaluation ne s'appliquerait pas.
+ * Un thread du pool reste occupé jusqu'à la fin de son appel Feign : les délais de connexion et
+ * de lecture de Feign sont la seule borne effective d'un appel.
+ * Le mode réactif, qui n'effectue aucun appel bloquant, n'en crée pas.
+ * </p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "medilabo.assessment.concurrent.enabled", havingValue = "true", matchIfMissing = true)
+public class AssessmentExecutorConfig {
+
+    /**
+     * Crée le pool dédié aux appels Feign de l'évaluation.
+     *
+     * @param taille        Nombre maximal de threads simultanés.
+     * @param capaciteFile  Nombre maximal d'appels en attente.
+     * @return              Un {@link ExecutorService} arrêté automatiquement à la fermeture du contexte.
+     */
+    @Bean
+    public ExecutorService assessmentExecutor(@Value("${medilabo.assessment.concurrent.pool-size:32}") int taille,
+                                              @Value("${medilabo.assessment.concurrent.queue-capacity:256}") int capaciteFile) {
+        AtomicInteger compteur = new AtomicInteger();
+        ThreadFactory fabrique = tache -> {
+            Thread thread = new Thread(tache, "assessment-" + compteur.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(taille, taille, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capaciteFile), fabrique, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,19 @@
+package com.medilabo.assessment_service.config;
+
+import com.medilabo.feign.FeignClientSupportConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Client HTTP des proxies Feign vers patient-service et note-service : pool Apache HttpClient 5,
+ * métriques et cache de validation communs aux modules ({@link FeignClientSupportConfig}).
+ * Les proxies ne sont créés qu'en mode servlet : le mode réactif appelle les microservices avec WebClient.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableFeignClients(basePackages = "com.medilabo.assessment_service.proxies")
+@Import(FeignClientSupportConfig.class)
+public class FeignHttpClientConfig {
+}
@@ -0,0 +1,65 @@
+package com.medilabo.assessment_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configuration du serveur et du client HTTP non bloquants utilisés en mode réactif
+ * ({@code spring.main.web-application-type=reactive}).
+ * <p>
+ * Les requêtes reçues et les appels vers les microservices partagent les threads d'entrée/sortie
+ * de Netty et un pool de connexions persistantes. Lorsque le pool est saturé, les demandes attendent
+ * une connexion libre sans occuper de thread, dans la limite de la file configurée.
+ * </p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Sert l'application avec Netty. Tomcat, présent pour le mode servlet, serait sinon
+     * retenu par Spring Boot, et chaque requête occuperait l'un de ses threads.
+     *
+     * @return La fabrique du serveur Netty.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Crée le pool de connexions des appels réactifs.
+     *
+     * @param maxConnexions Nombre maximal de connexions simultanées par microservice.
+     * @param maxAttente    Nombre maximal de demandes en attente d'une connexion.
+     * @return              Le pool, libéré à la fermeture du contexte.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider assessmentConnectionProvider(@Value("${medilabo.assessment.reactive.max-connections:500}") int maxConnexions,
+                                                           @Value("${medilabo.assessment.reactive.pending-acquire-max:10000}") int maxAttente) {
+        return ConnectionProvider.builder("assessment")
+                .maxConnections(maxConnexions)
+                .pendingAcquireMaxCount(maxAttente)
+                .build();
+    }
+
+    /**
+     * Branche ce pool sur tous les {@code WebClient} créés à partir du builder de Spring Boot,
+     * avec décompression des réponses comme pour les proxies Feign.
+     *
+     * @param connectionProvider Le pool de connexions.
+     * @return                   La personnalisation des {@code WebClient}.
+     */
+    @Bean
+    public WebClientCustomizer assessmentClientConnector(ConnectionProvider connectionProvider) {
+        HttpClient httpClient = HttpClient.create(connectionProvider).compress(true);
+        return builder -> builder.clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
@@ -1,28 +1,54 @@
 package com.medilabo.assessment_service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.RiskLevel;
 import com.medilabo.assessment_service.service.AssessmentService;
+import com.medilabo.assessment_service.service.PopulationScanService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur REST fournissant les analyses de risque de diabète.
+ * Actif sur le serveur servlet (mode par défaut) ; voir {@link ReactiveAssessmentController} pour le mode réactif.
  */
 @RestController
 @RequestMapping("/assess")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AssessmentController {
 
     private final AssessmentService assessmentService;
+    private final PopulationScanService populationScanService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Constructeur injectant le service d'évaluation.
+     * Constructeur injectant les services d'évaluation.
      *
-     * @param assessmentService Le service de calcul des risques.
+     * @param assessmentService     Le service de calcul des risques.
+     * @param populationScanService Le service de réévaluation de l'ensemble des patients.
+     * @param objectMapper          Le sérialiseur JSON utilisé pour les réponses en flux.
      */
-    public AssessmentController(AssessmentService assessmentService) {
+    public AssessmentController(AssessmentService assessmentService,
+                                PopulationScanService populationScanService,
+                                ObjectMapper objectMapper) {
         this.assessmentService = assessmentService;
+        this.populationScanService = populationScanService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -33,7 +59,89 @@ public class AssessmentController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<String> getAssessmentByPatientId(@PathVariable("id") Long id) {
-        String result = assessmentService.generateAssessment(id);
-        return ResponseEntity.ok(result);
+        RiskLevel result = assessmentService.generateAssessment(id);
+        return ResponseEntity.ok(result.getLabel());
+    }
+
+    /**
+     * Calcule le niveau de risque d'un lot de patients en une seule requête.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le risque par identifiant ({@code null} lorsque l'évaluation a échoué).
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, RiskLevel>> getAssessments(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(assessmentService.generateAssessments(ids));
+    }
+
+    /**
+     * Calcule le niveau de risque d'un lot de patients en publiant chaque résultat dès qu'il est connu,
+     * sous la forme d'une ligne JSON par patient (NDJSON).
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le flux des résultats, dans l'ordre de leur obtention.
+     */
+    @PostMapping(value = "/batch/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAssessments(@RequestBody List<Long> ids) {
+        StreamingResponseBody flux = sortie -> assessmentService.generateAssessments(ids, resultat -> ecrireLigne(sortie, resultat));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(flux);
+    }
+
+    /**
+     * Réévalue l'ensemble des patients et publie une ligne JSON par patient (NDJSON) au fil du parcours.
+     * <p>
+     * Le parcours avance au rythme de lecture du client : tant qu'il ne consomme pas les lignes
+     * déjà envoyées, aucune nouvelle page n'est demandée. Fermer la connexion interrompt le parcours.
+     * </p>
+     *
+     * @return Le flux des résultats.
+     */
+    @GetMapping(value = "/scan", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> scanPopulation() {
+        StreamingResponseBody flux = sortie -> populationScanService.scan(resultat -> ecrireLigne(sortie, resultat));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(flux);
+    }
+
+    /**
+     * Invalide le risque en cache d'un patient.
+     * Appelé par les services de patients et de notes après chaque modification.
+     *
+     * @param id L'identifiant du patient.
+     * @return   Une réponse vide.
+     */
+    @DeleteMapping("/cache/{id}")
+    public ResponseEntity<Void> invalidateAssessment(@PathVariable("id") Long id) {
+        assessmentService.invalidateAssessment(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Invalide l'ensemble des risques en cache.
+     *
+     * @return Une réponse vide.
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> invalidateAllAssessments() {
+        assessmentService.invalidateAllAssessments();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Écrit un résultat sur une ligne et l'envoie immédiatement au client.
+     *
+     * Les services d'évaluation appellent leur consommateur depuis le seul thread qui écrit la réponse :
+     * l'écriture n'a pas à être synchronisée.
+     *
+     * @param sortie   Le flux de la réponse.
+     * @param resultat Le résultat à écrire.
+     */
+    private void ecrireLigne(OutputStream sortie, AssessmentResult resultat) {
+        try {
+            sortie.write(objectMapper.writeValueAsBytes(resultat));
+            sortie.write('\n');
+            sortie.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.medilabo.assessment_service.controller;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.service.AssessmentService;
+import com.medilabo.assessment_service.service.ReactiveAssessmentService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur REST non bloquant fournissant les analyses de risque de diabète, actif en mode réactif
+ * ({@code spring.main.web-application-type=reactive}). Il expose la même API que {@link AssessmentController}.
+ */
+@RestController
+@RequestMapping("/assess")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAssessmentController {
+
+    private final ReactiveAssessmentService reactiveAssessmentService;
+    private final AssessmentService assessmentService;
+
+    /**
+     * Constructeur injectant les services d'évaluation.
+     *
+     * @param reactiveAssessmentService Le service de calcul non bloquant.
+     * @param assessmentService         Le service portant le cache des risques.
+     */
+    public ReactiveAssessmentController(ReactiveAssessmentService reactiveAssessmentService,
+                                        AssessmentService assessmentService) {
+        this.reactiveAssessmentService = reactiveAssessmentService;
+        this.assessmentService = assessmentService;
+    }
+
+    /**
+     * Récupère le niveau de risque calculé pour un patient.
+     *
+     * @param id L'identifiant unique du patient.
+     * @return   Une réponse contenant le libellé du risque.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<String>> getAssessmentByPatientId(@PathVariable("id") Long id) {
+        return reactiveAssessmentService.generateAssessment(id)
+                .map(risque -> ResponseEntity.ok(risque.getLabel()));
+    }
+
+    /**
+     * Calcule le niveau de risque d'un lot de patients en une seule requête.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le risque par identifiant ({@code null} lorsque l'évaluation a échoué).
+     */
+    @PostMapping("/batch")
+    public Mono<Map<Long, RiskLevel>> getAssessments(@RequestBody List<Long> ids) {
+        return reactiveAssessmentService.generateAssessmentsMap(ids);
+    }
+
+    /**
+     * Calcule le niveau de risque d'un lot de patients en publiant chaque résultat dès qu'il est connu (NDJSON).
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le flux des résultats, dans l'ordre de leur obtention.
+     */
+    @PostMapping(value = "/batch/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AssessmentResult> streamAssessments(@RequestBody List<Long> ids) {
+        return reactiveAssessmentService.generateAssessments(ids);
+    }
+
+    /**
+     * Réévalue l'ensemble des patients et publie une ligne JSON par patient (NDJSON).
+     *
+     * @return Le flux des résultats.
+     */
+    @GetMapping(value = "/scan", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AssessmentResult> scanPopulation() {
+        return reactiveAssessmentService.scan();
+    }
+
+    /**
+     * Invalide le risque en cache d'un patient.
+     *
+     * @param id L'identifiant du patient.
+     * @return   Une réponse vide.
+     */
+    @DeleteMapping("/cache/{id}")
+    public ResponseEntity<Void> invalidateAssessment(@PathVariable("id") Long id) {
+        assessmentService.invalidateAssessment(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Invalide l'ensemble des risques en cache.
+     *
+     * @return Une réponse vide.
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> invalidateAllAssessments() {
+        assessmentService.invalidateAllAssessments();
+        return ResponseEntity.noContent().build();
+    }
+}
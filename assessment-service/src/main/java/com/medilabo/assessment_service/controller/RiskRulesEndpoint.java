@@ -0,0 +1,74 @@
+package com.medilabo.assessment_service.controller;
+
+import com.medilabo.assessment_service.model.RiskRuleDefinition;
+import com.medilabo.assessment_service.service.AssessmentService;
+import com.medilabo.assessment_service.service.RiskRules;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint Actuator ({@code /actuator/riskrules}) consultant et remplaçant à chaud
+ * les seuils des règles de risque, sans redéploiement.
+ */
+@Component
+@Endpoint(id = "riskrules")
+public class RiskRulesEndpoint {
+
+    private final RiskRules riskRules;
+    private final AssessmentService assessmentService;
+
+    /**
+     * Constructeur injectant les règles et le service dont le cache doit être vidé.
+     *
+     * @param riskRules         Les règles de risque.
+     * @param assessmentService Le service d'évaluation.
+     */
+    public RiskRulesEndpoint(RiskRules riskRules, AssessmentService assessmentService) {
+        this.riskRules = riskRules;
+        this.assessmentService = assessmentService;
+    }
+
+    /**
+     * @return Les seuils actuellement appliqués.
+     */
+    @ReadOperation
+    public RiskRuleDefinition rules() {
+        return riskRules.getDefinition();
+    }
+
+    /**
+     * Remplace les seuils ; les valeurs absentes conservent leur valeur actuelle.
+     * Les risques en cache, calculés avec les anciennes règles, sont invalidés.
+     *
+     * @param ageLimite  Âge au-delà duquel la règle {@code plusAge} s'applique.
+     * @param plusAge    Seuils des patients de plus de {@code ageLimite} ans.
+     * @param hommeJeune Seuils des hommes jusqu'à {@code ageLimite} ans.
+     * @param femmeJeune Seuils des femmes jusqu'à {@code ageLimite} ans.
+     * @param autreJeune Seuils des autres patients jusqu'à {@code ageLimite} ans.
+     * @return           Les seuils désormais appliqués.
+     */
+    @WriteOperation
+    public RiskRuleDefinition reload(@Nullable Integer ageLimite,
+                                     @Nullable String plusAge,
+                                     @Nullable String hommeJeune,
+                                     @Nullable String femmeJeune,
+                                     @Nullable String autreJeune) {
+        RiskRuleDefinition nouvelle;
+        try {
+            nouvelle = riskRules.reload(actuelle -> new RiskRuleDefinition(
+                    ageLimite != null ? ageLimite : actuelle.getAgeLimite(),
+                    plusAge != null ? plusAge : actuelle.getPlusAge(),
+                    hommeJeune != null ? hommeJeune : actuelle.getHommeJeune(),
+                    femmeJeune != null ? femmeJeune : actuelle.getFemmeJeune(),
+                    autreJeune != null ? autreJeune : actuelle.getAutreJeune()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        assessmentService.invalidateAllAssessments();
+        return nouvelle;
+    }
+}
@@ -0,0 +1,21 @@
+package com.medilabo.assessment_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat de l'évaluation d'un patient au sein d'un traitement par lot.
+ * En cas d'échec, le risque est absent et l'erreur décrit la cause.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AssessmentResult {
+
+    private Long id;
+    private RiskLevel risk;
+    private String error;
+}
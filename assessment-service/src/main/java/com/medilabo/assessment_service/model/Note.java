@@ -13,5 +13,16 @@ import lombok.NoArgsConstructor;
 public class Note {
 
     private String id;
+    private Integer patId;
     private String note;
-}
\ No newline at end of file
+
+    /**
+     * Constructeur sans patient associé, suffisant pour l'évaluation d'un seul patient.
+     *
+     * @param id   L'identifiant technique de la note.
+     * @param note Le contenu de la note.
+     */
+    public Note(String id, String note) {
+        this(id, null, note);
+    }
+}
@@ -0,0 +1,20 @@
+package com.medilabo.assessment_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Réponse de la lecture groupée de patients : les patients trouvés, dans l'ordre de la demande,
+ * et les identifiants qui ne correspondent à aucun patient.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientBatch {
+
+    private List<Patient> patients;
+    private List<Long> missing;
+}
@@ -0,0 +1,34 @@
+package com.medilabo.assessment_service.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Niveaux de risque de diabète, du plus faible au plus élevé.
+ * Chaque niveau est exposé à l'extérieur (JSON, texte) sous son libellé historique.
+ */
+public enum RiskLevel {
+
+    NONE("None"),
+    BORDERLINE("Borderline"),
+    IN_DANGER("In Danger"),
+    EARLY_ONSET("Early onset");
+
+    private final String label;
+
+    RiskLevel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return Le libellé du niveau (None, Borderline, In Danger, Early onset).
+     */
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
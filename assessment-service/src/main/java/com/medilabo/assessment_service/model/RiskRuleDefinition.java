@@ -0,0 +1,22 @@
+package com.medilabo.assessment_service.model;
+
+import lombok.Value;
+
+/**
+ * Seuils des règles de risque, tels qu'ils sont écrits dans la configuration.
+ * <p>
+ * Chaque règle liste, dans l'ordre, le nombre minimal de déclencheurs pour les niveaux
+ * Borderline, In Danger et Early onset (par exemple {@code "2,6,8"}) ; {@code "-"} indique
+ * qu'un niveau n'est jamais atteint. Les patients de plus de {@code ageLimite} ans suivent
+ * la règle {@code plusAge}, quel que soit leur genre.
+ * </p>
+ */
+@Value
+public class RiskRuleDefinition {
+
+    int ageLimite;
+    String plusAge;
+    String hommeJeune;
+    String femmeJeune;
+    String autreJeune;
+}
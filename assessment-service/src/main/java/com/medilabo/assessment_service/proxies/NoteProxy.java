@@ -1,9 +1,11 @@
 package com.medilabo.assessment_service.proxies;
 
 import com.medilabo.assessment_service.model.Note;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import java.util.List;
 
 /**
@@ -20,4 +22,35 @@ public interface NoteProxy {
      */
     @GetMapping("/notes/patient/{patId}")
     List<Note> getNotesByPatientId(@PathVariable("patId") Long patId);
-}
\ No newline at end of file
+
+    /**
+     * Récupère en un seul appel les notes de plusieurs patients.
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       Les notes de l'ensemble de ces patients, chacune portant son {@code patId}.
+     */
+    @GetMapping("/notes/patients")
+    List<Note> getNotesByPatientIds(@RequestParam("ids") List<Long> patIds);
+
+    /**
+     * Récupère le texte seul des notes d'un patient sous forme de réponse brute, sans désérialisation.
+     * Le corps doit être lu en flux puis la réponse fermée par l'appelant ; le statut HTTP
+     * n'est pas vérifié par Feign pour ce type de retour.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      La réponse HTTP du service de notes ({@code [{"note": ...}]}).
+     * @see com.medilabo.assessment_service.service.NoteTriggerReader
+     */
+    @GetMapping("/notes/patient/{patId}/text")
+    Response getNotesBodyByPatientId(@PathVariable("patId") Long patId);
+
+    /**
+     * Récupère le texte seul des notes de plusieurs patients sous forme de réponse brute, sans désérialisation.
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       La réponse HTTP du service de notes ({@code [{"patId": ..., "note": ...}]}).
+     * @see #getNotesBodyByPatientId(Long)
+     */
+    @GetMapping("/notes/patients/text")
+    Response getNotesBodyByPatientIds(@RequestParam("ids") List<Long> patIds);
+}
@@ -1,9 +1,13 @@
 package com.medilabo.assessment_service.proxies;
 
 import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.model.PatientBatch;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 /**
  * Proxy Feign pour la communication avec le microservice de gestion des patients.
@@ -19,4 +23,23 @@ public interface PatientProxy {
      */
     @GetMapping("/api/patients/{id}")
     Patient getPatientById(@PathVariable("id") Long id);
-}
\ No newline at end of file
+
+    /**
+     * Récupère une page de patients par pagination sur clé, triés par identifiant.
+     *
+     * @param after L'identifiant du dernier patient déjà reçu (0 pour la première page).
+     * @param limit Le nombre maximal de patients à retourner.
+     * @return      La page de patients ; une liste vide signale la fin.
+     */
+    @GetMapping("/api/patients")
+    List<Patient> getPatientsPage(@RequestParam("after") Long after, @RequestParam("limit") int limit);
+
+    /**
+     * Récupère plusieurs patients en un seul appel.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Les patients trouvés, dans l'ordre de la demande, et les identifiants introuvables.
+     */
+    @GetMapping("/api/patients")
+    PatientBatch getPatientsByIds(@RequestParam("ids") List<Long> ids);
+}
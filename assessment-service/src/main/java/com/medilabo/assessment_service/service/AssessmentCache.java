@@ -0,0 +1,108 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.RiskLevel;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache des niveaux de risque calculés, indexé par identifiant de patient.
+ * <p>
+ * La taille maximale, la durée de vie et l'enregistrement des statistiques (succès/échecs,
+ * exposés par Actuator) sont définis par {@code spring.cache.caffeine.spec}.
+ * Les services de patients et de notes invalident l'entrée d'un patient à chaque écriture.
+ * </p>
+ * <p>
+ * Un compteur d'invalidations empêche qu'un calcul commencé avant une modification ne
+ * réinsère un résultat périmé : si une invalidation survient pendant le calcul, le résultat
+ * est retiré du cache aussitôt après y avoir été placé.
+ * </p>
+ */
+@Component
+public class AssessmentCache {
+
+    /** Nom du cache déclaré dans {@code spring.cache.cache-names}. */
+    public static final String NOM = "assessments";
+
+    private final Cache cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructeur récupérant le cache auprès du gestionnaire configuré par Spring Boot.
+     *
+     * @param cacheManager Le gestionnaire de caches.
+     */
+    public AssessmentCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(NOM);
+    }
+
+    /**
+     * Retourne le risque en cache pour un patient, ou le calcule et le met en cache.
+     *
+     * @param patientId L'identifiant du patient.
+     * @param calcul    Le calcul à effectuer en cas d'absence.
+     * @return          Le niveau de risque.
+     */
+    public RiskLevel get(Long patientId, Supplier<RiskLevel> calcul) {
+        RiskLevel enCache = getIfPresent(patientId);
+        if (enCache != null) {
+            return enCache;
+        }
+        long generation = generation();
+        RiskLevel risque = calcul.get();
+        put(patientId, risque, generation);
+        return risque;
+    }
+
+    /**
+     * Retourne le risque en cache pour un patient, sans le calculer.
+     *
+     * @param patientId L'identifiant du patient.
+     * @return          Le niveau de risque, ou {@code null} s'il n'est pas en cache.
+     */
+    public RiskLevel getIfPresent(Long patientId) {
+        return cache.get(patientId, RiskLevel.class);
+    }
+
+    /**
+     * @return La génération courante, à relever avant de lancer un calcul puis à passer à {@link #put}.
+     */
+    public long generation() {
+        return invalidations.get();
+    }
+
+    /**
+     * Met en cache un risque calculé, sauf si une invalidation est survenue depuis le début du calcul.
+     *
+     * @param patientId  L'identifiant du patient.
+     * @param risque     Le niveau de risque calculé.
+     * @param generation La génération relevée avant le calcul.
+     */
+    public void put(Long patientId, RiskLevel risque, long generation) {
+        cache.put(patientId, risque);
+        if (invalidations.get() != generation) {
+            cache.evict(patientId);
+        }
+    }
+
+    /**
+     * Retire du cache le risque d'un patient dont les données ont changé.
+     *
+     * @param patientId L'identifiant du patient.
+     */
+    public void invalidate(Long patientId) {
+        invalidations.incrementAndGet();
+        cache.evict(patientId);
+    }
+
+    /**
+     * Vide entièrement le cache, par exemple après une modification des règles métier.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.clear();
+    }
+}
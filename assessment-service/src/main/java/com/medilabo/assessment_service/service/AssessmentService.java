@@ -1,16 +1,47 @@
 package com.medilabo.assessment_service.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.medilabo.assessment_service.model.AssessmentResult;
 import com.medilabo.assessment_service.model.Note;
 import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.model.PatientBatch;
+import com.medilabo.assessment_service.model.RiskLevel;
 import com.medilabo.assessment_service.proxies.NoteProxy;
 import com.medilabo.assessment_service.proxies.PatientProxy;
+import feign.FeignException;
+import feign.Response;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Service métier gérant la logique de calcul du risque de diabète.
@@ -18,43 +49,478 @@ import java.util.stream.Collectors;
 @Service
 public class AssessmentService {
 
+    /** Erreur d'un résultat de lot dont le patient n'existe pas. */
+    static final String PATIENT_INTROUVABLE = "Patient introuvable";
+
     private final PatientProxy patientProxy;
     private final NoteProxy noteProxy;
-    private final List<String> declencheurs;
+    private final TriggerMatcher declencheurs;
+    private final RiskRules regles;
+    private final Executor executor;
+    private final Duration delaiAppel;
+    private final int tailleLot;
+    private final int lotsEnVol;
+    private final AssessmentCache cache;
+    private final NoteTriggerReader lecteurNotes;
+    private final boolean lectureEnFlux;
 
     /**
-     * Constructeur injectant les proxies nécessaires à la récupération des données
-     * et la liste des déclencheurs depuis les fichiers de configuration.
+     * Constructeur en mode séquentiel : le patient puis ses notes sont récupérés l'un après l'autre.
+     * Les règles de risque historiques sont appliquées et les notes sont désérialisées en liste.
      *
      * @param patientProxy Proxy pour les données administratives.
      * @param noteProxy    Proxy pour l'historique des notes.
-     * @param declencheurs Liste des mots-clés de risque injectée via properties.
+     * @param declencheurs Liste des mots-clés de risque.
      */
     public AssessmentService(PatientProxy patientProxy,
                              NoteProxy noteProxy,
-                             @Value("${medilabo.assessment.triggers}") List<String> declencheurs) {
+                             List<String> declencheurs) {
+        this(patientProxy, noteProxy, declencheurs, RiskRules.parDefaut(), null, Duration.ZERO, 100, 1, null, false);
+    }
+
+    /**
+     * Constructeur injectant les proxies nécessaires à la récupération des données
+     * et la liste des déclencheurs depuis les fichiers de configuration.
+     * Les déclencheurs sont compilés une seule fois en automate de recherche.
+     * En mode réactif, les proxies Feign ne sont pas créés : seuls les règles, le cache et le lecteur
+     * des notes de ce service sont alors utilisés, par {@link ReactiveAssessmentService}.
+     *
+     * @param patientProxy Proxy pour les données administratives ({@code null} en mode réactif).
+     * @param noteProxy    Proxy pour l'historique des notes ({@code null} en mode réactif).
+     * @param declencheurs Liste des mots-clés de risque injectée via properties.
+     * @param regles       Règles de risque compilées.
+     * @param executor     Pool utilisé pour les appels concurrents ({@code null} = mode séquentiel).
+     * @param delaiAppel   Délai maximal d'attente des appels en mode concurrent. Il borne l'attente
+     *                     du thread de la requête, pas l'appel distant lui-même : celui-ci n'est borné
+     *                     que par les délais de connexion et de lecture de Feign.
+     * @param tailleLot    Nombre de patients traités ensemble lors d'une évaluation par lot.
+     * @param lotsEnVol    Nombre maximal de paquets d'un même lot évalués simultanément en mode concurrent.
+     * @param cache        Cache des risques calculés ({@code null} = aucun cache).
+     * @param lectureEnFlux {@code true} pour compter les déclencheurs directement dans la réponse JSON
+     *                      du service de notes, sans construire la liste des notes.
+     */
+    @Autowired
+    public AssessmentService(@Nullable PatientProxy patientProxy,
+                             @Nullable NoteProxy noteProxy,
+                             @Value("${medilabo.assessment.triggers}") List<String> declencheurs,
+                             RiskRules regles,
+                             @Qualifier("assessmentExecutor") @Nullable Executor executor,
+                             @Value("${medilabo.assessment.concurrent.timeout:5s}") Duration delaiAppel,
+                             @Value("${medilabo.assessment.batch.chunk-size:100}") int tailleLot,
+                             @Value("${medilabo.assessment.batch.max-in-flight:4}") int lotsEnVol,
+                             @Nullable AssessmentCache cache,
+                             @Value("${medilabo.assessment.notes.streaming:true}") boolean lectureEnFlux) {
         this.patientProxy = patientProxy;
         this.noteProxy = noteProxy;
-        this.declencheurs = declencheurs;
+        this.declencheurs = new TriggerMatcher(declencheurs);
+        this.regles = regles;
+        this.executor = executor;
+        this.delaiAppel = delaiAppel;
+        this.tailleLot = tailleLot;
+        this.lotsEnVol = lotsEnVol;
+        this.cache = cache;
+        this.lecteurNotes = new NoteTriggerReader(this.declencheurs, new JsonFactory());
+        this.lectureEnFlux = lectureEnFlux;
     }
 
     /**
      * Génère un diagnostic de risque pour un patient spécifique.
+     * <p>
+     * En mode concurrent, le patient et ses notes sont récupérés en parallèle : la latence
+     * est celle de l'appel le plus lent, et l'échec de l'un des deux appels interrompt
+     * immédiatement l'évaluation. Le résultat est conservé en cache jusqu'à la prochaine
+     * modification du patient ou de ses notes.
+     * </p>
      *
      * @param patientId L'identifiant du patient.
-     * @return          Le niveau de risque (None, Borderline, In Danger, Early onset).
+     * @return          Le niveau de risque.
+     */
+    public RiskLevel generateAssessment(Long patientId) {
+        return cache == null ? calculer(patientId) : cache.get(patientId, () -> calculer(patientId));
+    }
+
+    /**
+     * Invalide le risque en cache d'un patient dont les données ont été modifiées.
+     *
+     * @param patientId L'identifiant du patient.
+     */
+    public void invalidateAssessment(Long patientId) {
+        if (cache != null) {
+            cache.invalidate(patientId);
+        }
+    }
+
+    /**
+     * Invalide l'ensemble des risques en cache.
+     */
+    public void invalidateAllAssessments() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Récupère le patient et ses notes puis calcule son niveau de risque.
+     *
+     * @param patientId L'identifiant du patient.
+     * @return          Le niveau de risque.
+     */
+    private RiskLevel calculer(Long patientId) {
+        Patient patient;
+        int nombreDeclencheurs;
+        if (executor == null) {
+            patient = patientProxy.getPatientById(patientId);
+            nombreDeclencheurs = compterDeclencheurs(patientId);
+        } else {
+            CompletableFuture<Patient> patientFuture = appelAsynchrone(() -> patientProxy.getPatientById(patientId));
+            CompletableFuture<Integer> declencheursFuture = appelAsynchrone(() -> compterDeclencheurs(patientId), patientFuture);
+            attendre(patientFuture, declencheursFuture);
+            patient = patientFuture.join();
+            nombreDeclencheurs = declencheursFuture.join();
+        }
+        return evaluer(patient, nombreDeclencheurs);
+    }
+
+    /**
+     * Évalue un lot de patients et retourne le risque de chacun.
+     *
+     * @param patientIds Les identifiants des patients.
+     * @return           Le risque par identifiant, dans l'ordre de la demande ({@code null} si l'évaluation a échoué).
+     * @see #generateAssessments(Collection, Consumer)
      */
-    public String generateAssessment(Long patientId) {
-        Patient patient = patientProxy.getPatientById(patientId);
-        List<Note> notes = noteProxy.getNotesByPatientId(patientId);
+    public Map<Long, RiskLevel> generateAssessments(Collection<Long> patientIds) {
+        Map<Long, RiskLevel> risques = new LinkedHashMap<>();
+        patientIds.forEach(id -> risques.put(id, null));
+        generateAssessments(patientIds, resultat -> risques.put(resultat.getId(), resultat.getRisk()));
+        return risques;
+    }
+
+    /**
+     * Évalue un lot de patients en transmettant chaque résultat dès qu'il est disponible.
+     * <p>
+     * Les identifiants sont traités par paquets : les patients d'un paquet sont récupérés en un
+     * seul appel au service de patients, et leurs notes en un seul appel au service de notes.
+     * En mode concurrent, les deux appels sont lancés en parallèle sur le pool borné, et jusqu'à
+     * {@code medilabo.assessment.batch.max-in-flight} paquets sont évalués simultanément : les résultats
+     * d'un paquet sont transmis dès qu'il est terminé, sans attendre un paquet précédent plus lent.
+     * Un patient introuvable, un appel en échec ou un pool saturé produit un {@link AssessmentResult}
+     * portant l'erreur plutôt que d'interrompre le lot.
+     * </p>
+     * <p>
+     * Le consommateur est appelé depuis le thread appelant uniquement, qui attend la fin des paquets
+     * en cours : il n'a pas à être thread-safe. S'il lève une exception (client déconnecté par exemple),
+     * les paquets suivants ne sont pas lancés.
+     * </p>
+     *
+     * @param patientIds   Les identifiants des patients (les doublons sont ignorés).
+     * @param consommateur Le destinataire des résultats.
+     */
+    public void generateAssessments(Collection<Long> patientIds, Consumer<AssessmentResult> consommateur) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(patientIds));
+        List<List<Long>> lots = new ArrayList<>();
+        for (int debut = 0; debut < ids.size(); debut += tailleLot) {
+            lots.add(ids.subList(debut, Math.min(debut + tailleLot, ids.size())));
+        }
+
+        if (executor == null) {
+            lots.forEach(lot -> evaluerLotSequentiel(lot).forEach(consommateur));
+            return;
+        }
+
+        BlockingQueue<List<AssessmentResult>> termines = new LinkedBlockingQueue<>();
+        int enVol = 0;
+        try {
+            for (List<Long> lot : lots) {
+                if (enVol == lotsEnVol) {
+                    termines.take().forEach(consommateur);
+                    enVol--;
+                }
+                evaluerLotAsynchrone(lot).thenAccept(termines::add);
+                enVol++;
+            }
+            for (; enVol > 0; enVol--) {
+                termines.take().forEach(consommateur);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Récupère un paquet de patients et leurs notes l'un après l'autre, puis les évalue.
+     *
+     * @param lot Les identifiants du paquet.
+     * @return    Un résultat par identifiant, en échec pour tout le paquet si un appel échoue.
+     */
+    private List<AssessmentResult> evaluerLotSequentiel(List<Long> lot) {
+        try {
+            return evaluerLot(lot, patientProxy.getPatientsByIds(lot), compterDeclencheursParPatient(lot));
+        } catch (RuntimeException e) {
+            return lot.stream().map(id -> echec(id, e)).toList();
+        }
+    }
+
+    /**
+     * Lance sur le pool la récupération d'un paquet de patients et de leurs notes, en parallèle.
+     * <p>
+     * Le paquet se termine au premier échec ou à l'expiration du délai d'attente, en abandonnant
+     * l'autre appel. Le résultat à venir ne se termine jamais en erreur : un échec, y compris
+     * le refus d'un pool saturé, est rapporté pour chaque patient du paquet.
+     * </p>
+     *
+     * @param lot Les identifiants du paquet.
+     * @return    Les résultats à venir, un par identifiant.
+     */
+    private CompletableFuture<List<AssessmentResult>> evaluerLotAsynchrone(List<Long> lot) {
+        CompletableFuture<PatientBatch> patientsFuture;
+        CompletableFuture<Map<Long, Integer>> declencheursFuture;
+        try {
+            patientsFuture = appelAsynchrone(() -> patientProxy.getPatientsByIds(lot));
+            declencheursFuture = appelAsynchrone(() -> compterDeclencheursParPatient(lot), patientsFuture);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(lot.stream().map(id -> echec(id, e)).toList());
+        }
+        return terminaison(patientsFuture, declencheursFuture)
+                .thenApply(fin -> evaluerLot(lot, patientsFuture.join(), declencheursFuture.join()))
+                .exceptionally(erreur -> lot.stream().map(id -> echec(id, erreur)).toList());
+    }
+
+    /**
+     * Évalue un paquet de patients déjà récupérés, dans l'ordre de la demande.
+     *
+     * @param lot                    Les identifiants demandés.
+     * @param patients               La réponse de la lecture groupée des patients.
+     * @param declencheursParPatient Le nombre de déclencheurs par patient.
+     * @return                       Un résultat par identifiant ; en échec pour les patients introuvables.
+     */
+    List<AssessmentResult> evaluerLot(List<Long> lot, PatientBatch patients, Map<Long, Integer> declencheursParPatient) {
+        Map<Long, Patient> patientsParId = new HashMap<>();
+        if (patients != null && patients.getPatients() != null) {
+            patients.getPatients().forEach(patient -> patientsParId.put(patient.getId(), patient));
+        }
+        List<AssessmentResult> resultats = new ArrayList<>(lot.size());
+        for (Long id : lot) {
+            Patient patient = patientsParId.get(id);
+            resultats.add(patient == null
+                    ? new AssessmentResult(id, null, PATIENT_INTROUVABLE)
+                    : new AssessmentResult(id, evaluer(patient, declencheursParPatient.getOrDefault(id, 0)), null));
+        }
+        return resultats;
+    }
+
+    /**
+     * Calcule le niveau de risque d'un patient à partir de ses données déjà récupérées.
+     *
+     * @param patient Le patient.
+     * @param notes   L'historique de ses notes.
+     * @return        Le niveau de risque.
+     */
+    public RiskLevel evaluer(Patient patient, List<Note> notes) {
+        return evaluer(patient, compteDeclencheurs(notes));
+    }
 
+    /**
+     * Calcule le niveau de risque d'un patient dont les déclencheurs ont déjà été comptés.
+     *
+     * @param patient            Le patient.
+     * @param nombreDeclencheurs Le nombre de déclencheurs distincts dans ses notes.
+     * @return                   Le niveau de risque.
+     */
+    public RiskLevel evaluer(Patient patient, int nombreDeclencheurs) {
         int age = calculAge(patient.getDateDeNaissance());
-        int nombreDeclencheurs = compteDeclencheurs(notes);
         String genre = patient.getGenre();
 
         return determineRisk(age, genre, nombreDeclencheurs);
     }
 
+    /**
+     * Compte les déclencheurs présents dans l'historique des notes d'un patient.
+     * En lecture en flux, seul le texte des notes est extrait de la réponse, au fil de la lecture.
+     *
+     * @param patientId L'identifiant du patient.
+     * @return          Le nombre de déclencheurs distincts.
+     */
+    public int compterDeclencheurs(Long patientId) {
+        if (!lectureEnFlux) {
+            return compteDeclencheurs(noteProxy.getNotesByPatientId(patientId));
+        }
+        try (Response reponse = noteProxy.getNotesBodyByPatientId(patientId)) {
+            InputStream corps = corps(reponse, "NoteProxy#getNotesBodyByPatientId(Long)");
+            return corps == null ? 0 : lecteurNotes.count(corps);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compte, en un seul appel au service de notes, les déclencheurs de chacun des patients.
+     *
+     * @param patientIds Les identifiants des patients.
+     * @return           Le nombre de déclencheurs par patient (patients sans note absents).
+     */
+    public Map<Long, Integer> compterDeclencheursParPatient(List<Long> patientIds) {
+        if (!lectureEnFlux) {
+            Map<Long, Integer> declencheursParPatient = new HashMap<>();
+            regrouperParPatient(noteProxy.getNotesByPatientIds(patientIds))
+                    .forEach((id, notes) -> declencheursParPatient.put(id, compteDeclencheurs(notes)));
+            return declencheursParPatient;
+        }
+        try (Response reponse = noteProxy.getNotesBodyByPatientIds(patientIds)) {
+            InputStream corps = corps(reponse, "NoteProxy#getNotesBodyByPatientIds(List)");
+            return corps == null ? Map.of() : lecteurNotes.countByPatient(corps);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retourne le lecteur en flux des réponses du service de notes, partagé avec le mode réactif.
+     *
+     * @return Le lecteur construit sur les déclencheurs de ce service.
+     */
+    NoteTriggerReader lecteurNotes() {
+        return lecteurNotes;
+    }
+
+    /**
+     * Vérifie le statut d'une réponse brute et retourne son corps.
+     * Feign ne décodant pas les erreurs pour ce type de retour, elles sont converties ici
+     * en {@link FeignException}, comme pour les appels désérialisés.
+     *
+     * @param reponse   La réponse du service de notes.
+     * @param methodKey La méthode du proxy, reprise dans le message d'erreur.
+     * @return          Le corps de la réponse, ou {@code null} si elle n'en a pas.
+     * @throws IOException En cas d'erreur d'ouverture du corps.
+     */
+    private static InputStream corps(Response reponse, String methodKey) throws IOException {
+        if (reponse.status() >= 400) {
+            throw FeignException.errorStatus(methodKey, reponse);
+        }
+        return reponse.body() == null ? null : reponse.body().asInputStream();
+    }
+
+    /**
+     * Regroupe une liste de notes par identifiant de patient.
+     *
+     * @param notes Les notes de plusieurs patients.
+     * @return      Les notes indexées par patient.
+     */
+    static Map<Long, List<Note>> regrouperParPatient(List<Note> notes) {
+        Map<Long, List<Note>> notesParPatient = new HashMap<>();
+        for (Note note : notes) {
+            if (note.getPatId() != null) {
+                notesParPatient.computeIfAbsent(note.getPatId().longValue(), id -> new ArrayList<>()).add(note);
+            }
+        }
+        return notesParPatient;
+    }
+
+    /**
+     * Construit le résultat d'une évaluation en échec.
+     *
+     * @param patientId L'identifiant du patient.
+     * @param erreur    La cause de l'échec.
+     * @return          Un résultat sans niveau de risque.
+     */
+    static AssessmentResult echec(Long patientId, Throwable erreur) {
+        Throwable cause = erreur;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return new AssessmentResult(patientId, null, message);
+    }
+
+    /**
+     * Lance un appel distant sur le pool dédié.
+     * <p>
+     * Le pool refuse les appels lorsqu'il est saturé : la requête échoue alors immédiatement (503)
+     * au lieu d'exécuter l'appel sur son propre thread, où aucun délai ne s'appliquerait.
+     * </p>
+     *
+     * @param appel     L'appel à exécuter.
+     * @param lances    Les appels déjà lancés pour la même évaluation, abandonnés si celui-ci est refusé.
+     * @return          Le résultat à venir de l'appel.
+     * @throws ResponseStatusException 503 si le pool est saturé.
+     */
+    private <T> CompletableFuture<T> appelAsynchrone(Supplier<T> appel, CompletableFuture<?>... lances) {
+        try {
+            return CompletableFuture.supplyAsync(appel, executor);
+        } catch (RejectedExecutionException e) {
+            for (CompletableFuture<?> lance : lances) {
+                lance.cancel(false);
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Pool d'appels aux microservices saturé, réessayer plus tard", e);
+        }
+    }
+
+    /**
+     * Attend la fin de tous les appels, le premier échec ou l'expiration du délai d'attente.
+     * En cas d'échec, l'exception d'origine est relancée telle quelle (par exemple une
+     * {@code FeignException}) afin de conserver le même comportement qu'en mode séquentiel.
+     *
+     * @param appels Les appels en cours.
+     * @see #terminaison(CompletableFuture[])
+     */
+    private void attendre(CompletableFuture<?>... appels) {
+        try {
+            terminaison(appels).get();
+        } catch (ExecutionException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                for (CompletableFuture<?> appel : appels) {
+                    appel.cancel(false);
+                }
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Retourne la fin à venir d'un ensemble d'appels : la fin de tous les appels, le premier échec
+     * ou l'expiration du délai d'attente. En cas d'échec, les autres appels sont abandonnés.
+     * <p>
+     * L'abandon ne libère que les appels encore en file : un appel déjà commencé ne peut pas être
+     * interrompu et occupe son thread jusqu'à la réponse ou jusqu'au délai de lecture de Feign
+     * ({@code spring.cloud.openfeign.client.config.default.read-timeout}), qui fait seul autorité
+     * sur la durée d'un appel distant.
+     * </p>
+     *
+     * @param appels Les appels en cours.
+     * @return       La fin à venir, en erreur avec la cause d'origine ou un dépassement de délai.
+     */
+    private CompletableFuture<Void> terminaison(CompletableFuture<?>... appels) {
+        CompletableFuture<Void> fin = new CompletableFuture<>();
+        CompletableFuture.allOf(appels).thenRun(() -> fin.complete(null));
+        for (CompletableFuture<?> appel : appels) {
+            appel.whenComplete((resultat, erreur) -> {
+                if (erreur != null) {
+                    fin.completeExceptionally(erreur);
+                }
+            });
+        }
+        CompletableFuture.delayedExecutor(delaiAppel.toMillis(), TimeUnit.MILLISECONDS).execute(() ->
+                fin.completeExceptionally(new RuntimeException(
+                        "Délai dépassé lors de l'appel aux microservices (" + delaiAppel + ")", new TimeoutException())));
+        fin.whenComplete((resultat, erreur) -> {
+            if (erreur != null) {
+                for (CompletableFuture<?> appel : appels) {
+                    appel.cancel(false);
+                }
+            }
+        });
+        return fin;
+    }
+
     /**
      * Calcule l'âge à partir de la date de naissance.
      *
@@ -68,18 +534,21 @@ public class AssessmentService {
 
     /**
      * Compte le nombre de termes déclencheurs présents dans l'historique des notes.
+     * Les notes sont parcourues une seule fois, sans concaténation, et la lecture
+     * s'arrête dès que tous les déclencheurs ont été trouvés.
      *
      * @param notes La liste des notes médicales.
      * @return      Le nombre total de mots-clés uniques identifiés.
      */
-    private int compteDeclencheurs(List<Note> notes) {
-        String contenuNotes = notes.stream()
-                .map(note -> note.getNote() != null ? note.getNote().toLowerCase() : "")
-                .collect(Collectors.joining(" "));
-
-        return (int) declencheurs.stream()
-                .filter(contenuNotes::contains)
-                .count();
+    int compteDeclencheurs(List<Note> notes) {
+        TriggerMatcher.Scan scan = declencheurs.newScan();
+        for (Note note : notes) {
+            if (note.getNote() != null && scan.feed(note.getNote())) {
+                break;
+            }
+            scan.endOfText();
+        }
+        return scan.count();
     }
 
     /**
@@ -88,24 +557,9 @@ public class AssessmentService {
      * @param age                Âge du patient.
      * @param genre              Genre du patient (M/F).
      * @param nombreDeclencheurs Nombre de symptômes détectés.
-     * @return                   Le libellé du niveau de risque.
+     * @return                   Le niveau de risque.
      */
-    private String determineRisk(int age, String genre, int nombreDeclencheurs) {
-        if (nombreDeclencheurs == 0) return "None";
-
-        if (age > 30) {
-            if (nombreDeclencheurs >= 8) return "Early onset";
-            if (nombreDeclencheurs >= 6) return "In Danger";
-            if (nombreDeclencheurs >= 2) return "Borderline";
-        } else {
-            if ("M".equals(genre)) {
-                if (nombreDeclencheurs >= 5) return "Early onset";
-                if (nombreDeclencheurs >= 3) return "In Danger";
-            } else if ("F".equals(genre)) {
-                if (nombreDeclencheurs >= 7) return "Early onset";
-                if (nombreDeclencheurs >= 4) return "In Danger";
-            }
-        }
-        return "None";
+    RiskLevel determineRisk(int age, String genre, int nombreDeclencheurs) {
+        return regles.resolve(age, genre, nombreDeclencheurs);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,264 @@
+package com.medilabo.assessment_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compte les déclencheurs directement dans la réponse JSON du service de notes
+ * (un tableau d'objets {@code {"patId": ..., "note": "..."}}), sans construire d'objets {@code Note}.
+ * <p>
+ * Le corps est lu jeton par jeton avec l'analyseur en flux de Jackson : seuls les caractères
+ * du champ {@code note} sont transmis à l'automate, les autres champs ({@code id}, {@code patient},
+ * {@code date}...) sont ignorés au fil de la lecture. La mémoire utilisée est celle du tampon
+ * de lecture et de la note en cours, quel que soit le nombre de notes du patient.
+ * </p>
+ * <p>
+ * Deux modes de lecture sont proposés : bloquant à partir d'un {@link InputStream} (proxies Feign)
+ * et non bloquant, alimenté morceau par morceau ({@link Incremental}, mode réactif).
+ * Une instance est immuable et peut être partagée entre threads.
+ * </p>
+ */
+public final class NoteTriggerReader {
+
+    private static final String CHAMP_NOTE = "note";
+    private static final String CHAMP_PATIENT = "patId";
+
+    /** Profondeur des objets note : 1 pour le tableau racine, 2 pour ses éléments. */
+    private static final int PROFONDEUR_NOTE = 2;
+
+    private final TriggerMatcher declencheurs;
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Constructeur.
+     *
+     * @param declencheurs L'automate des déclencheurs.
+     * @param jsonFactory  La fabrique d'analyseurs JSON.
+     */
+    public NoteTriggerReader(TriggerMatcher declencheurs, JsonFactory jsonFactory) {
+        this.declencheurs = declencheurs;
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Compte les déclencheurs distincts dans les notes d'un seul patient.
+     * La lecture s'arrête dès que tous les déclencheurs ont été trouvés.
+     *
+     * @param corps Le corps de la réponse ; il n'est pas fermé par cette méthode.
+     * @return      Le nombre de déclencheurs distincts.
+     * @throws IOException En cas d'erreur de lecture ou de JSON invalide.
+     */
+    public int count(InputStream corps) throws IOException {
+        Lecture lecture = new Lecture(false);
+        try (JsonParser parser = ouvrir(corps)) {
+            JsonToken jeton;
+            while (!lecture.estComplete() && (jeton = parser.nextToken()) != null) {
+                lecture.accepter(jeton, parser);
+            }
+        }
+        return lecture.compte();
+    }
+
+    /**
+     * Compte les déclencheurs distincts de chaque patient dans une réponse regroupant plusieurs patients.
+     *
+     * @param corps Le corps de la réponse ; il n'est pas fermé par cette méthode.
+     * @return      Le nombre de déclencheurs par identifiant de patient (patients sans note absents).
+     * @throws IOException En cas d'erreur de lecture ou de JSON invalide.
+     */
+    public Map<Long, Integer> countByPatient(InputStream corps) throws IOException {
+        Lecture lecture = new Lecture(true);
+        try (JsonParser parser = ouvrir(corps)) {
+            JsonToken jeton;
+            while ((jeton = parser.nextToken()) != null) {
+                lecture.accepter(jeton, parser);
+            }
+        }
+        return lecture.compteParPatient();
+    }
+
+    /**
+     * Ouvre un analyseur sur le corps d'une réponse sans lui en confier la fermeture :
+     * Jackson ferme sinon la source en même temps que l'analyseur ({@code AUTO_CLOSE_SOURCE}).
+     *
+     * @param corps Le corps de la réponse, fermé par l'appelant.
+     * @return      L'analyseur.
+     * @throws IOException En cas d'erreur de lecture.
+     */
+    private JsonParser ouvrir(InputStream corps) throws IOException {
+        return jsonFactory.createParser(corps).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
+    /**
+     * Démarre une lecture non bloquante, alimentée au fil de la réception du corps.
+     *
+     * @param parPatient {@code true} pour une réponse regroupant plusieurs patients.
+     * @return           Une lecture vierge.
+     */
+    public Incremental incremental(boolean parPatient) {
+        try {
+            return new Incremental(jsonFactory.createNonBlockingByteBufferParser(), new Lecture(parPatient));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lecture non bloquante : chaque morceau reçu est analysé aussitôt, puis peut être libéré.
+     * Une instance n'est pas thread-safe ; les morceaux doivent être fournis dans l'ordre.
+     */
+    public final class Incremental {
+
+        private final JsonParser parser;
+        private final Lecture lecture;
+
+        private Incremental(JsonParser parser, Lecture lecture) {
+            this.parser = parser;
+            this.lecture = lecture;
+        }
+
+        /**
+         * Analyse un morceau du corps.
+         *
+         * @param morceau Les octets reçus ; ils sont entièrement consommés par cet appel.
+         * @throws IOException En cas de JSON invalide.
+         */
+        public void feed(ByteBuffer morceau) throws IOException {
+            ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(morceau);
+            avancer();
+        }
+
+        /**
+         * Signale la fin du corps et retourne le nombre de déclencheurs du patient.
+         *
+         * @return Le nombre de déclencheurs distincts.
+         * @throws IOException En cas de JSON tronqué.
+         */
+        public int count() throws IOException {
+            terminer();
+            return lecture.compte();
+        }
+
+        /**
+         * Signale la fin du corps et retourne le nombre de déclencheurs de chaque patient.
+         *
+         * @return Le nombre de déclencheurs par identifiant de patient.
+         * @throws IOException En cas de JSON tronqué.
+         */
+        public Map<Long, Integer> countByPatient() throws IOException {
+            terminer();
+            return lecture.compteParPatient();
+        }
+
+        private void avancer() throws IOException {
+            JsonToken jeton;
+            while ((jeton = parser.nextToken()) != null && jeton != JsonToken.NOT_AVAILABLE) {
+                lecture.accepter(jeton, parser);
+            }
+        }
+
+        private void terminer() throws IOException {
+            parser.getNonBlockingInputFeeder().endOfInput();
+            avancer();
+            parser.close();
+        }
+    }
+
+    /**
+     * État d'une lecture : position dans le document et recherches en cours.
+     */
+    private final class Lecture {
+
+        private final boolean parPatient;
+        private final TriggerMatcher.Scan scanUnique;
+        private final Map<Long, TriggerMatcher.Scan> scans = new HashMap<>();
+
+        private int profondeur;
+        private String champ;
+        private Long patIdCourant;
+
+        /** Texte d'une note rencontrée avant le {@code patId} de son objet (lecture par patient uniquement). */
+        private String noteEnAttente;
+
+        private Lecture(boolean parPatient) {
+            this.parPatient = parPatient;
+            this.scanUnique = parPatient ? null : declencheurs.newScan();
+        }
+
+        private void accepter(JsonToken jeton, JsonParser parser) throws IOException {
+            switch (jeton) {
+                case START_OBJECT, START_ARRAY -> {
+                    profondeur++;
+                    if (profondeur == PROFONDEUR_NOTE) {
+                        champ = null;
+                        patIdCourant = null;
+                        noteEnAttente = null;
+                    }
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    if (profondeur == PROFONDEUR_NOTE && noteEnAttente != null && patIdCourant != null) {
+                        TriggerMatcher.Scan scan = scan(patIdCourant);
+                        scan.feed(noteEnAttente);
+                        scan.endOfText();
+                    }
+                    profondeur--;
+                }
+                case FIELD_NAME -> {
+                    if (profondeur == PROFONDEUR_NOTE) {
+                        champ = parser.currentName();
+                    }
+                }
+                case VALUE_STRING -> {
+                    if (profondeur == PROFONDEUR_NOTE && CHAMP_NOTE.equals(champ)) {
+                        lireNote(parser);
+                    }
+                }
+                case VALUE_NUMBER_INT -> {
+                    if (profondeur == PROFONDEUR_NOTE && CHAMP_PATIENT.equals(champ)) {
+                        patIdCourant = parser.getLongValue();
+                    }
+                }
+                default -> {
+                    // Autres valeurs (dates, booléens, null...) : ignorées.
+                }
+            }
+        }
+
+        private void lireNote(JsonParser parser) throws IOException {
+            if (parPatient && patIdCourant == null) {
+                noteEnAttente = parser.getText();
+                return;
+            }
+            TriggerMatcher.Scan scan = parPatient ? scan(patIdCourant) : scanUnique;
+            scan.feed(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            scan.endOfText();
+        }
+
+        private TriggerMatcher.Scan scan(Long patId) {
+            return scans.computeIfAbsent(patId, id -> declencheurs.newScan());
+        }
+
+        private boolean estComplete() {
+            return !parPatient && scanUnique.isComplete();
+        }
+
+        private int compte() {
+            return scanUnique.count();
+        }
+
+        private Map<Long, Integer> compteParPatient() {
+            Map<Long, Integer> comptes = new HashMap<>();
+            scans.forEach((patId, scan) -> comptes.put(patId, scan.count()));
+            return comptes;
+        }
+    }
+}
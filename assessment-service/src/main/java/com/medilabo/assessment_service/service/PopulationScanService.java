@@ -0,0 +1,86 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.proxies.PatientProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Service de réévaluation de l'ensemble des patients, par exemple après une modification
+ * de la liste des déclencheurs.
+ * <p>
+ * Les patients sont parcourus page par page (pagination sur clé) et les notes de chaque page
+ * sont récupérées en un seul appel : la mémoire utilisée est celle d'une page, quelle que soit
+ * la taille de la population.
+ * </p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PopulationScanService {
+
+    private final PatientProxy patientProxy;
+    private final AssessmentService assessmentService;
+    private final int taillePage;
+
+    /**
+     * Constructeur injectant les proxies, le service de calcul et la taille des pages.
+     *
+     * @param patientProxy      Proxy pour les données administratives.
+     * @param assessmentService Le service appliquant les règles métier.
+     * @param taillePage        Nombre de patients récupérés par page.
+     */
+    public PopulationScanService(PatientProxy patientProxy,
+                                 AssessmentService assessmentService,
+                                 @Value("${medilabo.assessment.scan.page-size:500}") int taillePage) {
+        this.patientProxy = patientProxy;
+        this.assessmentService = assessmentService;
+        this.taillePage = taillePage;
+    }
+
+    /**
+     * Évalue tous les patients, page après page, en transmettant chaque résultat au consommateur.
+     * <p>
+     * Le consommateur est appelé depuis le thread courant : s'il est bloqué (client lent),
+     * la page suivante n'est pas demandée. S'il lève une exception (client déconnecté),
+     * le parcours s'arrête.
+     * </p>
+     *
+     * @param consommateur Le destinataire des résultats.
+     */
+    public void scan(Consumer<AssessmentResult> consommateur) {
+        List<Patient> page = patientProxy.getPatientsPage(0L, taillePage);
+        while (!page.isEmpty()) {
+            evaluerPage(page, consommateur);
+            Long after = page.get(page.size() - 1).getId();
+            page = patientProxy.getPatientsPage(after, taillePage);
+        }
+    }
+
+    /**
+     * Évalue une page de patients à partir du nombre de déclencheurs de leurs notes, récupérées en un seul appel.
+     * Si les notes ne peuvent pas être récupérées, chaque patient de la page est signalé en échec.
+     *
+     * @param page         Les patients de la page.
+     * @param consommateur Le destinataire des résultats.
+     */
+    private void evaluerPage(List<Patient> page, Consumer<AssessmentResult> consommateur) {
+        List<Long> ids = page.stream().map(Patient::getId).toList();
+        Map<Long, Integer> declencheursParPatient;
+        try {
+            declencheursParPatient = assessmentService.compterDeclencheursParPatient(ids);
+        } catch (RuntimeException e) {
+            ids.forEach(id -> consommateur.accept(AssessmentService.echec(id, e)));
+            return;
+        }
+        for (Patient patient : page) {
+            int nombreDeclencheurs = declencheursParPatient.getOrDefault(patient.getId(), 0);
+            consommateur.accept(new AssessmentResult(patient.getId(), assessmentService.evaluer(patient, nombreDeclencheurs), null));
+        }
+    }
+}
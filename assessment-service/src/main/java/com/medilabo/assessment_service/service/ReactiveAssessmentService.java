@@ -0,0 +1,257 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.model.PatientBatch;
+import com.medilabo.assessment_service.model.RiskLevel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variante non bloquante du service d'évaluation, active en mode réactif
+ * ({@code spring.main.web-application-type=reactive}).
+ * <p>
+ * Le patient et ses notes sont récupérés avec {@link WebClient} : aucune requête n'occupe
+ * de thread pendant l'attente des microservices, si bien qu'un petit nombre de threads
+ * d'entrée/sortie suffit à traiter des milliers d'évaluations simultanées. Les règles métier
+ * et le cache sont ceux du service {@link AssessmentService}, le résultat est donc identique.
+ * </p>
+ * <p>
+ * Les réponses du service de notes ne sont jamais désérialisées : chaque morceau reçu est
+ * analysé par le {@link NoteTriggerReader} puis libéré aussitôt.
+ * </p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAssessmentService {
+
+    private static final ParameterizedTypeReference<List<Patient>> LISTE_PATIENTS = new ParameterizedTypeReference<>() { };
+
+    private final WebClient patientClient;
+    private final WebClient noteClient;
+    private final AssessmentService assessmentService;
+    private final AssessmentCache cache;
+    private final Duration delaiAppel;
+    private final int tailleLot;
+    private final int lotsEnVol;
+    private final int taillePage;
+
+    /**
+     * Constructeur injectant les adresses des microservices et les réglages partagés avec le mode servlet.
+     *
+     * @param webClientBuilder  Le builder de {@link WebClient} configuré par Spring Boot.
+     * @param patientServiceUrl L'adresse du service de patients.
+     * @param noteServiceUrl    L'adresse du service de notes.
+     * @param assessmentService Le service appliquant les règles métier.
+     * @param cache             Cache des risques calculés ({@code null} = aucun cache).
+     * @param delaiAppel        Délai maximal accordé à chaque appel.
+     * @param tailleLot         Nombre de patients traités ensemble lors d'une évaluation par lot.
+     * @param lotsEnVol         Nombre maximal de paquets d'un même lot évalués simultanément.
+     * @param taillePage        Nombre de patients récupérés par page lors d'une réévaluation complète.
+     */
+    public ReactiveAssessmentService(WebClient.Builder webClientBuilder,
+                                     @Value("${patient-service.url:http://localhost:9001}") String patientServiceUrl,
+                                     @Value("${note-service.url:http://localhost:9002}") String noteServiceUrl,
+                                     AssessmentService assessmentService,
+                                     @Nullable AssessmentCache cache,
+                                     @Value("${medilabo.assessment.concurrent.timeout:5s}") Duration delaiAppel,
+                                     @Value("${medilabo.assessment.batch.chunk-size:100}") int tailleLot,
+                                     @Value("${medilabo.assessment.batch.max-in-flight:4}") int lotsEnVol,
+                                     @Value("${medilabo.assessment.scan.page-size:500}") int taillePage) {
+        this.patientClient = webClientBuilder.clone().baseUrl(patientServiceUrl).build();
+        this.noteClient = webClientBuilder.clone().baseUrl(noteServiceUrl).build();
+        this.assessmentService = assessmentService;
+        this.cache = cache;
+        this.delaiAppel = delaiAppel;
+        this.tailleLot = tailleLot;
+        this.lotsEnVol = lotsEnVol;
+        this.taillePage = taillePage;
+    }
+
+    /**
+     * Génère un diagnostic de risque pour un patient spécifique.
+     * Le patient et ses notes sont demandés simultanément ; l'échec de l'un des deux appels
+     * annule l'autre et termine l'évaluation en erreur.
+     *
+     * @param patientId L'identifiant du patient.
+     * @return          Le niveau de risque à venir.
+     */
+    public Mono<RiskLevel> generateAssessment(Long patientId) {
+        if (cache == null) {
+            return calculer(patientId);
+        }
+        RiskLevel enCache = cache.getIfPresent(patientId);
+        if (enCache != null) {
+            return Mono.just(enCache);
+        }
+        long generation = cache.generation();
+        return calculer(patientId).doOnNext(risque -> cache.put(patientId, risque, generation));
+    }
+
+    /**
+     * Évalue un lot de patients et retourne le risque de chacun.
+     *
+     * @param patientIds Les identifiants des patients.
+     * @return           Le risque par identifiant, dans l'ordre de la demande ({@code null} si l'évaluation a échoué).
+     */
+    public Mono<Map<Long, RiskLevel>> generateAssessmentsMap(Collection<Long> patientIds) {
+        return generateAssessments(patientIds).collect(() -> {
+            Map<Long, RiskLevel> risques = new LinkedHashMap<>();
+            patientIds.forEach(id -> risques.put(id, null));
+            return risques;
+        }, (risques, resultat) -> risques.put(resultat.getId(), resultat.getRisk()));
+    }
+
+    /**
+     * Évalue un lot de patients en publiant les résultats paquet par paquet.
+     * Les patients et les notes d'un paquet sont récupérés en un appel chacun, en parallèle, et jusqu'à
+     * {@code medilabo.assessment.batch.max-in-flight} paquets sont évalués simultanément : les résultats
+     * d'un paquet sont publiés dès qu'il est terminé, sans attendre un paquet précédent plus lent.
+     * Un patient introuvable ou un appel en échec produit un {@link AssessmentResult}
+     * portant l'erreur plutôt que d'interrompre le lot.
+     *
+     * @param patientIds Les identifiants des patients (les doublons sont ignorés).
+     * @return           Les résultats, dans l'ordre de leur obtention.
+     */
+    public Flux<AssessmentResult> generateAssessments(Collection<Long> patientIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(patientIds));
+        return Flux.fromIterable(ids)
+                .buffer(tailleLot)
+                .flatMap(lot -> Mono.zip(patients(lot), declencheursDesPatients(lot))
+                        .flatMapIterable(donnees -> assessmentService.evaluerLot(lot, donnees.getT1(), donnees.getT2()))
+                        .onErrorResume(erreur -> Flux.fromIterable(lot).map(id -> AssessmentService.echec(id, erreur))), lotsEnVol);
+    }
+
+    /**
+     * Réévalue l'ensemble des patients, page par page (pagination sur clé).
+     * La page suivante n'est demandée qu'au rythme de consommation des résultats.
+     *
+     * @return Les résultats, patient par patient.
+     */
+    public Flux<AssessmentResult> scan() {
+        return page(0L)
+                .expand(page -> page.isEmpty() ? Mono.empty() : page(page.get(page.size() - 1).getId()))
+                .takeWhile(page -> !page.isEmpty())
+                .concatMap(this::evaluerPage, 0);
+    }
+
+    private Mono<RiskLevel> calculer(Long patientId) {
+        Mono<Integer> declencheurs = noteClient.get()
+                .uri("/notes/patient/{patId}/text", patientId)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .reduceWith(() -> assessmentService.lecteurNotes().incremental(false), ReactiveAssessmentService::lire)
+                .map(lecture -> terminer(lecture::count))
+                .timeout(delaiAppel);
+        return Mono.zip(patient(patientId), declencheurs)
+                .map(donnees -> assessmentService.evaluer(donnees.getT1(), donnees.getT2()));
+    }
+
+    private Mono<Patient> patient(Long patientId) {
+        return patientClient.get()
+                .uri("/api/patients/{id}", patientId)
+                .retrieve()
+                .bodyToMono(Patient.class)
+                .timeout(delaiAppel);
+    }
+
+    private Mono<PatientBatch> patients(List<Long> patientIds) {
+        return patientClient.get()
+                .uri(uri -> uri.path("/api/patients").queryParam("ids", patientIds).build())
+                .retrieve()
+                .bodyToMono(PatientBatch.class)
+                .timeout(delaiAppel);
+    }
+
+    private Mono<Map<Long, Integer>> declencheursDesPatients(List<Long> patientIds) {
+        return noteClient.get()
+                .uri(uri -> uri.path("/notes/patients/text").queryParam("ids", patientIds).build())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .reduceWith(() -> assessmentService.lecteurNotes().incremental(true), ReactiveAssessmentService::lire)
+                .map(lecture -> terminer(lecture::countByPatient))
+                .timeout(delaiAppel);
+    }
+
+    /**
+     * Analyse un morceau de réponse du service de notes puis le libère.
+     *
+     * @param lecture La lecture en cours.
+     * @param morceau Le morceau reçu.
+     * @return        La même lecture, pour la réduction suivante.
+     */
+    private static NoteTriggerReader.Incremental lire(NoteTriggerReader.Incremental lecture, DataBuffer morceau) {
+        try (DataBuffer.ByteBufferIterator tampons = morceau.readableByteBuffers()) {
+            while (tampons.hasNext()) {
+                ByteBuffer tampon = tampons.next();
+                lecture.feed(tampon);
+            }
+            return lecture;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(morceau);
+        }
+    }
+
+    /**
+     * Termine une lecture en convertissant l'erreur de JSON tronqué en exception non vérifiée.
+     *
+     * @param fin La fin de lecture à appeler.
+     * @return    Le résultat de la lecture.
+     */
+    private static <T> T terminer(FinDeLecture<T> fin) {
+        try {
+            return fin.terminer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fin d'une lecture en flux, susceptible d'échouer sur un JSON tronqué.
+     */
+    @FunctionalInterface
+    private interface FinDeLecture<T> {
+        T terminer() throws IOException;
+    }
+
+    private Mono<List<Patient>> page(Long after) {
+        return patientClient.get()
+                .uri(uri -> uri.path("/api/patients").queryParam("after", after).queryParam("limit", taillePage).build())
+                .retrieve()
+                .bodyToMono(LISTE_PATIENTS)
+                .defaultIfEmpty(List.of())
+                .timeout(delaiAppel);
+    }
+
+    private Flux<AssessmentResult> evaluerPage(List<Patient> page) {
+        List<Long> ids = page.stream().map(Patient::getId).toList();
+        return declencheursDesPatients(ids)
+                .flatMapMany(declencheursParPatient -> Flux.fromIterable(page)
+                        .map(patient -> new AssessmentResult(patient.getId(),
+                                assessmentService.evaluer(patient, declencheursParPatient.getOrDefault(patient.getId(), 0)), null)))
+                .onErrorResume(erreur -> Flux.fromIterable(ids).map(id -> AssessmentService.echec(id, erreur)));
+    }
+}
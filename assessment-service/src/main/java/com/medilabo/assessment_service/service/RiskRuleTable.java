@@ -0,0 +1,148 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.model.RiskRuleDefinition;
+
+/**
+ * Table de décision compilée à partir des seuils configurés.
+ * <p>
+ * Toutes les combinaisons (tranche d'âge, genre, nombre de déclencheurs) sont calculées à la
+ * construction et rangées dans un tableau à plat : une évaluation se résume à un calcul d'indice
+ * et une lecture, sans branchement sur les seuils ni allocation. Au-delà du plus grand seuil
+ * configuré, le niveau ne change plus ; le nombre de déclencheurs est donc plafonné.
+ * </p>
+ * <p>
+ * Une instance est immuable et peut être partagée entre threads.
+ * </p>
+ */
+final class RiskRuleTable {
+
+    private static final int JEUNE = 0;
+    private static final int PLUS_AGE = 1;
+
+    private static final int HOMME = 0;
+    private static final int FEMME = 1;
+    private static final int AUTRE = 2;
+    private static final int GENRES = 3;
+
+    /** Niveaux associés, dans l'ordre, aux seuils d'une règle. */
+    private static final RiskLevel[] NIVEAUX = {RiskLevel.BORDERLINE, RiskLevel.IN_DANGER, RiskLevel.EARLY_ONSET};
+    private static final int JAMAIS = Integer.MAX_VALUE;
+
+    private final RiskRuleDefinition definition;
+    private final int ageLimite;
+
+    /** Nombre de colonnes par ligne (tranche, genre) : de 0 au plus grand seuil. */
+    private final int largeur;
+
+    /** {@code table[((tranche * GENRES) + genre) * largeur + min(nombre, largeur - 1)]}. */
+    private final RiskLevel[] table;
+
+    /**
+     * Compile la table à partir des seuils.
+     *
+     * @param definition Les seuils à appliquer.
+     * @throws IllegalArgumentException Si une règle est mal formée.
+     */
+    RiskRuleTable(RiskRuleDefinition definition) {
+        if (definition.getAgeLimite() < 0) {
+            throw new IllegalArgumentException("L'âge limite doit être positif : " + definition.getAgeLimite());
+        }
+        int[][] seuils = new int[2 * GENRES][];
+        int[] plusAge = lireSeuils("plusAge", definition.getPlusAge());
+        seuils[PLUS_AGE * GENRES + HOMME] = plusAge;
+        seuils[PLUS_AGE * GENRES + FEMME] = plusAge;
+        seuils[PLUS_AGE * GENRES + AUTRE] = plusAge;
+        seuils[JEUNE * GENRES + HOMME] = lireSeuils("hommeJeune", definition.getHommeJeune());
+        seuils[JEUNE * GENRES + FEMME] = lireSeuils("femmeJeune", definition.getFemmeJeune());
+        seuils[JEUNE * GENRES + AUTRE] = lireSeuils("autreJeune", definition.getAutreJeune());
+
+        int plusGrandSeuil = 0;
+        for (int[] regle : seuils) {
+            for (int seuil : regle) {
+                if (seuil != JAMAIS) {
+                    plusGrandSeuil = Math.max(plusGrandSeuil, seuil);
+                }
+            }
+        }
+
+        this.definition = definition;
+        this.ageLimite = definition.getAgeLimite();
+        this.largeur = plusGrandSeuil + 1;
+        this.table = new RiskLevel[seuils.length * largeur];
+        for (int ligne = 0; ligne < seuils.length; ligne++) {
+            for (int nombre = 0; nombre < largeur; nombre++) {
+                RiskLevel niveau = RiskLevel.NONE;
+                for (int i = 0; i < NIVEAUX.length; i++) {
+                    if (nombre >= seuils[ligne][i]) {
+                        niveau = NIVEAUX[i];
+                    }
+                }
+                table[ligne * largeur + nombre] = niveau;
+            }
+        }
+    }
+
+    /**
+     * Retourne le niveau de risque d'une combinaison.
+     *
+     * @param age                Âge du patient.
+     * @param genre              Genre du patient (M/F, toute autre valeur est traitée à part).
+     * @param nombreDeclencheurs Nombre de déclencheurs distincts trouvés.
+     * @return                   Le niveau de risque.
+     */
+    RiskLevel resolve(int age, String genre, int nombreDeclencheurs) {
+        int tranche = age > ageLimite ? PLUS_AGE : JEUNE;
+        int indiceGenre = "M".equals(genre) ? HOMME : "F".equals(genre) ? FEMME : AUTRE;
+        int colonne = Math.min(Math.max(nombreDeclencheurs, 0), largeur - 1);
+        return table[(tranche * GENRES + indiceGenre) * largeur + colonne];
+    }
+
+    /**
+     * @return Les seuils à partir desquels la table a été compilée.
+     */
+    RiskRuleDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Lit une règle de la forme {@code "2,6,8"} ou {@code "-,3,5"}.
+     *
+     * @param nom    Le nom de la règle, pour les messages d'erreur.
+     * @param valeur La règle à lire.
+     * @return       Les trois seuils ({@link #JAMAIS} pour un niveau jamais atteint).
+     * @throws IllegalArgumentException Si la règle est mal formée ou si ses seuils ne sont pas croissants.
+     */
+    private static int[] lireSeuils(String nom, String valeur) {
+        if (valeur == null) {
+            throw new IllegalArgumentException("Règle " + nom + " absente");
+        }
+        String[] parties = valeur.split(",");
+        if (parties.length != NIVEAUX.length) {
+            throw new IllegalArgumentException("Règle " + nom + " : " + NIVEAUX.length + " seuils attendus, reçu '" + valeur + "'");
+        }
+        int[] seuils = new int[NIVEAUX.length];
+        int precedent = 0;
+        for (int i = 0; i < parties.length; i++) {
+            String partie = parties[i].trim();
+            if ("-".equals(partie)) {
+                seuils[i] = JAMAIS;
+                continue;
+            }
+            try {
+                seuils[i] = Integer.parseInt(partie);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Règle " + nom + " : seuil invalide '" + partie + "'", e);
+            }
+            if (seuils[i] < 1) {
+                throw new IllegalArgumentException("Règle " + nom + " : les seuils doivent être supérieurs ou égaux à 1");
+            }
+            // Un niveau plus grave ne peut pas être atteint avec moins de déclencheurs qu'un niveau moins grave.
+            if (seuils[i] < precedent) {
+                throw new IllegalArgumentException("Règle " + nom + " : les seuils doivent être croissants, reçu '" + valeur + "'");
+            }
+            precedent = seuils[i];
+        }
+        return seuils;
+    }
+}
@@ -0,0 +1,104 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.model.RiskRuleDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Règles métier de calcul du risque, compilées en table de décision.
+ * <p>
+ * Les seuils sont lus dans la configuration au démarrage et peuvent être remplacés à chaud
+ * (endpoint Actuator {@code riskrules}) : la nouvelle table est entièrement compilée avant
+ * d'être publiée, de sorte qu'une évaluation en cours utilise toujours une table complète.
+ * Une modification partielle est appliquée par comparaison et échange : deux modifications
+ * concurrentes ne s'écrasent pas.
+ * </p>
+ */
+@Component
+public class RiskRules {
+
+    private final AtomicReference<RiskRuleTable> table;
+
+    /**
+     * Constructeur lisant les seuils depuis les fichiers de configuration.
+     *
+     * @param ageLimite  Âge au-delà duquel la règle {@code plusAge} s'applique.
+     * @param plusAge    Seuils des patients de plus de {@code ageLimite} ans.
+     * @param hommeJeune Seuils des hommes jusqu'à {@code ageLimite} ans.
+     * @param femmeJeune Seuils des femmes jusqu'à {@code ageLimite} ans.
+     * @param autreJeune Seuils des autres patients jusqu'à {@code ageLimite} ans.
+     */
+    @Autowired
+    public RiskRules(@Value("${medilabo.assessment.rules.age-limite}") int ageLimite,
+                     @Value("${medilabo.assessment.rules.plus-age}") String plusAge,
+                     @Value("${medilabo.assessment.rules.homme-jeune}") String hommeJeune,
+                     @Value("${medilabo.assessment.rules.femme-jeune}") String femmeJeune,
+                     @Value("${medilabo.assessment.rules.autre-jeune}") String autreJeune) {
+        this(new RiskRuleDefinition(ageLimite, plusAge, hommeJeune, femmeJeune, autreJeune));
+    }
+
+    /**
+     * Constructeur à partir de seuils déjà regroupés.
+     *
+     * @param definition Les seuils à appliquer.
+     */
+    public RiskRules(RiskRuleDefinition definition) {
+        this.table = new AtomicReference<>(new RiskRuleTable(definition));
+    }
+
+    /**
+     * @return Les règles historiques de MediLabo (limite à 30 ans).
+     */
+    public static RiskRules parDefaut() {
+        return new RiskRules(new RiskRuleDefinition(30, "2,6,8", "-,3,5", "-,4,7", "-,-,-"));
+    }
+
+    /**
+     * Retourne le niveau de risque d'un patient.
+     *
+     * @param age                Âge du patient.
+     * @param genre              Genre du patient (M/F).
+     * @param nombreDeclencheurs Nombre de déclencheurs distincts trouvés.
+     * @return                   Le niveau de risque.
+     */
+    public RiskLevel resolve(int age, String genre, int nombreDeclencheurs) {
+        return table.get().resolve(age, genre, nombreDeclencheurs);
+    }
+
+    /**
+     * @return Les seuils actuellement appliqués.
+     */
+    public RiskRuleDefinition getDefinition() {
+        return table.get().getDefinition();
+    }
+
+    /**
+     * Compile de nouveaux seuils et les substitue aux règles actuelles.
+     * En cas d'erreur, les règles actuelles restent en vigueur.
+     *
+     * @param definition Les nouveaux seuils.
+     * @throws IllegalArgumentException Si une règle est mal formée.
+     */
+    public void reload(RiskRuleDefinition definition) {
+        table.set(new RiskRuleTable(definition));
+    }
+
+    /**
+     * Modifie les seuils actuels et substitue le résultat aux règles actuelles, en une seule opération.
+     * Si une autre modification est publiée entre-temps, la modification est recalculée à partir
+     * de ses seuils. En cas d'erreur, les règles actuelles restent en vigueur.
+     *
+     * @param modification La fonction calculant les nouveaux seuils à partir des seuils actuels.
+     * @return             Les seuils désormais appliqués.
+     * @throws IllegalArgumentException Si une règle est mal formée.
+     */
+    public RiskRuleDefinition reload(UnaryOperator<RiskRuleDefinition> modification) {
+        return table.updateAndGet(actuelle -> new RiskRuleTable(modification.apply(actuelle.getDefinition())))
+                .getDefinition();
+    }
+}
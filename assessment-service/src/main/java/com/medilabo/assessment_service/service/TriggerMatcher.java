@@ -0,0 +1,228 @@
+package com.medilabo.assessment_service.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Automate d'Aho-Corasick recherchant simultanément tous les déclencheurs dans un texte.
+ * <p>
+ * L'automate est compilé une seule fois à partir de la liste configurée : chaque caractère
+ * lu coûte une consultation de table, quel que soit le nombre de déclencheurs. La recherche
+ * est insensible à la casse (les caractères sont convertis en minuscules au fil de la lecture)
+ * et ne construit aucune chaîne intermédiaire.
+ * </p>
+ * <p>
+ * Une instance est immuable et peut être partagée entre threads ; l'état d'une recherche
+ * est porté par un {@link Scan}, propre à chaque appel.
+ * </p>
+ */
+public final class TriggerMatcher {
+
+    private static final int RACINE = 0;
+
+    private final int nombreDeclencheurs;
+
+    /** Classe de chaque caractère présent dans les déclencheurs (0 = caractère inconnu). */
+    private final int[] classes;
+
+    /** Nombre de classes de caractères, y compris la classe 0. */
+    private final int alphabet;
+
+    /** Table de transition complète : {@code transitions[etat * alphabet + classe]}. */
+    private final int[] transitions;
+
+    /** Indices des déclencheurs reconnus en atteignant chaque état (liens d'échec inclus). */
+    private final int[][] sorties;
+
+    /**
+     * Compile l'automate à partir de la liste des déclencheurs.
+     *
+     * @param declencheurs Les mots-clés à rechercher (les entrées vides sont ignorées).
+     */
+    public TriggerMatcher(Collection<String> declencheurs) {
+        List<String> termes = new ArrayList<>();
+        for (String declencheur : declencheurs) {
+            if (declencheur != null && !declencheur.isEmpty()) {
+                termes.add(declencheur.toLowerCase());
+            }
+        }
+        this.nombreDeclencheurs = termes.size();
+
+        TreeSet<Character> caracteres = new TreeSet<>();
+        for (String terme : termes) {
+            for (int i = 0; i < terme.length(); i++) {
+                caracteres.add(terme.charAt(i));
+            }
+        }
+        this.classes = new int[caracteres.isEmpty() ? 0 : caracteres.last() + 1];
+        int prochaineClasse = 1;
+        for (char c : caracteres) {
+            classes[c] = prochaineClasse++;
+        }
+        this.alphabet = prochaineClasse;
+
+        // 1. Construction du trie (transitions absentes = -1).
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> sortiesTrie = new ArrayList<>();
+        trie.add(nouvelEtat());
+        sortiesTrie.add(new ArrayList<>());
+        for (int indice = 0; indice < termes.size(); indice++) {
+            String terme = termes.get(indice);
+            int etat = RACINE;
+            for (int i = 0; i < terme.length(); i++) {
+                int classe = classes[terme.charAt(i)];
+                if (trie.get(etat)[classe] < 0) {
+                    trie.get(etat)[classe] = trie.size();
+                    trie.add(nouvelEtat());
+                    sortiesTrie.add(new ArrayList<>());
+                }
+                etat = trie.get(etat)[classe];
+            }
+            sortiesTrie.get(etat).add(indice);
+        }
+
+        // 2. Parcours en largeur : liens d'échec et table de transition complète.
+        int nombreEtats = trie.size();
+        this.transitions = new int[nombreEtats * alphabet];
+        this.sorties = new int[nombreEtats][];
+        int[] echecs = new int[nombreEtats];
+        Queue<Integer> file = new ArrayDeque<>();
+
+        sorties[RACINE] = new int[0];
+        for (int classe = 0; classe < alphabet; classe++) {
+            int suivant = trie.get(RACINE)[classe];
+            if (suivant > 0) {
+                echecs[suivant] = RACINE;
+                transitions[classe] = suivant;
+                file.add(suivant);
+            } else {
+                transitions[classe] = RACINE;
+            }
+        }
+        while (!file.isEmpty()) {
+            int etat = file.poll();
+            sorties[etat] = fusionner(sortiesTrie.get(etat), sorties[echecs[etat]]);
+            for (int classe = 0; classe < alphabet; classe++) {
+                int suivant = trie.get(etat)[classe];
+                if (suivant > 0) {
+                    echecs[suivant] = transitions[echecs[etat] * alphabet + classe];
+                    transitions[etat * alphabet + classe] = suivant;
+                    file.add(suivant);
+                } else {
+                    transitions[etat * alphabet + classe] = transitions[echecs[etat] * alphabet + classe];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Le nombre de déclencheurs reconnus par l'automate.
+     */
+    public int size() {
+        return nombreDeclencheurs;
+    }
+
+    /**
+     * Démarre une nouvelle recherche.
+     *
+     * @return Un état de recherche vierge.
+     */
+    public Scan newScan() {
+        return new Scan();
+    }
+
+    private int[] nouvelEtat() {
+        int[] etat = new int[alphabet];
+        Arrays.fill(etat, -1);
+        return etat;
+    }
+
+    private static int[] fusionner(List<Integer> propres, int[] herites) {
+        int[] resultat = Arrays.copyOf(herites, herites.length + propres.size());
+        for (int i = 0; i < propres.size(); i++) {
+            resultat[herites.length + i] = propres.get(i);
+        }
+        return resultat;
+    }
+
+    /**
+     * État d'une recherche en cours : position dans l'automate et déclencheurs déjà rencontrés.
+     * Une instance n'est pas thread-safe et ne doit servir qu'à une seule évaluation.
+     */
+    public final class Scan {
+
+        private final long[] vus = new long[(nombreDeclencheurs + 63) >>> 6];
+        private int etat = RACINE;
+        private int compte;
+
+        private Scan() {
+        }
+
+        /**
+         * Analyse un texte caractère par caractère.
+         *
+         * @param texte Le texte à analyser.
+         * @return      {@code true} si tous les déclencheurs ont déjà été trouvés.
+         */
+        public boolean feed(CharSequence texte) {
+            for (int i = 0, n = texte.length(); i < n && !isComplete(); i++) {
+                avancer(texte.charAt(i));
+            }
+            return isComplete();
+        }
+
+        /**
+         * Analyse une portion de tampon de caractères, sans la copier.
+         *
+         * @param tampon   Le tampon contenant le texte.
+         * @param debut    L'indice du premier caractère à lire.
+         * @param longueur Le nombre de caractères à lire.
+         * @return         {@code true} si tous les déclencheurs ont déjà été trouvés.
+         */
+        public boolean feed(char[] tampon, int debut, int longueur) {
+            for (int i = debut, fin = debut + longueur; i < fin && !isComplete(); i++) {
+                avancer(tampon[i]);
+            }
+            return isComplete();
+        }
+
+        /**
+         * Signale la fin d'un texte : la correspondance partielle en cours est abandonnée.
+         */
+        public void endOfText() {
+            etat = RACINE;
+        }
+
+        /**
+         * @return Le nombre de déclencheurs distincts trouvés depuis le début de la recherche.
+         */
+        public int count() {
+            return compte;
+        }
+
+        /**
+         * @return {@code true} si tous les déclencheurs ont été trouvés ; la suite du texte est alors inutile.
+         */
+        public boolean isComplete() {
+            return compte == nombreDeclencheurs;
+        }
+
+        private void avancer(char caractere) {
+            char minuscule = Character.toLowerCase(caractere);
+            int classe = minuscule < classes.length ? classes[minuscule] : 0;
+            etat = transitions[etat * alphabet + classe];
+            for (int indice : sorties[etat]) {
+                long masque = 1L << indice;
+                if ((vus[indice >>> 6] & masque) == 0) {
+                    vus[indice >>> 6] |= masque;
+                    compte++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.medilabo.assessment_service;
+
+import com.medilabo.assessment_service.controller.AssessmentController;
+import com.medilabo.assessment_service.controller.ReactiveAssessmentController;
+import com.medilabo.assessment_service.proxies.PatientProxy;
+import feign.Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class AssessmentServiceReactiveApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	void contextLoads_withReactiveControllerOnly() {
+		assertEquals(1, context.getBeanNamesForType(ReactiveAssessmentController.class).length);
+		assertEquals(0, context.getBeanNamesForType(AssessmentController.class).length);
+	}
+
+	/**
+	 * Vérifie que le mode réactif ne crée ni les proxies Feign, ni leur client HTTP, ni le pool d'appels bloquants.
+	 */
+	@Test
+	void contextLoads_withoutServletClientStack() {
+		assertEquals(0, context.getBeanNamesForType(PatientProxy.class).length);
+		assertEquals(0, context.getBeanNamesForType(Client.class).length);
+		assertEquals(0, context.getBeanNamesForType(CloseableHttpClient.class).length);
+		assertEquals(0, context.getBeanNamesForType(ExecutorService.class).length);
+	}
+
+}
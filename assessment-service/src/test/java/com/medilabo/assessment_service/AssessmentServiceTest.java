@@ -1,22 +1,50 @@
 package com.medilabo.assessment_service.service;
 
+import com.medilabo.assessment_service.model.AssessmentResult;
 import com.medilabo.assessment_service.model.Note;
 import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.model.PatientBatch;
+import com.medilabo.assessment_service.model.RiskLevel;
 import com.medilabo.assessment_service.proxies.NoteProxy;
 import com.medilabo.assessment_service.proxies.PatientProxy;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -33,16 +61,29 @@ class AssessmentServiceTest {
 
     private AssessmentService assessmentService;
 
+    private List<String> mockTriggers;
+
+    private ExecutorService executor;
+
     /**
      * Initialise le service avec ses dépendances mockées et la liste des déclencheurs avant chaque test.
      */
     @BeforeEach
     void setUp() {
-        List<String> mockTriggers = Arrays.asList(
+        mockTriggers = Arrays.asList(
                 "hémoglobine a1c", "microalbumine", "taille", "poids", "fumeur",
                 "anormal", "cholestérol", "vertiges", "rechute", "réaction", "anticorps"
         );
         assessmentService = new AssessmentService(patientProxy, noteProxy, mockTriggers);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    /**
+     * Libère le pool de threads utilisé par les tests du mode concurrent.
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
     }
 
     /**
@@ -57,9 +98,9 @@ class AssessmentServiceTest {
         when(patientProxy.getPatientById(patientId)).thenReturn(mockPatient);
         when(noteProxy.getNotesByPatientId(patientId)).thenReturn(mockNotes);
 
-        String result = assessmentService.generateAssessment(patientId);
+        RiskLevel result = assessmentService.generateAssessment(patientId);
 
-        assertEquals("None", result);
+        assertEquals(RiskLevel.NONE, result);
     }
 
     /**
@@ -77,9 +118,9 @@ class AssessmentServiceTest {
         when(patientProxy.getPatientById(anyLong())).thenReturn(mockPatient);
         when(noteProxy.getNotesByPatientId(anyLong())).thenReturn(mockNotes);
 
-        String result = assessmentService.generateAssessment(patientId);
+        RiskLevel result = assessmentService.generateAssessment(patientId);
 
-        assertEquals("Borderline", result);
+        assertEquals(RiskLevel.BORDERLINE, result);
     }
 
     /**
@@ -99,9 +140,9 @@ class AssessmentServiceTest {
         when(patientProxy.getPatientById(anyLong())).thenReturn(mockPatient);
         when(noteProxy.getNotesByPatientId(anyLong())).thenReturn(mockNotes);
 
-        String result = assessmentService.generateAssessment(patientId);
+        RiskLevel result = assessmentService.generateAssessment(patientId);
 
-        assertEquals("In Danger", result);
+        assertEquals(RiskLevel.IN_DANGER, result);
     }
 
     /**
@@ -125,8 +166,230 @@ class AssessmentServiceTest {
         when(patientProxy.getPatientById(anyLong())).thenReturn(mockPatient);
         when(noteProxy.getNotesByPatientId(anyLong())).thenReturn(mockNotes);
 
-        String result = assessmentService.generateAssessment(patientId);
+        RiskLevel result = assessmentService.generateAssessment(patientId);
+
+        assertEquals(RiskLevel.EARLY_ONSET, result);
+    }
+
+    /**
+     * Vérifie que le mode concurrent produit le même diagnostic que le mode séquentiel.
+     */
+    @Test
+    void generateAssessment_shouldReturnSameRisk_whenConcurrent() {
+        AssessmentService concurrent = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofSeconds(2), 100, 4, null, false);
+        Patient mockPatient = new Patient(1L, "Test", "Borderline", LocalDate.of(1950, 1, 1), "M");
+        List<Note> mockNotes = Arrays.asList(
+                new Note("id1", "Patient fumeur occasionnel"),
+                new Note("id2", "Se plaint de vertiges fréquents")
+        );
+
+        when(patientProxy.getPatientById(anyLong())).thenReturn(mockPatient);
+        when(noteProxy.getNotesByPatientId(anyLong())).thenReturn(mockNotes);
+
+        assertEquals(RiskLevel.BORDERLINE, concurrent.generateAssessment(1L));
+    }
+
+    /**
+     * Vérifie qu'un échec de l'un des appels interrompt l'évaluation sans attendre l'autre appel.
+     */
+    @Test
+    void generateAssessment_shouldFailFast_whenOneCallFails() {
+        AssessmentService concurrent = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofSeconds(10), 100, 4, null, false);
+
+        when(patientProxy.getPatientById(anyLong())).thenThrow(new IllegalStateException("patient-service indisponible"));
+        lenient().when(noteProxy.getNotesByPatientId(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Collections.emptyList();
+        });
+
+        IllegalStateException erreur = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> assertThrows(IllegalStateException.class, () -> concurrent.generateAssessment(1L)));
+        assertEquals("patient-service indisponible", erreur.getMessage());
+    }
+
+    /**
+     * Vérifie qu'un appel trop lent est interrompu par le délai configuré.
+     */
+    @Test
+    void generateAssessment_shouldFail_whenCallTimesOut() {
+        AssessmentService concurrent = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofMillis(100), 100, 4, null, false);
+
+        when(patientProxy.getPatientById(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return null;
+        });
+        lenient().when(noteProxy.getNotesByPatientId(anyLong())).thenReturn(Collections.emptyList());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> assertThrows(RuntimeException.class, () -> concurrent.generateAssessment(1L)));
+    }
+
+    /**
+     * Vérifie qu'un pool saturé fait échouer l'évaluation aussitôt, sans exécuter l'appel sur le thread de la requête.
+     */
+    @Test
+    void generateAssessment_shouldFailFast_whenPoolIsSaturated() throws InterruptedException {
+        ExecutorService sature = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch libere = new CountDownLatch(1);
+        sature.execute(() -> {
+            try {
+                libere.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AssessmentService concurrent = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), sature, Duration.ofSeconds(10), 100, 4, null, false);
+
+        try {
+            ResponseStatusException erreur = assertThrows(ResponseStatusException.class, () -> concurrent.generateAssessment(1L));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, erreur.getStatusCode());
+            verify(patientProxy, never()).getPatientById(anyLong());
+        } finally {
+            libere.countDown();
+            sature.shutdown();
+        }
+    }
+
+    /**
+     * Vérifie qu'une évaluation par lot récupère les notes par paquet et conserve l'ordre de la demande.
+     */
+    @Test
+    void generateAssessments_shouldFetchNotesPerChunkAndKeepOrder() {
+        AssessmentService lot = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofSeconds(2), 2, 4, null, false);
+        Patient ancien = new Patient(1L, "Test", "Ancien", LocalDate.of(1950, 1, 1), "M");
+        Patient jeune = new Patient(2L, "Test", "Jeune", LocalDate.now().minusYears(20), "M");
+        Patient sain = new Patient(3L, "Test", "Sain", LocalDate.of(1970, 1, 1), "F");
+
+        when(patientProxy.getPatientsByIds(List.of(3L, 1L))).thenReturn(new PatientBatch(List.of(sain, ancien), List.of()));
+        when(patientProxy.getPatientsByIds(List.of(2L))).thenReturn(new PatientBatch(List.of(jeune), List.of()));
+        when(noteProxy.getNotesByPatientIds(List.of(3L, 1L))).thenReturn(Arrays.asList(
+                new Note("a", 1, "Patient fumeur"),
+                new Note("b", 1, "Vertiges"),
+                new Note("c", 3, "RAS")
+        ));
+        when(noteProxy.getNotesByPatientIds(List.of(2L))).thenReturn(Arrays.asList(
+                new Note("d", 2, "Rechute"),
+                new Note("e", 2, "Bilan anormal, réaction allergique")
+        ));
+
+        Map<Long, RiskLevel> risques = lot.generateAssessments(List.of(3L, 1L, 2L));
+
+        assertEquals(List.of(3L, 1L, 2L), List.copyOf(risques.keySet()));
+        assertEquals(RiskLevel.NONE, risques.get(3L));
+        assertEquals(RiskLevel.BORDERLINE, risques.get(1L));
+        assertEquals(RiskLevel.IN_DANGER, risques.get(2L));
+        verify(noteProxy, times(2)).getNotesByPatientIds(anyList());
+        verify(noteProxy, never()).getNotesByPatientId(anyLong());
+        verify(patientProxy, times(2)).getPatientsByIds(anyList());
+        verify(patientProxy, never()).getPatientById(anyLong());
+    }
+
+    /**
+     * Vérifie qu'un patient introuvable n'empêche pas l'évaluation des autres patients du lot,
+     * et que l'échec d'un appel groupé est signalé pour chaque patient de son paquet.
+     */
+    @Test
+    void generateAssessments_shouldIsolateFailures() {
+        AssessmentService lot = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofSeconds(2), 2, 4, null, false);
+
+        when(patientProxy.getPatientsByIds(List.of(1L, 2L))).thenReturn(
+                new PatientBatch(List.of(new Patient(2L, "Test", "Sain", LocalDate.of(1970, 1, 1), "F")), List.of(1L)));
+        when(patientProxy.getPatientsByIds(List.of(3L))).thenThrow(new IllegalStateException("patient-service indisponible"));
+        when(noteProxy.getNotesByPatientIds(anyList())).thenReturn(Collections.emptyList());
+
+        List<AssessmentResult> resultats = new ArrayList<>();
+        lot.generateAssessments(List.of(1L, 2L, 3L), resultats::add);
+
+        assertEquals(Set.of(
+                new AssessmentResult(1L, null, AssessmentService.PATIENT_INTROUVABLE),
+                new AssessmentResult(2L, RiskLevel.NONE, null),
+                new AssessmentResult(3L, null, "patient-service indisponible")), Set.copyOf(resultats));
+    }
+
+    /**
+     * Vérifie que les paquets d'un lot sont évalués simultanément : les résultats d'un paquet
+     * sont transmis sans attendre la fin d'un paquet précédent plus lent.
+     */
+    @Test
+    void generateAssessments_shouldNotWaitForSlowerChunk() {
+        AssessmentService lot = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofSeconds(5), 1, 4, null, false);
+        CountDownLatch troisiemeTransmis = new CountDownLatch(1);
+
+        when(patientProxy.getPatientsByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.equals(List.of(2L))) {
+                troisiemeTransmis.await(5, TimeUnit.SECONDS);
+            }
+            return new PatientBatch(ids.stream().map(id -> new Patient(id, "Test", "Sain", LocalDate.of(1970, 1, 1), "F")).toList(), List.of());
+        });
+        when(noteProxy.getNotesByPatientIds(anyList())).thenReturn(Collections.emptyList());
+
+        List<Long> ordre = new ArrayList<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(3), () -> lot.generateAssessments(List.of(1L, 2L, 3L), resultat -> {
+            ordre.add(resultat.getId());
+            if (resultat.getId() == 3L) {
+                troisiemeTransmis.countDown();
+            }
+        }));
+
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(ordre));
+        assertTrue(ordre.indexOf(3L) < ordre.indexOf(2L));
+    }
+
+    /**
+     * Vérifie qu'en lecture en flux, le risque est calculé à partir de la réponse brute du service de notes.
+     */
+    @Test
+    void generateAssessment_shouldCountTriggersFromRawBody_whenStreaming() {
+        AssessmentService enFlux = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), null, Duration.ZERO, 100, 4, null, true);
+
+        when(patientProxy.getPatientById(1L)).thenReturn(new Patient(1L, "Test", "Ancien", LocalDate.of(1950, 1, 1), "M"));
+        when(noteProxy.getNotesBodyByPatientId(1L)).thenReturn(reponse(200,
+                "[{\"id\":\"a\",\"patId\":1,\"patient\":\"Ancien\",\"note\":\"Fumeur\"},{\"id\":\"b\",\"patId\":1,\"note\":\"Vertiges\"}]"));
+
+        assertEquals(RiskLevel.BORDERLINE, enFlux.generateAssessment(1L));
+        verify(noteProxy, never()).getNotesByPatientId(anyLong());
+    }
+
+    /**
+     * Vérifie qu'en lecture en flux, une erreur HTTP du service de notes est relevée comme avec Feign.
+     */
+    @Test
+    void generateAssessment_shouldThrowFeignException_whenStreamingResponseIsError() {
+        AssessmentService enFlux = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), null, Duration.ZERO, 100, 4, null, true);
+
+        when(patientProxy.getPatientById(1L)).thenReturn(new Patient(1L, "Test", "Ancien", LocalDate.of(1950, 1, 1), "M"));
+        when(noteProxy.getNotesBodyByPatientId(1L)).thenReturn(reponse(503, "indisponible"));
+
+        assertThrows(FeignException.ServiceUnavailable.class, () -> enFlux.generateAssessment(1L));
+    }
+
+    /**
+     * Vérifie qu'en lecture en flux, les déclencheurs d'un lot sont comptés patient par patient.
+     */
+    @Test
+    void generateAssessments_shouldCountTriggersPerPatient_whenStreaming() {
+        AssessmentService enFlux = new AssessmentService(patientProxy, noteProxy, mockTriggers, RiskRules.parDefaut(), executor, Duration.ofSeconds(2), 100, 4, null, true);
+
+        when(patientProxy.getPatientsByIds(List.of(1L, 2L))).thenReturn(new PatientBatch(List.of(
+                new Patient(1L, "Test", "Ancien", LocalDate.of(1950, 1, 1), "M"),
+                new Patient(2L, "Test", "Sain", LocalDate.of(1970, 1, 1), "F")), List.of()));
+        when(noteProxy.getNotesBodyByPatientIds(List.of(1L, 2L))).thenReturn(reponse(200,
+                "[{\"patId\":1,\"note\":\"Fumeur\"},{\"patId\":1,\"note\":\"Vertiges\"}]"));
+
+        Map<Long, RiskLevel> risques = enFlux.generateAssessments(List.of(1L, 2L));
+
+        assertEquals(RiskLevel.BORDERLINE, risques.get(1L));
+        assertEquals(RiskLevel.NONE, risques.get(2L));
+        verify(noteProxy, never()).getNotesByPatientIds(anyList());
+    }
 
-        assertEquals("Early onset", result);
+    private static Response reponse(int statut, String corps) {
+        Request requete = Request.create(Request.HttpMethod.GET, "/notes", Map.of(), null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(statut)
+                .request(requete)
+                .body(corps, StandardCharsets.UTF_8)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.medilabo.assessment_service.controller;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.service.AssessmentService;
+import com.medilabo.assessment_service.service.PopulationScanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests unitaires pour le contrôleur AssessmentController.
+ */
+@WebMvcTest(AssessmentController.class)
+class AssessmentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AssessmentService assessmentService;
+
+    @MockitoBean
+    private PopulationScanService populationScanService;
+
+    /**
+     * Vérifie la récupération du risque d'un patient.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    void getAssessmentByPatientId_shouldReturnRisk() throws Exception {
+        when(assessmentService.generateAssessment(1L)).thenReturn(RiskLevel.BORDERLINE);
+
+        mockMvc.perform(get("/assess/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Borderline"));
+    }
+
+    /**
+     * Vérifie que l'évaluation par lot retourne le risque de chaque patient demandé.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    void getAssessments_shouldReturnRiskPerPatient() throws Exception {
+        Map<Long, RiskLevel> risques = new LinkedHashMap<>();
+        risques.put(1L, RiskLevel.NONE);
+        risques.put(2L, null);
+        when(assessmentService.generateAssessments(anyList())).thenReturn(risques);
+
+        mockMvc.perform(post("/assess/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1']").value("None"))
+                .andExpect(jsonPath("$['2']").doesNotExist());
+    }
+
+    /**
+     * Vérifie que l'évaluation par lot en flux publie une ligne JSON par patient.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAssessments_shouldWriteOneLinePerPatient() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<AssessmentResult> consommateur = invocation.getArgument(1);
+            consommateur.accept(new AssessmentResult(1L, RiskLevel.NONE, null));
+            consommateur.accept(new AssessmentResult(2L, null, "introuvable"));
+            return null;
+        }).when(assessmentService).generateAssessments(anyList(), any(Consumer.class));
+
+        MvcResult resultat = mockMvc.perform(post("/assess/batch/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(List.of(1, 2).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultat))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("{\"id\":1,\"risk\":\"None\"}\n")))
+                .andExpect(content().string(containsString("{\"id\":2,\"error\":\"introuvable\"}\n")));
+    }
+
+    /**
+     * Vérifie l'invalidation du risque en cache d'un patient.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    void invalidateAssessment_shouldEvictPatient() throws Exception {
+        mockMvc.perform(delete("/assess/cache/3"))
+                .andExpect(status().isNoContent());
+
+        verify(assessmentService).invalidateAssessment(3L);
+    }
+}
@@ -0,0 +1,79 @@
+package com.medilabo.assessment_service.controller;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.service.AssessmentService;
+import com.medilabo.assessment_service.service.ReactiveAssessmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitaires pour le contrôleur ReactiveAssessmentController.
+ */
+@WebFluxTest(ReactiveAssessmentController.class)
+class ReactiveAssessmentControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveAssessmentService reactiveAssessmentService;
+
+    @MockitoBean
+    private AssessmentService assessmentService;
+
+    /**
+     * Vérifie que le risque est retourné sous forme de libellé, comme en mode servlet.
+     */
+    @Test
+    void getAssessmentByPatientId_shouldReturnLabel() {
+        when(reactiveAssessmentService.generateAssessment(1L)).thenReturn(Mono.just(RiskLevel.IN_DANGER));
+
+        webTestClient.get().uri("/assess/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("In Danger");
+    }
+
+    /**
+     * Vérifie que l'évaluation par lot en flux publie une ligne JSON par patient.
+     */
+    @Test
+    void streamAssessments_shouldWriteOneLinePerPatient() {
+        when(reactiveAssessmentService.generateAssessments(anyList())).thenReturn(Flux.just(
+                new AssessmentResult(1L, RiskLevel.NONE, null),
+                new AssessmentResult(2L, null, "introuvable")));
+
+        webTestClient.post().uri("/assess/batch/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(1, 2))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"id\":1,\"risk\":\"None\"}\n{\"id\":2,\"error\":\"introuvable\"}\n");
+    }
+
+    /**
+     * Vérifie l'invalidation du cache d'un patient.
+     */
+    @Test
+    void invalidateAssessment_shouldReturnNoContent() {
+        webTestClient.delete().uri("/assess/cache/1")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(assessmentService).invalidateAssessment(1L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.RiskLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classe de tests unitaires validant le cache des niveaux de risque.
+ */
+class AssessmentCacheTest {
+
+    private AssessmentCache cache;
+    private final AtomicInteger calculs = new AtomicInteger();
+
+    /**
+     * Initialise un cache vide avant chaque test.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new AssessmentCache(new ConcurrentMapCacheManager(AssessmentCache.NOM));
+    }
+
+    private RiskLevel calcul() {
+        calculs.incrementAndGet();
+        return RiskLevel.NONE;
+    }
+
+    /**
+     * Vérifie qu'un risque déjà calculé est servi depuis le cache.
+     */
+    @Test
+    void get_shouldComputeOnlyOnce() {
+        cache.get(1L, this::calcul);
+        cache.get(1L, this::calcul);
+
+        assertEquals(1, calculs.get());
+    }
+
+    /**
+     * Vérifie qu'une invalidation force un nouveau calcul pour le patient concerné uniquement.
+     */
+    @Test
+    void invalidate_shouldEvictOnlyThePatient() {
+        cache.get(1L, this::calcul);
+        cache.get(2L, this::calcul);
+
+        cache.invalidate(1L);
+        cache.get(1L, this::calcul);
+        cache.get(2L, this::calcul);
+
+        assertEquals(3, calculs.get());
+    }
+
+    /**
+     * Vérifie qu'un calcul concurrent d'une invalidation ne laisse pas de résultat périmé en cache.
+     */
+    @Test
+    void get_shouldNotKeepResultComputedDuringInvalidation() {
+        cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return calcul();
+        });
+        cache.get(1L, this::calcul);
+
+        assertEquals(2, calculs.get());
+    }
+
+    /**
+     * Vérifie que l'invalidation globale vide le cache.
+     */
+    @Test
+    void invalidateAll_shouldClearCache() {
+        cache.get(1L, this::calcul);
+
+        cache.invalidateAll();
+        cache.get(1L, this::calcul);
+
+        assertEquals(2, calculs.get());
+    }
+}
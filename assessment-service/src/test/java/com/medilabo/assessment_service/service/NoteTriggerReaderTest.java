@@ -0,0 +1,123 @@
+package com.medilabo.assessment_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Classe de tests unitaires validant le comptage des déclencheurs dans la réponse JSON du service de notes.
+ */
+class NoteTriggerReaderTest {
+
+    private final NoteTriggerReader lecteur = new NoteTriggerReader(
+            new TriggerMatcher(List.of("fumeur", "vertiges", "poids", "anormal")), new JsonFactory());
+
+    private static InputStream corps(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Vérifie que seul le champ {@code note} est analysé, les autres champs étant ignorés.
+     */
+    @Test
+    void count_shouldReadOnlyNoteField() throws IOException {
+        String json = """
+                [{"id":"fumeur","patId":1,"patient":"Vertiges","date":"2024-01-01","note":"Patient fumeur"},
+                 {"id":"b","patId":1,"patient":"Test","meta":{"note":"vertiges"},"note":"Poids stable"}]
+                """;
+
+        assertEquals(2, lecteur.count(corps(json)));
+    }
+
+    /**
+     * Vérifie qu'un déclencheur ne peut pas être reconnu à cheval sur deux notes.
+     */
+    @Test
+    void count_shouldNotMatchAcrossNotes() throws IOException {
+        assertEquals(0, lecteur.count(corps("[{\"note\":\"fum\"},{\"note\":\"eur\"}]")));
+    }
+
+    /**
+     * Vérifie que le corps de la réponse reste ouvert, sa fermeture revenant à l'appelant.
+     */
+    @Test
+    void count_shouldNotCloseBody() throws IOException {
+        AtomicBoolean ferme = new AtomicBoolean();
+        InputStream flux = new FilterInputStream(corps("[{\"patId\":1,\"note\":\"fumeur\"}]")) {
+            @Override
+            public void close() {
+                ferme.set(true);
+            }
+        };
+        flux.mark(1024);
+
+        assertEquals(1, lecteur.count(flux));
+        flux.reset();
+        assertEquals(Map.of(1L, 1), lecteur.countByPatient(flux));
+        assertFalse(ferme.get());
+    }
+
+    /**
+     * Vérifie qu'une réponse vide ou des notes sans texte donnent zéro déclencheur.
+     */
+    @Test
+    void count_shouldReturnZero_whenNoText() throws IOException {
+        assertEquals(0, lecteur.count(corps("[]")));
+        assertEquals(0, lecteur.count(corps("[{\"patId\":1,\"note\":null}]")));
+    }
+
+    /**
+     * Vérifie le regroupement par patient, y compris lorsque le texte précède le {@code patId}.
+     */
+    @Test
+    void countByPatient_shouldGroupByPatId() throws IOException {
+        String json = """
+                [{"patId":1,"note":"Fumeur"},
+                 {"note":"Vertiges et poids","patId":2},
+                 {"patId":1,"note":"Anormal"},
+                 {"note":"Fumeur sans patient"}]
+                """;
+
+        assertEquals(Map.of(1L, 2, 2L, 2), lecteur.countByPatient(corps(json)));
+    }
+
+    /**
+     * Vérifie que la lecture non bloquante donne le même résultat lorsque le corps
+     * est découpé au milieu d'un mot, et même d'un caractère accentué.
+     */
+    @Test
+    void incremental_shouldHandleSplitChunks() throws IOException {
+        byte[] octets = "[{\"patId\":3,\"note\":\"Taille normale, vertiges é fumeur\"}]".getBytes(StandardCharsets.UTF_8);
+        NoteTriggerReader.Incremental lecture = lecteur.incremental(true);
+        for (int debut = 0; debut < octets.length; debut += 5) {
+            lecture.feed(ByteBuffer.wrap(octets, debut, Math.min(5, octets.length - debut)));
+        }
+
+        assertEquals(Map.of(3L, 2), lecture.countByPatient());
+    }
+
+    /**
+     * Vérifie qu'une réponse tronquée est signalée en erreur.
+     */
+    @Test
+    void incremental_shouldFail_whenBodyIsTruncated() throws IOException {
+        NoteTriggerReader.Incremental lecture = lecteur.incremental(false);
+        lecture.feed(ByteBuffer.wrap("[{\"note\":\"fumeur".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(JsonParseException.class, lecture::count);
+    }
+}
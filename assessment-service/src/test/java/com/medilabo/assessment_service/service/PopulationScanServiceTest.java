@@ -0,0 +1,105 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.Note;
+import com.medilabo.assessment_service.model.Patient;
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.proxies.NoteProxy;
+import com.medilabo.assessment_service.proxies.PatientProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Classe de tests unitaires validant la réévaluation de l'ensemble des patients.
+ */
+@ExtendWith(MockitoExtension.class)
+class PopulationScanServiceTest {
+
+    @Mock
+    private PatientProxy patientProxy;
+
+    @Mock
+    private NoteProxy noteProxy;
+
+    private PopulationScanService scanService;
+
+    private final Patient ancien = new Patient(1L, "Test", "Ancien", LocalDate.of(1950, 1, 1), "M");
+    private final Patient sain = new Patient(4L, "Test", "Sain", LocalDate.of(1970, 1, 1), "F");
+
+    /**
+     * Initialise le service avec des pages de deux patients.
+     */
+    @BeforeEach
+    void setUp() {
+        AssessmentService assessmentService = new AssessmentService(patientProxy, noteProxy, List.of("fumeur", "vertiges"));
+        scanService = new PopulationScanService(patientProxy, assessmentService, 2);
+    }
+
+    /**
+     * Vérifie que le parcours avance par pagination sur clé et évalue chaque patient.
+     */
+    @Test
+    void scan_shouldWalkAllPagesByKey() {
+        when(patientProxy.getPatientsPage(0L, 2)).thenReturn(List.of(ancien, sain));
+        when(patientProxy.getPatientsPage(4L, 2)).thenReturn(Collections.emptyList());
+        when(noteProxy.getNotesByPatientIds(List.of(1L, 4L))).thenReturn(List.of(
+                new Note("a", 1, "Fumeur"),
+                new Note("b", 1, "Vertiges")
+        ));
+
+        List<AssessmentResult> resultats = new ArrayList<>();
+        scanService.scan(resultats::add);
+
+        assertEquals(List.of(
+                new AssessmentResult(1L, RiskLevel.BORDERLINE, null),
+                new AssessmentResult(4L, RiskLevel.NONE, null)
+        ), resultats);
+    }
+
+    /**
+     * Vérifie qu'un échec de récupération des notes est signalé pour chaque patient de la page.
+     */
+    @Test
+    void scan_shouldReportPageFailure() {
+        when(patientProxy.getPatientsPage(0L, 2)).thenReturn(List.of(ancien, sain));
+        when(patientProxy.getPatientsPage(4L, 2)).thenReturn(Collections.emptyList());
+        when(noteProxy.getNotesByPatientIds(List.of(1L, 4L))).thenThrow(new IllegalStateException("note-service indisponible"));
+
+        List<AssessmentResult> resultats = new ArrayList<>();
+        scanService.scan(resultats::add);
+
+        assertEquals(2, resultats.size());
+        assertNull(resultats.get(0).getRisk());
+        assertEquals("note-service indisponible", resultats.get(1).getError());
+    }
+
+    /**
+     * Vérifie que le parcours s'arrête lorsque le consommateur échoue (client déconnecté).
+     */
+    @Test
+    void scan_shouldStop_whenConsumerFails() {
+        when(patientProxy.getPatientsPage(0L, 2)).thenReturn(List.of(ancien, sain));
+        when(noteProxy.getNotesByPatientIds(List.of(1L, 4L))).thenReturn(Collections.emptyList());
+
+        assertThrows(IllegalStateException.class, () -> scanService.scan(resultat -> {
+            throw new IllegalStateException("client déconnecté");
+        }));
+
+        verify(patientProxy, never()).getPatientsPage(4L, 2);
+    }
+}
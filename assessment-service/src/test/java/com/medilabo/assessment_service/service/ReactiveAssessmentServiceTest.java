@@ -0,0 +1,165 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.AssessmentResult;
+import com.medilabo.assessment_service.model.RiskLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Classe de tests unitaires validant le service d'évaluation non bloquant,
+ * les microservices étant simulés au niveau des échanges HTTP.
+ */
+class ReactiveAssessmentServiceTest {
+
+    private static final String PATIENT_1 = """
+            {"id":1,"nom":"Test","prenom":"Ancien","dateDeNaissance":"1950-01-01","genre":"M"}""";
+    private static final String PATIENT_2 = """
+            {"id":2,"nom":"Test","prenom":"Jeune","dateDeNaissance":"%s","genre":"M"}""";
+
+    private final Map<String, Function<ClientRequest, Mono<ClientResponse>>> routes = new ConcurrentHashMap<>();
+    private final Set<String> appels = ConcurrentHashMap.newKeySet();
+    private ReactiveAssessmentService service;
+
+    /**
+     * Construit le service sur un {@link WebClient} dont les échanges sont simulés.
+     */
+    @BeforeEach
+    void setUp() {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(requete -> {
+            String chemin = requete.url().getPath();
+            appels.add(chemin);
+            return routes.getOrDefault(chemin, r -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build())).apply(requete);
+        });
+        AssessmentService assessmentService = new AssessmentService(null, null, List.of("fumeur", "vertiges", "poids", "anormal"));
+        service = new ReactiveAssessmentService(builder, "http://patients", "http://notes",
+                assessmentService, null, Duration.ofSeconds(10), 100, 4, 500);
+
+        String jeune = LocalDate.now().minusYears(20).toString();
+        json("/api/patients/1", PATIENT_1);
+        json("/api/patients/2", PATIENT_2.formatted(jeune));
+        json("/api/patients", "{\"patients\":[" + PATIENT_1 + "," + PATIENT_2.formatted(jeune) + "],\"missing\":[3]}");
+        json("/notes/patient/1/text", "[{\"note\":\"Fumeur\"},{\"note\":\"Vertiges\"}]");
+        json("/notes/patients/text", "[{\"patId\":1,\"note\":\"Fumeur, vertiges\"},{\"patId\":2,\"note\":\"Fumeur, poids anormal\"}]");
+    }
+
+    private void json(String chemin, String corps) {
+        routes.put(chemin, requete -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(corps)
+                .build()));
+    }
+
+    /**
+     * Vérifie que le patient et ses notes sont récupérés et que les règles métier habituelles s'appliquent.
+     */
+    @Test
+    void generateAssessment_shouldApplySameRules() {
+        assertEquals(RiskLevel.BORDERLINE, service.generateAssessment(1L).block());
+        assertEquals(Set.of("/api/patients/1", "/notes/patient/1/text"), appels);
+    }
+
+    /**
+     * Vérifie que l'échec d'un appel termine l'évaluation en erreur.
+     */
+    @Test
+    void generateAssessment_shouldFail_whenPatientIsMissing() {
+        json("/notes/patient/3/text", "[]");
+
+        assertThrows(RuntimeException.class, () -> service.generateAssessment(3L).block());
+    }
+
+    /**
+     * Vérifie qu'un appel trop lent est interrompu par le délai configuré.
+     */
+    @Test
+    void generateAssessment_shouldTimeout_whenCallIsTooSlow() {
+        routes.put("/notes/patient/1/text", requete -> Mono.never());
+        AssessmentService assessmentService = new AssessmentService(null, null, List.of("fumeur"));
+        ReactiveAssessmentService lent = new ReactiveAssessmentService(
+                WebClient.builder().exchangeFunction(requete -> routes.get(requete.url().getPath()).apply(requete)),
+                "http://patients", "http://notes", assessmentService, null, Duration.ofMillis(100), 100, 4, 500);
+
+        assertThrows(RuntimeException.class, () -> lent.generateAssessment(1L).block(Duration.ofSeconds(5)));
+    }
+
+    /**
+     * Vérifie l'évaluation par lot : patients et notes en un appel chacun, patient introuvable isolé.
+     */
+    @Test
+    void generateAssessments_shouldIsolateFailures() {
+        Map<Long, AssessmentResult> resultats = service.generateAssessments(List.of(1L, 2L, 3L))
+                .collectList()
+                .block()
+                .stream()
+                .collect(Collectors.toMap(AssessmentResult::getId, Function.identity()));
+
+        assertEquals(RiskLevel.BORDERLINE, resultats.get(1L).getRisk());
+        assertEquals(RiskLevel.IN_DANGER, resultats.get(2L).getRisk());
+        assertNull(resultats.get(3L).getRisk());
+        assertEquals(Set.of("/api/patients", "/notes/patients/text"), appels);
+    }
+
+    /**
+     * Vérifie que les paquets d'un lot sont évalués simultanément : les résultats d'un paquet
+     * sont publiés sans attendre la fin d'un paquet précédent plus lent.
+     */
+    @Test
+    void generateAssessments_shouldNotWaitForSlowerChunk() {
+        String jeune = LocalDate.now().minusYears(20).toString();
+        routes.put("/api/patients", requete -> {
+            boolean lent = requete.url().getQuery().contains("ids=1");
+            Mono<ClientResponse> reponse = Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"patients\":[" + (lent ? PATIENT_1 : PATIENT_2.formatted(jeune)) + "],\"missing\":[]}")
+                    .build());
+            return lent ? reponse.delayElement(Duration.ofMillis(300)) : reponse;
+        });
+        AssessmentService assessmentService = new AssessmentService(null, null, List.of("fumeur", "vertiges", "poids", "anormal"));
+        ReactiveAssessmentService parPatient = new ReactiveAssessmentService(
+                WebClient.builder().exchangeFunction(requete -> routes.get(requete.url().getPath()).apply(requete)),
+                "http://patients", "http://notes", assessmentService, null, Duration.ofSeconds(10), 1, 4, 500);
+
+        List<AssessmentResult> resultats = parPatient.generateAssessments(List.of(1L, 2L)).collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(2L, 1L), resultats.stream().map(AssessmentResult::getId).toList());
+        assertEquals(RiskLevel.BORDERLINE, resultats.get(1).getRisk());
+    }
+
+    /**
+     * Vérifie que la réévaluation complète parcourt les pages jusqu'à la première page vide.
+     */
+    @Test
+    void scan_shouldWalkAllPages() {
+        routes.put("/api/patients", requete -> {
+            boolean premierePage = requete.url().getQuery().contains("after=0");
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(premierePage ? "[" + PATIENT_1 + "]" : "[]")
+                    .build());
+        });
+
+        List<AssessmentResult> resultats = service.scan().collectList().block();
+
+        assertEquals(List.of(new AssessmentResult(1L, RiskLevel.BORDERLINE, null)), resultats);
+    }
+}
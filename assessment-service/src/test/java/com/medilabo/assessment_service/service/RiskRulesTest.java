@@ -0,0 +1,107 @@
+package com.medilabo.assessment_service.service;
+
+import com.medilabo.assessment_service.model.RiskLevel;
+import com.medilabo.assessment_service.model.RiskRuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Classe de tests unitaires validant la table de décision des règles de risque.
+ */
+class RiskRulesTest {
+
+    /**
+     * Règles historiques, écrites en conditions imbriquées, servant de référence.
+     */
+    private static String regleHistorique(int age, String genre, int nombreDeclencheurs) {
+        if (nombreDeclencheurs == 0) return "None";
+
+        if (age > 30) {
+            if (nombreDeclencheurs >= 8) return "Early onset";
+            if (nombreDeclencheurs >= 6) return "In Danger";
+            if (nombreDeclencheurs >= 2) return "Borderline";
+        } else {
+            if ("M".equals(genre)) {
+                if (nombreDeclencheurs >= 5) return "Early onset";
+                if (nombreDeclencheurs >= 3) return "In Danger";
+            } else if ("F".equals(genre)) {
+                if (nombreDeclencheurs >= 7) return "Early onset";
+                if (nombreDeclencheurs >= 4) return "In Danger";
+            }
+        }
+        return "None";
+    }
+
+    /**
+     * Vérifie que la table compilée avec les seuils par défaut reproduit exactement les règles historiques.
+     */
+    @Test
+    void resolve_shouldMatchHistoricalRules() {
+        RiskRules regles = RiskRules.parDefaut();
+        for (int age = 0; age <= 100; age++) {
+            for (String genre : Arrays.asList("M", "F", "X", null)) {
+                for (int nombre = 0; nombre <= 20; nombre++) {
+                    assertEquals(regleHistorique(age, genre, nombre), regles.resolve(age, genre, nombre).getLabel(),
+                            "âge " + age + ", genre " + genre + ", " + nombre + " déclencheurs");
+                }
+            }
+        }
+    }
+
+    /**
+     * Vérifie que de nouveaux seuils sont appliqués dès leur chargement.
+     */
+    @Test
+    void reload_shouldApplyNewThresholds() {
+        RiskRules regles = RiskRules.parDefaut();
+
+        regles.reload(new RiskRuleDefinition(40, "1,2,3", "-,3,5", "-,4,7", "2,-,-"));
+
+        assertEquals(RiskLevel.NONE, regles.resolve(35, "M", 2));
+        assertEquals(RiskLevel.EARLY_ONSET, regles.resolve(41, "F", 3));
+        assertEquals(RiskLevel.BORDERLINE, regles.resolve(20, "X", 9));
+        assertEquals(40, regles.getDefinition().getAgeLimite());
+    }
+
+    /**
+     * Vérifie qu'une règle mal formée est refusée et que les règles en vigueur sont conservées.
+     */
+    @Test
+    void reload_shouldRejectInvalidRule_andKeepCurrentRules() {
+        RiskRules regles = RiskRules.parDefaut();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> regles.reload(new RiskRuleDefinition(30, "2,6", "-,3,5", "-,4,7", "-,-,-")));
+        assertThrows(IllegalArgumentException.class,
+                () -> regles.reload(new RiskRuleDefinition(30, "0,6,8", "-,3,5", "-,4,7", "-,-,-")));
+        assertThrows(IllegalArgumentException.class,
+                () -> regles.reload(new RiskRuleDefinition(30, "2,six,8", "-,3,5", "-,4,7", "-,-,-")));
+        assertThrows(IllegalArgumentException.class,
+                () -> regles.reload(new RiskRuleDefinition(30, "2,8,6", "-,3,5", "-,4,7", "-,-,-")));
+        assertThrows(IllegalArgumentException.class,
+                () -> regles.reload(new RiskRuleDefinition(30, "2,6,8", "-,5,3", "-,4,7", "-,-,-")));
+
+        assertEquals(RiskLevel.BORDERLINE, regles.resolve(50, "M", 2));
+    }
+
+    /**
+     * Vérifie qu'une modification partielle ne touche que les seuils fournis et conserve les autres.
+     */
+    @Test
+    void reload_shouldMergePartialUpdateIntoCurrentRules() {
+        RiskRules regles = RiskRules.parDefaut();
+
+        regles.reload(actuelle -> new RiskRuleDefinition(actuelle.getAgeLimite(), "1,2,3",
+                actuelle.getHommeJeune(), actuelle.getFemmeJeune(), actuelle.getAutreJeune()));
+        RiskRuleDefinition definition = regles.reload(actuelle -> new RiskRuleDefinition(40, actuelle.getPlusAge(),
+                actuelle.getHommeJeune(), actuelle.getFemmeJeune(), actuelle.getAutreJeune()));
+
+        assertEquals(40, definition.getAgeLimite());
+        assertEquals("1,2,3", definition.getPlusAge());
+        assertEquals("-,3,5", definition.getHommeJeune());
+    }
+}
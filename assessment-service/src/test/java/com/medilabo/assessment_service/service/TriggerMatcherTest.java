@@ -0,0 +1,107 @@
+package com.medilabo.assessment_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Classe de tests unitaires validant l'automate de recherche des déclencheurs.
+ */
+class TriggerMatcherTest {
+
+    private final TriggerMatcher matcher = new TriggerMatcher(Arrays.asList(
+            "hémoglobine a1c", "microalbumine", "taille", "poids", "fumeur",
+            "anormal", "cholestérol", "vertiges", "rechute", "réaction", "anticorps"
+    ));
+
+    private int compte(String... textes) {
+        TriggerMatcher.Scan scan = matcher.newScan();
+        for (String texte : textes) {
+            scan.feed(texte);
+            scan.endOfText();
+        }
+        return scan.count();
+    }
+
+    /**
+     * Vérifie que la recherche ignore la casse, y compris sur les caractères accentués.
+     */
+    @Test
+    void feed_shouldIgnoreCase() {
+        assertEquals(2, compte("HÉMOGLOBINE A1C supérieure, Cholestérol élevé"));
+    }
+
+    /**
+     * Vérifie qu'un déclencheur répété n'est compté qu'une seule fois.
+     */
+    @Test
+    void feed_shouldCountDistinctTriggers() {
+        assertEquals(1, compte("fumeur", "ancien fumeur", "fumeur régulier"));
+    }
+
+    /**
+     * Vérifie que les déclencheurs imbriqués ou chevauchants sont tous reconnus.
+     */
+    @Test
+    void feed_shouldFindOverlappingTriggers() {
+        TriggerMatcher imbriques = new TriggerMatcher(List.of("he", "she", "hers", "his"));
+        TriggerMatcher.Scan scan = imbriques.newScan();
+
+        scan.feed("ushers");
+
+        assertEquals(3, scan.count());
+    }
+
+    /**
+     * Vérifie qu'un déclencheur ne peut pas être formé à cheval sur deux notes.
+     */
+    @Test
+    void endOfText_shouldNotMatchAcrossNotes() {
+        assertEquals(0, compte("tai", "lle"));
+    }
+
+    /**
+     * Vérifie la lecture d'une portion de tampon de caractères.
+     */
+    @Test
+    void feed_shouldReadBufferSlice() {
+        char[] tampon = "xxpoidsxx".toCharArray();
+        TriggerMatcher.Scan scan = matcher.newScan();
+
+        scan.feed(tampon, 2, 5);
+
+        assertEquals(1, scan.count());
+    }
+
+    /**
+     * Vérifie que la recherche signale qu'elle est complète une fois tous les déclencheurs trouvés.
+     */
+    @Test
+    void feed_shouldReportCompletion() {
+        TriggerMatcher deux = new TriggerMatcher(List.of("poids", "taille"));
+        TriggerMatcher.Scan scan = deux.newScan();
+
+        assertFalse(scan.feed("poids normal"));
+        assertTrue(scan.feed("taille normale"));
+        assertEquals(2, scan.count());
+    }
+
+    /**
+     * Vérifie qu'une liste vide de déclencheurs ne produit aucune correspondance.
+     */
+    @Test
+    void feed_shouldHandleEmptyTriggerList() {
+        TriggerMatcher vide = new TriggerMatcher(List.of());
+        TriggerMatcher.Scan scan = vide.newScan();
+
+        scan.feed("n'importe quel texte");
+
+        assertEquals(0, scan.count());
+        assertEquals(0, vide.size());
+    }
+}
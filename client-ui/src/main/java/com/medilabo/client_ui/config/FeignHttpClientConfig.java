@@ -0,0 +1,14 @@
+package com.medilabo.client_ui.config;
+
+import com.medilabo.feign.FeignClientSupportConfig;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Client HTTP des proxies Feign vers la gateway : pool Apache HttpClient 5, métriques et cache
+ * de validation communs aux modules ({@link FeignClientSupportConfig}).
+ */
+@Configuration
+@Import(FeignClientSupportConfig.class)
+public class FeignHttpClientConfig {
+}
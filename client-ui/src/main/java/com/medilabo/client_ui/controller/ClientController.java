@@ -2,6 +2,7 @@ package com.medilabo.client_ui.controller;
 
 import com.medilabo.client_ui.dto.NoteDto;
 import com.medilabo.client_ui.dto.PatientDto;
+import com.medilabo.client_ui.dto.PatientSummaryDto;
 import com.medilabo.client_ui.proxies.MicroserviceAssessmentProxy;
 import com.medilabo.client_ui.proxies.MicroserviceNoteProxy;
 import com.medilabo.client_ui.proxies.MicroservicePatientProxy;
@@ -18,6 +19,9 @@ import java.util.List;
 @Controller
 public class ClientController {
 
+    /** Nombre de patients affichés par page sur l'accueil. */
+    static final int TAILLE_PAGE_ACCUEIL = 50;
+
     private final MicroservicePatientProxy patientProxy;
     private final MicroserviceNoteProxy noteProxy;
     private final MicroserviceAssessmentProxy assessmentProxy;
@@ -38,15 +42,25 @@ public class ClientController {
     }
 
     /**
-     * Affiche la liste globale des patients.
+     * Affiche une page de la liste des patients.
+     * Un patient de plus que la taille de page est demandé pour savoir s'il existe une page suivante ;
+     * celle-ci commence après le dernier patient affiché.
      *
+     * @param after L'identifiant du dernier patient de la page précédente (0 pour la première page).
      * @param model Le modèle Spring.
      * @return Le nom de la vue "accueil".
      */
     @RequestMapping("/")
-    public String accueil(Model model){
-        List<PatientDto> patients = patientProxy.patients();
+    public String accueil(@RequestParam(defaultValue = "0") long after, Model model){
+        List<PatientSummaryDto> patients = patientProxy.getPatientsPage(after, TAILLE_PAGE_ACCUEIL + 1);
+        Long suivant = null;
+        if (patients.size() > TAILLE_PAGE_ACCUEIL) {
+            patients = patients.subList(0, TAILLE_PAGE_ACCUEIL);
+            suivant = patients.get(TAILLE_PAGE_ACCUEIL - 1).getId();
+        }
         model.addAttribute("patients", patients);
+        model.addAttribute("after", after);
+        model.addAttribute("suivant", suivant);
         return "accueil";
     }
 
@@ -0,0 +1,81 @@
+package com.medilabo.client_ui.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Objet de transfert de données représentant un patient dans la liste d'accueil :
+ * identité, date de naissance et genre uniquement.
+ */
+public class PatientSummaryDto {
+
+    private Long id;
+    private String prenom;
+    private String nom;
+    private LocalDate dateDeNaissance;
+    private String genre;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public PatientSummaryDto() {
+    }
+
+    /**
+     * Constructeur complet.
+     *
+     * @param id              L'identifiant unique du patient.
+     * @param prenom          Le prénom du patient.
+     * @param nom             Le nom de famille du patient.
+     * @param dateDeNaissance La date de naissance du patient.
+     * @param genre           Le genre du patient (M ou F).
+     */
+    public PatientSummaryDto(Long id, String prenom, String nom, LocalDate dateDeNaissance, String genre) {
+        this.id = id;
+        this.prenom = prenom;
+        this.nom = nom;
+        this.dateDeNaissance = dateDeNaissance;
+        this.genre = genre;
+    }
+
+    // Getters et Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public void setPrenom(String prenom) {
+        this.prenom = prenom;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public LocalDate getDateDeNaissance() {
+        return dateDeNaissance;
+    }
+
+    public void setDateDeNaissance(LocalDate dateDeNaissance) {
+        this.dateDeNaissance = dateDeNaissance;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+}
@@ -1,11 +1,13 @@
 package com.medilabo.client_ui.proxies;
 
 import com.medilabo.client_ui.dto.PatientDto;
+import com.medilabo.client_ui.dto.PatientSummaryDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
@@ -16,12 +18,15 @@ import java.util.List;
 public interface MicroservicePatientProxy {
 
     /**
-     * Récupère la liste de tous les patients enregistrés.
+     * Récupère une page de la liste des patients, par pagination sur clé.
      *
-     * @return           Une liste d'objets PatientDto.
+     * @param after      L'identifiant du dernier patient déjà reçu (0 pour la première page).
+     * @param limit      Le nombre maximal de patients à retourner.
+     * @return           Les patients suivants, triés par identifiant.
      */
     @GetMapping(value = "/api/patients")
-    List<PatientDto> patients();
+    List<PatientSummaryDto> getPatientsPage(@RequestParam("after") long after,
+                                            @RequestParam("limit") int limit);
 
     /**
      * Récupère les informations détaillées d'un patient par son identifiant.
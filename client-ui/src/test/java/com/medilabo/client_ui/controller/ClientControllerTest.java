@@ -2,6 +2,7 @@ package com.medilabo.client_ui.controller;
 
 import com.medilabo.client_ui.dto.NoteDto;
 import com.medilabo.client_ui.dto.PatientDto;
+import com.medilabo.client_ui.dto.PatientSummaryDto;
 import com.medilabo.client_ui.proxies.MicroserviceAssessmentProxy;
 import com.medilabo.client_ui.proxies.MicroserviceNoteProxy;
 import com.medilabo.client_ui.proxies.MicroservicePatientProxy;
@@ -12,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -52,20 +54,45 @@ public class ClientControllerTest {
      */
     @Test
     public void testAccueil() throws Exception {
-        PatientDto p1 = new PatientDto();
+        PatientSummaryDto p1 = new PatientSummaryDto();
         p1.setId(1L);
         p1.setNom("Doe");
-        List<PatientDto> patients = Arrays.asList(p1);
+        List<PatientSummaryDto> patients = Arrays.asList(p1);
 
-        when(patientProxy.patients()).thenReturn(patients);
+        when(patientProxy.getPatientsPage(0L, ClientController.TAILLE_PAGE_ACCUEIL + 1)).thenReturn(patients);
 
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("accueil"))
                 .andExpect(model().attributeExists("patients"))
+                .andExpect(model().attribute("suivant", nullValue()))
                 .andExpect(content().string(containsString("Doe")));
     }
 
+    /**
+     * Teste la pagination de l'accueil : seule la taille de page est affichée,
+     * et le lien vers la page suivante part du dernier patient affiché.
+     *
+     * @throws Exception En cas d'erreur lors de l'exécution de la requête simulée.
+     */
+    @Test
+    public void testAccueilPageSuivante() throws Exception {
+        List<PatientSummaryDto> patients = new ArrayList<>();
+        for (long id = 101; id <= 101 + ClientController.TAILLE_PAGE_ACCUEIL; id++) {
+            patients.add(new PatientSummaryDto(id, "Prenom", "Nom" + id, null, "F"));
+        }
+        long dernierAffiche = 100 + ClientController.TAILLE_PAGE_ACCUEIL;
+
+        when(patientProxy.getPatientsPage(100L, ClientController.TAILLE_PAGE_ACCUEIL + 1)).thenReturn(patients);
+
+        mockMvc.perform(get("/").param("after", "100"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("patients", hasSize(ClientController.TAILLE_PAGE_ACCUEIL)))
+                .andExpect(model().attribute("suivant", dernierAffiche))
+                .andExpect(content().string(containsString("?after=" + dernierAffiche)))
+                .andExpect(content().string(not(containsString("Nom" + (dernierAffiche + 1)))));
+    }
+
     /**
      * Teste l'affichage de la fiche détaillée d'un patient avec ses notes et son risque.
      *
@@ -0,0 +1,193 @@
+package com.medilabo.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client Feign qui conserve les réponses étiquetées ({@code ETag}) et les revalide au lieu de les retélécharger.
+ * <p>
+ * Une réponse 200 à un {@code GET} portant un {@code ETag} est conservée, par URL, avec son corps.
+ * La lecture suivante de la même URL envoie l'étiquette en {@code If-None-Match} : si le service répond 304,
+ * la réponse conservée est rendue à Feign comme une réponse 200 ordinaire, sans que le corps ait transité.
+ * Les données ne sont jamais servies sans revalidation ; le cache économise le transfert et la lecture
+ * du corps, pas l'aller-retour.
+ * </p>
+ * <p>
+ * Le cache est borné en octets (éviction de la réponse la moins récemment lue). Une réponse marquée
+ * {@code no-store}, ou dont le corps dépasse la taille maximale d'une entrée, est transmise telle quelle,
+ * au fil de la lecture.
+ * </p>
+ */
+public class EtagCachingFeignClient implements Client {
+
+    private final Client delegue;
+    private final long tailleMax;
+    private final int tailleMaxEntree;
+
+    /** Réponses conservées par URL, de la moins récemment lue à la plus récemment lue. */
+    private final LinkedHashMap<String, Entree> entrees = new LinkedHashMap<>(16, 0.75f, true);
+    private long taille;
+
+    private final Counter nonModifiees;
+    private final Counter modifiees;
+
+    /**
+     * Réponse conservée.
+     *
+     * @param etag     L'étiquette de la réponse.
+     * @param enTetes  Les en-têtes de la réponse.
+     * @param corps    Le corps de la réponse.
+     */
+    private record Entree(String etag, Map<String, Collection<String>> enTetes, byte[] corps) {
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param delegue         Le client HTTP qui exécute les requêtes.
+     * @param tailleMax       La taille totale maximale des corps conservés, en octets.
+     * @param tailleMaxEntree La taille maximale d'un corps conservé, en octets.
+     * @param registry        Le registre des métriques ({@code feign.etag.cache}, tag {@code result}).
+     */
+    public EtagCachingFeignClient(Client delegue, long tailleMax, int tailleMaxEntree, MeterRegistry registry) {
+        this.delegue = delegue;
+        this.tailleMax = tailleMax;
+        this.tailleMaxEntree = tailleMaxEntree;
+        this.nonModifiees = Counter.builder("feign.etag.cache")
+                .description("Lectures revalidées par le service (304), servies depuis le cache")
+                .tag("result", "not_modified")
+                .register(registry);
+        this.modifiees = Counter.builder("feign.etag.cache")
+                .description("Lectures revalidées dont le corps a changé")
+                .tag("result", "modified")
+                .register(registry);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return delegue.execute(request, options);
+        }
+
+        String url = request.url();
+        Entree entree = lire(url);
+        Response reponse = delegue.execute(entree == null ? request : conditionnelle(request, entree.etag()), options);
+
+        if (entree != null && reponse.status() == 304) {
+            reponse.close();
+            nonModifiees.increment();
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .request(request)
+                    .headers(entree.enTetes())
+                    .body(entree.corps())
+                    .build();
+        }
+        if (entree != null) {
+            modifiees.increment();
+        }
+
+        String etag = premier(reponse, "ETag");
+        if (reponse.status() != 200 || etag == null || interditStockage(reponse)) {
+            retirer(url);
+            return reponse;
+        }
+        return conserver(url, etag, reponse);
+    }
+
+    /**
+     * Lit le corps d'une réponse étiquetée et le conserve s'il ne dépasse pas la taille maximale d'une entrée.
+     *
+     * @param url     L'URL de la requête.
+     * @param etag    L'étiquette de la réponse.
+     * @param reponse La réponse reçue.
+     * @return        Une réponse équivalente, dont le corps reste lisible.
+     * @throws IOException En cas d'erreur de lecture du corps.
+     */
+    private Response conserver(String url, String etag, Response reponse) throws IOException {
+        Response.Body corps = reponse.body();
+        if (corps == null) {
+            enregistrer(url, new Entree(etag, reponse.headers(), new byte[0]));
+            return reponse;
+        }
+        if (corps.length() != null && corps.length() > tailleMaxEntree) {
+            retirer(url);
+            return reponse;
+        }
+
+        InputStream flux = corps.asInputStream();
+        byte[] lus = flux.readNBytes(tailleMaxEntree + 1);
+        if (lus.length > tailleMaxEntree) {
+            // Trop volumineux : le début déjà lu est rendu, suivi du reste du flux.
+            retirer(url);
+            return reponse.toBuilder()
+                    .body(new SequenceInputStream(new ByteArrayInputStream(lus), flux), corps.length())
+                    .build();
+        }
+        flux.close();
+        enregistrer(url, new Entree(etag, reponse.headers(), lus));
+        return reponse.toBuilder().body(lus).build();
+    }
+
+    private synchronized Entree lire(String url) {
+        return entrees.get(url);
+    }
+
+    private synchronized void enregistrer(String url, Entree entree) {
+        Entree precedente = entrees.put(url, entree);
+        if (precedente != null) {
+            taille -= precedente.corps().length;
+        }
+        taille += entree.corps().length;
+        Iterator<Entree> anciennes = entrees.values().iterator();
+        while (taille > tailleMax && anciennes.hasNext()) {
+            taille -= anciennes.next().corps().length;
+            anciennes.remove();
+        }
+    }
+
+    private synchronized void retirer(String url) {
+        Entree entree = entrees.remove(url);
+        if (entree != null) {
+            taille -= entree.corps().length;
+        }
+    }
+
+    /**
+     * Copie une requête en y ajoutant l'en-tête {@code If-None-Match}.
+     *
+     * @param request La requête d'origine.
+     * @param etag    L'étiquette de la réponse conservée.
+     * @return        La requête conditionnelle.
+     */
+    private static Request conditionnelle(Request request, String etag) {
+        Map<String, Collection<String>> enTetes = new LinkedHashMap<>(request.headers());
+        enTetes.put("If-None-Match", List.of(etag));
+        return Request.create(request.httpMethod(), request.url(), enTetes, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    private static boolean interditStockage(Response reponse) {
+        Collection<String> valeurs = reponse.headers().get("Cache-Control");
+        return valeurs != null && valeurs.stream().anyMatch(valeur -> valeur.toLowerCase().contains("no-store"));
+    }
+
+    private static String premier(Response reponse, String nom) {
+        Collection<String> valeurs = reponse.headers().get(nom);
+        return valeurs == null || valeurs.isEmpty() ? null : valeurs.iterator().next();
+    }
+}
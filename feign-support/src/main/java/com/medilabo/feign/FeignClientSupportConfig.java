@@ -0,0 +1,88 @@
+package com.medilabo.feign;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compléments au client Apache HttpClient 5 utilisé par les proxies Feign, importés par la configuration
+ * Feign de chaque module ({@code @Import}).
+ * <p>
+ * Le pool de connexions lui-même (taille, durée de vie, délais) est créé par Spring Cloud OpenFeign
+ * à partir des propriétés {@code spring.cloud.openfeign.httpclient.*} ; cette configuration
+ * publie son taux d'occupation et rend la décompression des réponses désactivable.
+ * </p>
+ * <p>
+ * Les lectures passent par un cache de validation ({@link EtagCachingFeignClient}) : une ressource
+ * inchangée coûte un échange d'en-têtes (304) plutôt que le transfert complet.
+ * </p>
+ */
+@Configuration
+public class FeignClientSupportConfig {
+
+    /**
+     * Expose l'occupation du pool dans Actuator ({@code httpcomponents.httpclient.pool.*}, tag {@code httpclient=feign}) :
+     * connexions disponibles et empruntées, demandes en attente, maxima.
+     *
+     * @param connectionManager Le gestionnaire de connexions créé par Spring Cloud OpenFeign (absent si HttpClient 5 est désactivé).
+     * @return                  Le binder Micrometer du pool.
+     */
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
+    }
+
+    /**
+     * Active ou désactive la demande de réponses compressées (gzip, deflate) et leur décompression transparente.
+     *
+     * @param decompression {@code true} pour accepter les réponses compressées.
+     * @return              La personnalisation appliquée au client HTTP.
+     */
+    @Bean
+    public HttpClientBuilderCustomizer feignDecompression(@Value("${medilabo.feign.decompression.enabled:true}") boolean decompression) {
+        return builder -> {
+            if (!decompression) {
+                builder.disableContentCompression();
+            }
+        };
+    }
+
+    /**
+     * Client Feign des proxies : le client Apache HttpClient 5 de Spring Cloud OpenFeign,
+     * précédé du cache de validation des réponses étiquetées.
+     *
+     * @param httpClient5     Le client HTTP créé par Spring Cloud OpenFeign (absent si HttpClient 5 est désactivé,
+     *                        le client HTTP du JDK est alors utilisé).
+     * @param tailleMax       La taille totale maximale des réponses conservées.
+     * @param tailleMaxEntree La taille maximale d'une réponse conservée.
+     * @param registry        Le registre des métriques du cache.
+     * @return                Le client utilisé par tous les proxies Feign.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "medilabo.feign.etag-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public Client feignClient(ObjectProvider<CloseableHttpClient> httpClient5,
+                              @Value("${medilabo.feign.etag-cache.max-size:16MB}") DataSize tailleMax,
+                              @Value("${medilabo.feign.etag-cache.max-entry-size:256KB}") DataSize tailleMaxEntree,
+                              MeterRegistry registry) {
+        CloseableHttpClient httpClient = httpClient5.getIfAvailable();
+        Client delegue = httpClient != null ? new ApacheHttp5Client(httpClient) : new Client.Default(null, null);
+        return new EtagCachingFeignClient(delegue,
+                tailleMax.toBytes(), Math.toIntExact(tailleMaxEntree.toBytes()), registry);
+    }
+}
@@ -0,0 +1,118 @@
+package com.medilabo.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests unitaires du cache de validation des réponses Feign.
+ */
+class EtagCachingFeignClientTest {
+
+    private static final Request.Options OPTIONS = new Request.Options();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Request> requetes = new ArrayList<>();
+
+    /**
+     * Vérifie qu'une réponse étiquetée est revalidée puis resservie depuis le cache sur un 304.
+     *
+     * @throws IOException En cas d'erreur de lecture simulée.
+     */
+    @Test
+    void execute_shouldReplayCachedBody_whenNotModified() throws IOException {
+        Client client = new EtagCachingFeignClient(service("\"1\"", "{\"id\":1}"), 1024, 1024, registry);
+
+        assertEquals("{\"id\":1}", corps(client.execute(get("/api/patients/1"), OPTIONS)));
+        Response revalidee = client.execute(get("/api/patients/1"), OPTIONS);
+
+        assertEquals(200, revalidee.status());
+        assertEquals("{\"id\":1}", corps(revalidee));
+        assertNull(enTete(requetes.get(0), "If-None-Match"));
+        assertEquals("\"1\"", enTete(requetes.get(1), "If-None-Match"));
+        assertEquals(1.0, registry.counter("feign.etag.cache", "result", "not_modified").count());
+    }
+
+    /**
+     * Vérifie qu'une réponse dépassant la taille maximale d'une entrée est transmise intacte sans être conservée.
+     *
+     * @throws IOException En cas d'erreur de lecture simulée.
+     */
+    @Test
+    void execute_shouldNotCache_whenBodyIsTooLarge() throws IOException {
+        String volumineux = "x".repeat(100);
+        Client client = new EtagCachingFeignClient(service("\"1\"", volumineux), 1024, 10, registry);
+
+        assertEquals(volumineux, corps(client.execute(get("/notes/patient/1"), OPTIONS)));
+        assertEquals(volumineux, corps(client.execute(get("/notes/patient/1"), OPTIONS)));
+        assertNull(enTete(requetes.get(1), "If-None-Match"));
+    }
+
+    /**
+     * Vérifie qu'une réponse marquée {@code no-store} n'est pas conservée.
+     *
+     * @throws IOException En cas d'erreur de lecture simulée.
+     */
+    @Test
+    void execute_shouldNotCache_whenNoStore() throws IOException {
+        Client service = (request, options) -> {
+            requetes.add(request);
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Map.of("ETag", List.of("\"1\""), "Cache-Control", List.of("no-cache, no-store")))
+                    .body("{}", StandardCharsets.UTF_8)
+                    .build();
+        };
+        Client client = new EtagCachingFeignClient(service, 1024, 1024, registry);
+
+        client.execute(get("/api/patients/1"), OPTIONS).close();
+        client.execute(get("/api/patients/1"), OPTIONS).close();
+
+        assertNull(enTete(requetes.get(1), "If-None-Match"));
+    }
+
+    /**
+     * Simule un service répondant 304 lorsque l'étiquette présentée est la sienne.
+     */
+    private Client service(String etag, String corps) {
+        return (request, options) -> {
+            requetes.add(request);
+            boolean aJour = etag.equals(enTete(request, "If-None-Match"));
+            return Response.builder()
+                    .status(aJour ? 304 : 200)
+                    .request(request)
+                    .headers(Map.of("ETag", List.of(etag)))
+                    .body(aJour ? null : corps.getBytes(StandardCharsets.UTF_8))
+                    .build();
+        };
+    }
+
+    private static Request get(String url) {
+        return Request.create(Request.HttpMethod.GET, url, Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static String enTete(Request request, String nom) {
+        Collection<String> valeurs = request.headers().get(nom);
+        return valeurs == null ? null : valeurs.iterator().next();
+    }
+
+    private static String corps(Response reponse) throws IOException {
+        try (reponse) {
+            return Util.toString(reponse.body().asReader(StandardCharsets.UTF_8));
+        }
+    }
+}
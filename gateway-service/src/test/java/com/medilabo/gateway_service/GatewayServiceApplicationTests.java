@@ -1,13 +1,27 @@
 package com.medilabo.gateway_service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
 
-@SpringBootTest
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class GatewayServiceApplicationTests {
 
+	@Autowired
+	private WebTestClient webTestClient;
+
 	@Test
 	void contextLoads() {
 	}
 
+	/**
+	 * Vérifie que l'invalidation du cache des risques n'est pas accessible par la passerelle.
+	 */
+	@Test
+	void assessmentCacheRoutes_shouldNotBeExposed() {
+		webTestClient.delete().uri("/assess/cache/1").exchange().expectStatus().isNotFound();
+		webTestClient.delete().uri("/assess/cache").exchange().expectStatus().isNotFound();
+	}
+
 }
@@ -0,0 +1,16 @@
+package com.medilabo.note_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+
+/**
+ * Active l'audit Spring Data MongoDB : l'instant de dernière écriture des notes
+ * ({@code lastModified}) est renseigné à chaque insertion ou mise à jour, y compris
+ * lors des écritures groupées. Sans objet avec le profil {@code mmap}, dont le journal renseigne lui-même cet instant.
+ */
+@Configuration
+@Profile("!mmap")
+@EnableMongoAuditing
+public class MongoAuditingConfig {
+}
@@ -0,0 +1,54 @@
+package com.medilabo.note_service.config;
+
+import com.medilabo.note_service.repository.NoteBucketStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Migration des notes vers la disposition par paquets ({@code medilabo.notes.storage=bucket}).
+ * <p>
+ * Les paquets sont reconstruits à partir de la collection {@code notes}, qui n'est pas modifiée :
+ * à chaque démarrage si {@code medilabo.notes.bucket.migrate-on-startup=true}, et sinon dès qu'aucun
+ * paquet n'existe alors que des notes existent (première activation). La reconstruction a lieu une fois
+ * les beans créés, avant le démarrage du serveur web : aucune requête n'est servie par des paquets incomplets.
+ * Le retour à la disposition à plat ne demande aucune migration.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "medilabo.notes.storage", havingValue = "bucket")
+public class NoteBucketMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteBucketMigration.class);
+
+    private final NoteBucketStore noteBucketStore;
+    private final boolean reconstruireAuDemarrage;
+
+    /**
+     * Constructeur injectant les paquets et le choix d'une reconstruction systématique.
+     *
+     * @param noteBucketStore         Les paquets de notes par patient.
+     * @param reconstruireAuDemarrage {@code true} pour reconstruire les paquets à chaque démarrage.
+     */
+    public NoteBucketMigration(NoteBucketStore noteBucketStore,
+                               @Value("${medilabo.notes.bucket.migrate-on-startup:false}") boolean reconstruireAuDemarrage) {
+        this.noteBucketStore = noteBucketStore;
+        this.reconstruireAuDemarrage = reconstruireAuDemarrage;
+    }
+
+    /**
+     * Reconstruit les paquets si demandé ou s'ils n'existent pas encore.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (reconstruireAuDemarrage) {
+            noteBucketStore.rebuild();
+        } else if (noteBucketStore.needsRebuild()) {
+            log.warn("Aucun paquet de notes : reconstruction à partir de la collection notes");
+            noteBucketStore.rebuild();
+        }
+    }
+}
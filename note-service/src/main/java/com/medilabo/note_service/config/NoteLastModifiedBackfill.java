@@ -0,0 +1,53 @@
+package com.medilabo.note_service.config;
+
+import com.medilabo.note_service.model.Note;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Renseigne l'instant de dernière écriture ({@code lastModified}) des notes écrites avant l'audit MongoDB.
+ * <p>
+ * Ces notes prennent l'instant de la migration : elles apparaissent une fois dans le flux des modifications
+ * ({@code GET /notes/changes}) pour tous les consommateurs, y compris ceux déjà synchronisés.
+ * Sans effet une fois toutes les notes renseignées ; sans objet avec le profil {@code mmap},
+ * dont le journal a toujours renseigné cet instant.
+ * </p>
+ */
+@Configuration
+@Profile("!mmap")
+public class NoteLastModifiedBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteLastModifiedBackfill.class);
+
+    /**
+     * Définit la migration exécutée au démarrage, avant les autres tâches de démarrage.
+     *
+     * @param mongoTemplate Le template utilisé pour mettre à jour les notes.
+     * @return              Une instance d'ApplicationRunner exécutée par Spring Boot.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ApplicationRunner backfillNoteLastModified(MongoTemplate mongoTemplate) {
+        return args -> {
+            Query sansInstant = new Query(where("lastModified").exists(false));
+            UpdateResult resultat = mongoTemplate.updateMulti(sansInstant, Update.update("lastModified", Instant.now()), Note.class);
+            if (resultat.getModifiedCount() > 0) {
+                log.info("Instant de dernière écriture renseigné sur {} notes existantes", resultat.getModifiedCount());
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.medilabo.note_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+
+/**
+ * Active l'audit Spring Data MongoDB pour les écritures non bloquantes du profil {@code reactive} :
+ * l'instant de dernière écriture des notes ({@code lastModified}) y est renseigné comme en mode servlet.
+ */
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoAuditing
+public class ReactiveMongoAuditingConfig {
+}
@@ -1,52 +1,417 @@
 package com.medilabo.note_service.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medilabo.note_service.model.BulkInsertReport;
 import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteChange;
+import com.medilabo.note_service.model.NoteChangePage;
+import com.medilabo.note_service.model.NotePage;
+import com.medilabo.note_service.model.NoteSearchHit;
+import com.medilabo.note_service.model.NoteText;
+import com.medilabo.note_service.model.NoteTombstone;
+import com.medilabo.note_service.proxies.AssessmentProxy;
+import com.medilabo.note_service.repository.NoteBucketStore;
 import com.medilabo.note_service.repository.NoteRepository;
+import com.medilabo.note_service.repository.NoteTombstoneRepository;
+import com.medilabo.note_service.service.NoteHistoryVersions;
+import com.medilabo.note_service.service.NoteWriteBehindQueue;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Contrôleur REST gérant les opérations CRUD sur les notes médicales.
+ * Actif sur le serveur servlet (mode par défaut) ; voir {@link ReactiveNoteController} pour le mode réactif.
  */
 @RestController
 @RequestMapping("/notes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class NoteController {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_LIST_SIZE = 1000;
+
+    /** Nombre de notes écrites entre deux envois forcés au client lors d'un export. */
+    private static final int NOTES_PAR_ENVOI = 500;
+
+    private static final char SEPARATEUR_CURSEUR = '_';
+
+    /** Les historiques peuvent être conservés par le client, à condition d'être revalidés à chaque lecture. */
+    static final CacheControl CACHE_HISTORIQUE = CacheControl.noCache().cachePrivate();
+
     private final NoteRepository noteRepository;
+    private final NoteTombstoneRepository tombstoneRepository;
+    private final AssessmentProxy assessmentProxy;
+    private final ObjectMapper objectMapper;
+    private final int tailleLotImport;
+    private final NoteBucketStore paquetsPatients;
+    private final NoteWriteBehindQueue fileEcriture;
+    private final NoteHistoryVersions versions;
 
-    public NoteController(NoteRepository noteRepository) {
+    /**
+     * Constructeur injectant le dépôt des notes et le client du service d'évaluation.
+     *
+     * @param noteRepository      Le dépôt des notes.
+     * @param tombstoneRepository Le dépôt des traces de suppression.
+     * @param assessmentProxy     Le client utilisé pour invalider les risques en cache.
+     * @param objectMapper        Le sérialiseur JSON utilisé pour les exports et imports en flux.
+     * @param tailleLotImport     Nombre de notes insérées par écriture groupée lors d'un import.
+     * @param paquetsPatients     Les paquets de notes par patient, absents en disposition à plat.
+     * @param fileEcriture        La file d'écriture différée des nouvelles notes, absente en écriture directe.
+     * @param versions            Les versions des historiques, servies en {@code ETag}.
+     */
+    public NoteController(NoteRepository noteRepository,
+                          NoteTombstoneRepository tombstoneRepository,
+                          AssessmentProxy assessmentProxy,
+                          ObjectMapper objectMapper,
+                          @Value("${medilabo.notes.bulk.chunk-size:1000}") int tailleLotImport,
+                          @Nullable NoteBucketStore paquetsPatients,
+                          @Nullable NoteWriteBehindQueue fileEcriture,
+                          NoteHistoryVersions versions) {
         this.noteRepository = noteRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.assessmentProxy = assessmentProxy;
+        this.objectMapper = objectMapper;
+        this.tailleLotImport = tailleLotImport;
+        this.paquetsPatients = paquetsPatients;
+        this.fileEcriture = fileEcriture;
+        this.versions = versions;
     }
 
     /**
      * Enregistre une nouvelle note médicale.
+     * <p>
+     * En écriture différée, la note est rendue dès qu'elle est journalisée sur disque, avec son identifiant ;
+     * elle est écrite dans MongoDB peu après. Si la file d'écriture est pleine, la note est refusée (503).
+     * </p>
      *
      * @param note L'objet note à sauvegarder.
      * @return     La note enregistrée.
+     * @throws IOException En cas d'erreur d'écriture du journal de la file d'écriture.
      */
     @PostMapping
-    public Note addNote(@RequestBody Note note) {
-        return noteRepository.save(note);
+    public Note addNote(@RequestBody Note note) throws IOException {
+        if (fileEcriture != null) {
+            if (!fileEcriture.accepter(note)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "File d'écriture des notes pleine, réessayer plus tard");
+            }
+            return note;
+        }
+        Note savedNote = noteRepository.save(note);
+        versions.incrementer(note.getPatId());
+        assessmentProxy.invalidateAssessment(note.getPatId());
+        return savedNote;
     }
 
     /**
-     * Récupère l'intégralité des notes présentes en base.
-     * @return Une liste de toutes les notes.
+     * Importe un grand nombre de notes en une seule requête.
+     * <p>
+     * Le corps, tableau JSON ou flux NDJSON, est lu note par note et inséré par paquets au moyen
+     * d'écritures groupées non ordonnées : une note rejetée (identifiant en double par exemple)
+     * n'interrompt ni son paquet ni l'import. Seul le paquet en cours est gardé en mémoire.
+     * Une erreur de lecture arrête l'import ; les paquets déjà écrits sont conservés et signalés.
+     * </p>
+     *
+     * @param corps Le corps de la requête.
+     * @return      Le bilan de l'import, par paquet (400 si la lecture a été interrompue).
+     * @throws IOException En cas d'erreur de lecture du corps.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkInsertReport> addNotes(InputStream corps) throws IOException {
+        BulkInsertReport bilan = new BulkInsertReport();
+        Set<Integer> patients = new HashSet<>();
+        List<Note> paquet = new ArrayList<>(tailleLotImport);
+
+        try (MappingIterator<Note> notes = objectMapper.readerFor(Note.class).readValues(corps)) {
+            while (notes.hasNextValue()) {
+                Note note = notes.nextValue();
+                paquet.add(note);
+                patients.add(note.getPatId());
+                if (paquet.size() == tailleLotImport) {
+                    bilan.add(noteRepository.insertUnordered(paquet));
+                    paquet.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            bilan.setError(e.getOriginalMessage());
+        }
+        if (!paquet.isEmpty()) {
+            bilan.add(noteRepository.insertUnordered(paquet));
+        }
+
+        invaliderRisques(patients);
+        return bilan.getError() == null ? ResponseEntity.ok(bilan) : ResponseEntity.badRequest().body(bilan);
+    }
+
+    /**
+     * Récupère une page des notes présentes en base, dans l'ordre de leur identifiant.
+     * L'intégralité de la collection s'obtient par {@code GET /notes/export}.
+     *
+     * @param page Le numéro de la page (à partir de 0).
+     * @param size Le nombre de notes par page (plafonné à {@value #MAX_LIST_SIZE}).
+     * @return     Les notes de la page.
      */
     @GetMapping
-    public List<Note> getAllNotes() {
-        return noteRepository.findAll();
+    public List<Note> getAllNotes(@RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_LIST_SIZE));
+        return noteRepository.findAllBy(PageRequest.of(Math.max(0, page), pageSize, Sort.by("id")));
+    }
+
+    /**
+     * Exporte l'ensemble des notes, une note JSON par ligne (NDJSON).
+     * <p>
+     * La collection est lue au moyen d'un curseur et chaque note est écrite dans la réponse
+     * dès sa lecture : la mémoire utilisée est celle d'un lot du curseur, quelle que soit
+     * la taille de la collection.
+     * </p>
+     *
+     * @param since Ne retient que les notes datées de cet instant ou après (optionnel).
+     * @return      Le flux des notes.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNotes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        StreamingResponseBody flux = sortie -> {
+            try (Stream<Note> notes = lireNotes(since)) {
+                exporter(notes, note -> {
+                    sortie.write(objectMapper.writeValueAsBytes(note));
+                    sortie.write('\n');
+                }, sortie);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(flux);
+    }
+
+    /**
+     * Exporte l'ensemble des notes sous la forme d'un tableau JSON écrit au fil de la lecture
+     * (réponse transmise par morceaux), pour les clients qui n'acceptent pas le NDJSON.
+     *
+     * @param since Ne retient que les notes datées de cet instant ou après (optionnel).
+     * @return      Le flux des notes.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNotesAsJsonArray(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        StreamingResponseBody flux = sortie -> {
+            ObjectWriter ecrivain = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (Stream<Note> notes = lireNotes(since);
+                 JsonGenerator generateur = objectMapper.createGenerator(sortie).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generateur.writeStartArray();
+                exporter(notes, note -> ecrivain.writeValue(generateur, note), generateur);
+                generateur.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(flux);
     }
 
     /**
      * Récupère l'historique des notes pour un patient spécifique.
+     * En disposition par paquets, l'historique est lu dans les paquets du patient.
+     * La réponse porte la version de l'historique en {@code ETag} ; si le client présente cette version
+     * ({@code If-None-Match}), la réponse est un 304 sans corps, rendu sans lire les notes.
      *
-     * @param patId L'identifiant unique du patient.
-     * @return      La liste des notes associées.
+     * @param patId   L'identifiant unique du patient.
+     * @param requete La requête, pour l'en-tête {@code If-None-Match}.
+     * @return        La liste des notes associées, ou 304 si le client en détient la version courante.
      */
     @GetMapping("/patient/{patId}")
-    public List<Note> getNotesByPatientId(@PathVariable Integer patId) {
-        return noteRepository.findByPatId(patId);
+    public ResponseEntity<List<Note>> getNotesByPatientId(@PathVariable Integer patId, WebRequest requete) {
+        return lireHistorique(patId, requete, () -> paquetsPatients != null
+                ? paquetsPatients.findByPatId(patId) : noteRepository.findByPatId(patId));
+    }
+
+    /**
+     * Récupère une page de l'historique d'un patient, de la note la plus récente à la plus ancienne.
+     * <p>
+     * La page suivante est désignée par la position de la dernière note reçue (pagination sur clé) :
+     * chaque page est lue directement dans l'index {@code (patId, date)}, en temps constant
+     * quelle que soit la longueur de l'historique.
+     * </p>
+     *
+     * @param patId  L'identifiant unique du patient.
+     * @param size   Le nombre de notes par page (plafonné à {@value #MAX_PAGE_SIZE}).
+     * @param cursor Le jeton {@code next} de la page précédente, absent pour la première page.
+     * @return       La page de notes et le jeton de la page suivante.
+     */
+    @GetMapping("/patient/{patId}/page")
+    public NotePage getNotesPageByPatientId(@PathVariable Integer patId,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Une note de plus que demandé indique s'il reste une page à lire
+        PageRequest limite = PageRequest.ofSize(pageSize + 1);
+
+        List<Note> notes;
+        if (cursor == null || cursor.isEmpty()) {
+            notes = noteRepository.findByPatIdOrderByDateDescIdDesc(patId, limite);
+        } else {
+            Position<LocalDateTime> derniere = lireCurseur(cursor, LocalDateTime::parse);
+            notes = derniere.cle() == null
+                    ? noteRepository.findUndatedByPatIdAfter(patId, derniere.idMongo(), limite)
+                    : noteRepository.findByPatIdAfter(patId, derniere.cle(), derniere.idMongo(), limite);
+        }
+
+        if (notes.size() <= pageSize) {
+            return new NotePage(notes, null);
+        }
+        List<Note> page = notes.subList(0, pageSize);
+        Note derniere = page.get(pageSize - 1);
+        return new NotePage(page, ecrireCurseur(derniere.getDate(), derniere.getId()));
+    }
+
+    /**
+     * Récupère les modifications de notes (créations, mises à jour et suppressions) survenues
+     * à partir d'un instant donné, de la plus ancienne à la plus récente.
+     * <p>
+     * Un consommateur tenant à jour une vue dérivée enchaîne les pages jusqu'à obtenir
+     * {@code next = null}, puis conserve le dernier jeton reçu ou l'instant de la dernière
+     * modification pour la synchronisation suivante. Chaque page est lue dans les index
+     * {@code (lastModified, _id)} des notes et des traces de suppression : son coût dépend
+     * du nombre de modifications, pas du volume total des notes. Les écritures concurrentes
+     * pouvant être horodatées dans le désordre, il est conseillé de repartir de quelques
+     * secondes avant la dernière modification reçue, l'application d'une modification étant idempotente.
+     * </p>
+     *
+     * @param since  L'instant de départ (inclus), ignoré lorsqu'un jeton est fourni.
+     * @param size   Le nombre de modifications par page (plafonné à {@value #MAX_LIST_SIZE}).
+     * @param cursor Le jeton {@code next} de la page précédente.
+     * @return       La page de modifications et le jeton de la page suivante.
+     */
+    @GetMapping("/changes")
+    public NoteChangePage getChanges(@RequestParam(required = false) Instant since,
+                                     @RequestParam(defaultValue = "100") int size,
+                                     @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(size, MAX_LIST_SIZE));
+        PageRequest limite = PageRequest.ofSize(pageSize + 1);
+
+        List<NoteChange> changements = new ArrayList<>();
+        if (cursor != null && !cursor.isEmpty()) {
+            Position<Instant> derniere = lireCurseur(cursor, Instant::parse);
+            if (derniere.cle() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination invalide");
+            }
+            noteRepository.findChangedAfter(derniere.cle(), derniere.idMongo(), limite)
+                    .forEach(note -> changements.add(NoteChange.of(note)));
+            tombstoneRepository.findChangedAfter(derniere.cle(), derniere.idMongo(), limite)
+                    .forEach(trace -> changements.add(NoteChange.of(trace)));
+        } else {
+            if (since == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètre since ou cursor requis");
+            }
+            noteRepository.findChangedSince(since, limite).forEach(note -> changements.add(NoteChange.of(note)));
+            tombstoneRepository.findChangedSince(since, limite).forEach(trace -> changements.add(NoteChange.of(trace)));
+        }
+
+        // Fusion des deux flux triés : au plus pageSize + 1 éléments de chaque côté
+        changements.sort(Comparator.comparing(NoteChange::getLastModified).thenComparing(NoteChange::getId));
+        if (changements.size() <= pageSize) {
+            return new NoteChangePage(changements, null);
+        }
+        List<NoteChange> page = changements.subList(0, pageSize);
+        NoteChange derniere = page.get(pageSize - 1);
+        return new NoteChangePage(page, ecrireCurseur(derniere.getLastModified(), derniere.getId()));
+    }
+
+    /**
+     * Recherche des notes par leur contenu, tous patients confondus ou pour un patient donné.
+     * <p>
+     * La recherche s'appuie sur l'index de texte de MongoDB : les termes sont réduits à leur racine
+     * française ("vertiges" trouve "vertige") et comparés sans tenir compte de la casse ni des accents.
+     * Les résultats sont classés par pertinence décroissante.
+     * </p>
+     *
+     * @param q     Les termes recherchés.
+     * @param patId Restreint la recherche aux notes de ce patient (optionnel).
+     * @param page  Le numéro de la page (à partir de 0).
+     * @param size  Le nombre de résultats par page (plafonné à {@value #MAX_PAGE_SIZE}).
+     * @return      Les notes trouvées, accompagnées de leur score de pertinence.
+     */
+    @GetMapping("/search")
+    public List<NoteSearchHit> searchNotes(@RequestParam String q,
+                                           @RequestParam(required = false) Integer patId,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Termes de recherche requis");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return noteRepository.search(q, patId, PageRequest.of(Math.max(0, page), pageSize));
+    }
+
+    /**
+     * Récupère en un seul appel les notes de plusieurs patients.
+     * Destiné aux traitements par lot, qui évitent ainsi un appel par patient.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Les notes de l'ensemble de ces patients.
+     */
+    @GetMapping("/patients")
+    public List<Note> getNotesByPatientIds(@RequestParam("ids") List<Integer> ids) {
+        return paquetsPatients != null ? paquetsPatients.findByPatIdIn(ids) : noteRepository.findByPatIdIn(ids);
+    }
+
+    /**
+     * Récupère uniquement le texte des notes d'un patient.
+     * Destiné au calcul du risque, qui n'utilise ni l'identifiant, ni la date, ni le nom du patient.
+     * Comme l'historique complet, la réponse est conditionnelle ({@code ETag} / {@code If-None-Match}).
+     *
+     * @param patId   L'identifiant unique du patient.
+     * @param requete La requête, pour l'en-tête {@code If-None-Match}.
+     * @return        Le texte de chacune de ses notes ({@code [{"note": ...}]}), ou 304.
+     * @see #getNotesByPatientId(Integer, WebRequest)
+     */
+    @GetMapping("/patient/{patId}/text")
+    public ResponseEntity<List<NoteText>> getNoteTextsByPatientId(@PathVariable Integer patId, WebRequest requete) {
+        return lireHistorique(patId, requete, () -> paquetsPatients != null
+                ? paquetsPatients.findTextByPatId(patId) : noteRepository.findTextByPatId(patId));
+    }
+
+    /**
+     * Récupère en un seul appel le texte des notes de plusieurs patients.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le texte de chaque note et l'identifiant de son patient ({@code [{"patId": ..., "note": ...}]}).
+     */
+    @GetMapping("/patients/text")
+    public List<NoteText> getNoteTextsByPatientIds(@RequestParam("ids") List<Integer> ids) {
+        return paquetsPatients != null ? paquetsPatients.findTextByPatIdIn(ids, true) : noteRepository.findTextByPatIdIn(ids);
     }
 
     /**
@@ -57,15 +422,159 @@ public class NoteController {
      */
     @PutMapping
     public Note updateNote(@RequestBody Note note) {
-        return noteRepository.save(note);
+        Integer previousPatId = note.getId() == null ? null : noteRepository.findById(note.getId())
+                .map(Note::getPatId)
+                .orElse(null);
+        Note savedNote = noteRepository.save(note);
+        versions.incrementer(Arrays.asList(note.getPatId(), previousPatId));
+        assessmentProxy.invalidateAssessment(note.getPatId());
+        if (previousPatId != null && !previousPatId.equals(note.getPatId())) {
+            assessmentProxy.invalidateAssessment(previousPatId);
+        }
+        return savedNote;
     }
 
     /**
      * Supprime une note par son identifiant unique.
+     * <p>
+     * La trace de suppression est écrite avant la suppression elle-même : un arrêt entre les deux écritures
+     * laisse au pire une trace pour une note encore présente, effacée à nouveau lorsque la suppression est rejouée,
+     * jamais une note disparue sans trace pour le flux des modifications.
+     * </p>
      * @param id L'identifiant technique de la note.
      */
     @DeleteMapping("/{id}")
     public void deleteNote(@PathVariable String id) {
+        Optional<Note> note = noteRepository.findById(id);
+        note.ifPresent(deletedNote -> tombstoneRepository.save(new NoteTombstone(id, deletedNote.getPatId(), Instant.now())));
         noteRepository.deleteById(id);
+        note.ifPresent(deletedNote -> {
+            versions.incrementer(deletedNote.getPatId());
+            assessmentProxy.invalidateAssessment(deletedNote.getPatId());
+        });
+    }
+
+    /**
+     * Position d'un élément dans un parcours paginé sur clé.
+     *
+     * @param cle La clé de tri de l'élément ({@code null} si absente).
+     * @param id  L'identifiant de l'élément, qui départage les clés égales.
+     */
+    record Position<T>(T cle, String id) {
+
+        /**
+         * Retourne l'identifiant sous la forme stockée par MongoDB ({@link ObjectId} lorsque c'en est un).
+         *
+         * @return L'identifiant à utiliser dans les requêtes.
+         */
+        Object idMongo() {
+            return ObjectId.isValid(id) ? new ObjectId(id) : id;
+        }
+    }
+
+    /**
+     * Encode la position d'un élément sous la forme d'un jeton opaque.
+     *
+     * @param cle La clé de tri du dernier élément d'une page ({@code null} si absente).
+     * @param id  Son identifiant.
+     * @return    Le jeton de la page suivante.
+     */
+    static String ecrireCurseur(Object cle, String id) {
+        String position = (cle == null ? "" : cle.toString()) + SEPARATEUR_CURSEUR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un jeton produit par {@link #ecrireCurseur(Object, String)}.
+     *
+     * @param cursor     Le jeton reçu.
+     * @param lectureCle La conversion de la clé de tri depuis sa forme textuelle.
+     * @return           La position désignée par le jeton.
+     * @throws ResponseStatusException 400 si le jeton est invalide.
+     */
+    static <T> Position<T> lireCurseur(String cursor, Function<String, T> lectureCle) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separateur = position.indexOf(SEPARATEUR_CURSEUR);
+            if (separateur < 0 || separateur == position.length() - 1) {
+                throw new IllegalArgumentException("Séparateur absent");
+            }
+            String cle = position.substring(0, separateur);
+            return new Position<>(cle.isEmpty() ? null : lectureCle.apply(cle), position.substring(separateur + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination invalide", e);
+        }
+    }
+
+    /**
+     * Lit un historique de notes sous condition de version.
+     * La version est relevée avant la lecture, afin qu'une écriture concurrente ne puisse pas
+     * faire étiqueter des notes périmées de la version courante. En réponse 304, l'étiquette
+     * est renseignée par {@link WebRequest#checkNotModified(String)}.
+     *
+     * @param patId   L'identifiant du patient.
+     * @param requete La requête, pour l'en-tête {@code If-None-Match}.
+     * @param lecture La lecture de l'historique, appelée seulement si le client n'en détient pas la version.
+     * @return        L'historique avec sa version, ou 304 sans corps.
+     */
+    private <T> ResponseEntity<T> lireHistorique(Integer patId, WebRequest requete, Supplier<T> lecture) {
+        String etag = versions.etag(patId);
+        if (requete.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE_HISTORIQUE).build();
+        }
+        return ResponseEntity.ok().cacheControl(CACHE_HISTORIQUE).eTag(etag).body(lecture.get());
+    }
+
+    /**
+     * Incrémente la version de l'historique des patients touchés par un import, puis invalide
+     * leurs risques en cache : un par un s'ils sont peu nombreux, en totalité sinon.
+     *
+     * @param patients Les identifiants des patients dont des notes ont été importées.
+     */
+    private void invaliderRisques(Set<Integer> patients) {
+        patients.remove(null);
+        versions.incrementer(patients);
+        if (patients.size() > AssessmentProxy.MAX_INVALIDATIONS_CIBLEES) {
+            assessmentProxy.invalidateAllAssessments();
+        } else {
+            patients.forEach(assessmentProxy::invalidateAssessment);
+        }
+    }
+
+    /**
+     * Ouvre un curseur sur les notes à exporter.
+     *
+     * @param since L'instant à partir duquel les notes sont retenues ({@code null} = toutes).
+     * @return      Le flux des notes, à fermer après usage.
+     */
+    private Stream<Note> lireNotes(LocalDateTime since) {
+        return since == null ? noteRepository.streamAllBy() : noteRepository.streamByDateGreaterThanEqual(since);
+    }
+
+    /**
+     * Écrit les notes une à une en forçant régulièrement l'envoi au client.
+     *
+     * @param notes    Les notes à écrire.
+     * @param ecriture L'écriture d'une note.
+     * @param sortie   La sortie à vider périodiquement.
+     * @throws IOException En cas d'erreur d'écriture (client déconnecté par exemple).
+     */
+    private static void exporter(Stream<Note> notes, EcritureNote ecriture, Flushable sortie) throws IOException {
+        int ecrites = 0;
+        for (Note note : (Iterable<Note>) notes::iterator) {
+            ecriture.ecrire(note);
+            if (++ecrites % NOTES_PAR_ENVOI == 0) {
+                sortie.flush();
+            }
+        }
+        sortie.flush();
+    }
+
+    /**
+     * Écriture d'une note dans la réponse, susceptible d'échouer.
+     */
+    @FunctionalInterface
+    private interface EcritureNote {
+        void ecrire(Note note) throws IOException;
     }
-}
\ No newline at end of file
+}
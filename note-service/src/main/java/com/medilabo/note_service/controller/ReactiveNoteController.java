@@ -0,0 +1,277 @@
+package com.medilabo.note_service.controller;
+
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NotePage;
+import com.medilabo.note_service.model.NoteText;
+import com.medilabo.note_service.model.NoteTombstone;
+import com.medilabo.note_service.proxies.AssessmentProxy;
+import com.medilabo.note_service.repository.ReactiveNoteRepository;
+import com.medilabo.note_service.repository.ReactiveNoteTombstoneRepository;
+import com.medilabo.note_service.service.NoteHistoryVersions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Contrôleur REST non bloquant gérant les notes médicales, actif en mode réactif (profil {@code reactive}).
+ * <p>
+ * Il expose les mêmes routes de lecture et d'écriture que {@link NoteController}. Les listes sont publiées
+ * au fil de la lecture du curseur MongoDB, au rythme imposé par le client : un tableau JSON écrit
+ * par morceaux, ou une note par ligne lorsque le client demande {@code application/x-ndjson}.
+ * Un client lent ne retient ni thread ni liste complète en mémoire.
+ * </p>
+ * <p>
+ * Les imports en masse, la recherche et le flux des modifications restent propres au mode servlet.
+ * </p>
+ */
+@RestController
+@RequestMapping("/notes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveNoteController {
+
+    private final ReactiveNoteRepository noteRepository;
+    private final ReactiveNoteTombstoneRepository tombstoneRepository;
+    private final AssessmentProxy assessmentProxy;
+
+    /**
+     * Constructeur injectant les dépôts non bloquants et le client du service d'évaluation.
+     *
+     * @param noteRepository      Le dépôt des notes.
+     * @param tombstoneRepository Le dépôt des traces de suppression.
+     * @param assessmentProxy     Le client utilisé pour invalider les risques en cache.
+     */
+    public ReactiveNoteController(ReactiveNoteRepository noteRepository,
+                                  ReactiveNoteTombstoneRepository tombstoneRepository,
+                                  AssessmentProxy assessmentProxy) {
+        this.noteRepository = noteRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.assessmentProxy = assessmentProxy;
+    }
+
+    /**
+     * Enregistre une nouvelle note médicale.
+     *
+     * @param note L'objet note à sauvegarder.
+     * @return     La note enregistrée.
+     */
+    @PostMapping
+    public Mono<Note> addNote(@RequestBody Note note) {
+        return noteRepository.save(note)
+                .flatMap(savedNote -> noteRepository.incrementHistoryVersions(Collections.singleton(savedNote.getPatId()))
+                        .then(invaliderRisque(savedNote.getPatId()))
+                        .thenReturn(savedNote));
+    }
+
+    /**
+     * Récupère une page des notes présentes en base, dans l'ordre de leur identifiant.
+     *
+     * @param page Le numéro de la page (à partir de 0).
+     * @param size Le nombre de notes par page (plafonné à {@value NoteController#MAX_LIST_SIZE}).
+     * @return     Le flux des notes de la page.
+     */
+    @GetMapping
+    public Flux<Note> getAllNotes(@RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.max(1, Math.min(size, NoteController.MAX_LIST_SIZE));
+        return noteRepository.findAllBy(PageRequest.of(Math.max(0, page), pageSize, Sort.by("id")));
+    }
+
+    /**
+     * Exporte l'ensemble des notes, en NDJSON ou en tableau JSON selon l'en-tête {@code Accept}.
+     *
+     * @param since Ne retient que les notes datées de cet instant ou après (optionnel).
+     * @return      Le flux des notes.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Note> exportNotes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return since == null ? noteRepository.findAll() : noteRepository.findByDateGreaterThanEqual(since);
+    }
+
+    /**
+     * Récupère l'historique des notes pour un patient spécifique, sous condition de version.
+     *
+     * @param patId    L'identifiant unique du patient.
+     * @param exchange L'échange en cours, pour l'en-tête {@code If-None-Match}.
+     * @return         Le flux des notes associées, ou 304 si le client en détient la version courante.
+     * @see NoteController#getNotesByPatientId(Integer, org.springframework.web.context.request.WebRequest)
+     */
+    @GetMapping("/patient/{patId}")
+    public Mono<ResponseEntity<Flux<Note>>> getNotesByPatientId(@PathVariable Integer patId, ServerWebExchange exchange) {
+        return lireHistorique(patId, exchange, () -> noteRepository.findByPatId(patId));
+    }
+
+    /**
+     * Récupère une page de l'historique d'un patient, de la note la plus récente à la plus ancienne.
+     *
+     * @param patId  L'identifiant unique du patient.
+     * @param size   Le nombre de notes par page (plafonné à {@value NoteController#MAX_PAGE_SIZE}).
+     * @param cursor Le jeton {@code next} de la page précédente, absent pour la première page.
+     * @return       La page de notes et le jeton de la page suivante.
+     * @see NoteController#getNotesPageByPatientId(Integer, int, String)
+     */
+    @GetMapping("/patient/{patId}/page")
+    public Mono<NotePage> getNotesPageByPatientId(@PathVariable Integer patId,
+                                                  @RequestParam(defaultValue = "20") int size,
+                                                  @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(size, NoteController.MAX_PAGE_SIZE));
+        PageRequest limite = PageRequest.ofSize(pageSize + 1);
+
+        Flux<Note> notes;
+        if (cursor == null || cursor.isEmpty()) {
+            notes = noteRepository.findByPatIdOrderByDateDescIdDesc(patId, limite);
+        } else {
+            NoteController.Position<LocalDateTime> derniere = NoteController.lireCurseur(cursor, LocalDateTime::parse);
+            notes = derniere.cle() == null
+                    ? noteRepository.findUndatedByPatIdAfter(patId, derniere.id(), limite)
+                    : noteRepository.findByPatIdAfter(patId, derniere.cle(), derniere.id(), limite);
+        }
+
+        return notes.collectList().map(liste -> {
+            if (liste.size() <= pageSize) {
+                return new NotePage(liste, null);
+            }
+            List<Note> page = liste.subList(0, pageSize);
+            Note derniere = page.get(pageSize - 1);
+            return new NotePage(page, NoteController.ecrireCurseur(derniere.getDate(), derniere.getId()));
+        });
+    }
+
+    /**
+     * Récupère en un seul appel les notes de plusieurs patients.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le flux des notes de l'ensemble de ces patients.
+     */
+    @GetMapping("/patients")
+    public Flux<Note> getNotesByPatientIds(@RequestParam("ids") List<Integer> ids) {
+        return noteRepository.findByPatIdIn(ids);
+    }
+
+    /**
+     * Récupère uniquement le texte des notes d'un patient, sous condition de version.
+     *
+     * @param patId    L'identifiant unique du patient.
+     * @param exchange L'échange en cours, pour l'en-tête {@code If-None-Match}.
+     * @return         Le texte de chacune de ses notes, ou 304.
+     */
+    @GetMapping("/patient/{patId}/text")
+    public Mono<ResponseEntity<Flux<NoteText>>> getNoteTextsByPatientId(@PathVariable Integer patId, ServerWebExchange exchange) {
+        return lireHistorique(patId, exchange, () -> noteRepository.findTextByPatId(patId));
+    }
+
+    /**
+     * Récupère en un seul appel le texte des notes de plusieurs patients.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Le texte de chaque note et l'identifiant de son patient.
+     */
+    @GetMapping("/patients/text")
+    public Flux<NoteText> getNoteTextsByPatientIds(@RequestParam("ids") List<Integer> ids) {
+        return noteRepository.findTextByPatIdIn(ids);
+    }
+
+    /**
+     * Met à jour une note existante.
+     * Si la note change de patient, la version de l'historique et le risque de l'ancien patient
+     * sont également mis à jour.
+     *
+     * @param note La note contenant les modifications.
+     * @return     La note mise à jour.
+     */
+    @PutMapping
+    public Mono<Note> updateNote(@RequestBody Note note) {
+        Mono<Integer> ancienPatient = note.getId() == null ? Mono.empty()
+                : noteRepository.findById(note.getId()).mapNotNull(Note::getPatId);
+        return ancienPatient
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(ancien -> noteRepository.save(note)
+                        .flatMap(savedNote -> noteRepository.incrementHistoryVersions(Arrays.asList(savedNote.getPatId(), ancien.orElse(null)))
+                                .then(invaliderRisque(savedNote.getPatId()))
+                                .then(ancien.filter(patId -> !patId.equals(savedNote.getPatId()))
+                                        .map(this::invaliderRisque)
+                                        .orElse(Mono.empty()))
+                                .thenReturn(savedNote)));
+    }
+
+    /**
+     * Supprime une note par son identifiant unique, après avoir écrit sa trace de suppression
+     * (même ordre qu'en mode servlet).
+     *
+     * @param id L'identifiant technique de la note.
+     * @return   Une publication vide, terminée après la suppression.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteNote(@PathVariable String id) {
+        return noteRepository.findById(id)
+                .flatMap(note -> tombstoneRepository.save(new NoteTombstone(id, note.getPatId(), Instant.now()))
+                        .then(noteRepository.deleteById(id))
+                        .then(noteRepository.incrementHistoryVersions(Collections.singleton(note.getPatId())))
+                        .then(invaliderRisque(note.getPatId())));
+    }
+
+    /**
+     * Lit un historique de notes sous condition de version, relevée avant la lecture.
+     * En réponse 304, l'étiquette est renseignée par {@link ServerWebExchange#checkNotModified(String)}.
+     *
+     * @param patId    L'identifiant du patient.
+     * @param exchange L'échange en cours.
+     * @param lecture  La lecture de l'historique, appelée seulement si le client n'en détient pas la version.
+     * @return         L'historique avec sa version, ou 304 sans corps.
+     */
+    private <T> Mono<ResponseEntity<Flux<T>>> lireHistorique(Integer patId, ServerWebExchange exchange, Supplier<Flux<T>> lecture) {
+        return version(patId).map(etag -> exchange.checkNotModified(etag)
+                ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(NoteController.CACHE_HISTORIQUE).<Flux<T>>build()
+                : ResponseEntity.ok().cacheControl(NoteController.CACHE_HISTORIQUE).eTag(etag).body(lecture.get()));
+    }
+
+    /**
+     * Relève la version de l'historique d'un patient, lue dans le même compteur qu'en mode servlet.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      L'étiquette faible de la version courante.
+     * @see NoteHistoryVersions
+     */
+    private Mono<String> version(Integer patId) {
+        return noteRepository.findHistoryVersion(patId).map(NoteHistoryVersions::etag);
+    }
+
+    /**
+     * Invalide le risque en cache d'un patient.
+     * Le client HTTP étant bloquant, l'invalidation est déportée sur un thread prévu pour les tâches bloquantes.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Une publication vide, terminée après l'invalidation.
+     */
+    private Mono<Void> invaliderRisque(Integer patId) {
+        return Mono.fromRunnable(() -> assessmentProxy.invalidateAssessment(patId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
@@ -0,0 +1,50 @@
+package com.medilabo.note_service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bilan de l'insertion d'un paquet de notes lors d'un import en masse.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkChunkReport {
+
+    /** Rang du paquet dans l'import (à partir de 0). */
+    private int chunk;
+
+    /** Nombre de notes insérées. */
+    private int inserted;
+
+    /** Nombre de notes rejetées par MongoDB. */
+    private int failed;
+
+    /** Première erreur rencontrée dans le paquet, le cas échéant. */
+    private String error;
+
+    /**
+     * Rang, dans le paquet, des notes rejetées pour une autre raison qu'un identifiant déjà utilisé :
+     * leur insertion peut être retentée. Non transmis au client de l'import.
+     */
+    @JsonIgnore
+    private List<Integer> retryable = List.of();
+
+    /**
+     * Construit le bilan d'un paquet dont aucune note n'est à retenter.
+     *
+     * @param chunk    Rang du paquet dans l'import.
+     * @param inserted Nombre de notes insérées.
+     * @param failed   Nombre de notes rejetées.
+     * @param error    Première erreur rencontrée, le cas échéant.
+     */
+    public BulkChunkReport(int chunk, int inserted, int failed, String error) {
+        this(chunk, inserted, failed, error, List.of());
+    }
+}
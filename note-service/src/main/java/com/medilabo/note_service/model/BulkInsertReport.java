@@ -0,0 +1,41 @@
+package com.medilabo.note_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan d'un import en masse de notes : totaux et détail par paquet.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkInsertReport {
+
+    /** Nombre total de notes insérées. */
+    private long inserted;
+
+    /** Nombre total de notes rejetées par MongoDB. */
+    private long failed;
+
+    /** Bilan de chaque paquet, dans l'ordre de l'import. */
+    private List<BulkChunkReport> chunks = new ArrayList<>();
+
+    /** Erreur de lecture ayant interrompu l'import ; les paquets déjà écrits sont conservés. */
+    private String error;
+
+    /**
+     * Ajoute le bilan d'un paquet et met à jour les totaux.
+     *
+     * @param paquet Le bilan du paquet.
+     */
+    public void add(BulkChunkReport paquet) {
+        paquet.setChunk(chunks.size());
+        chunks.add(paquet);
+        inserted += paquet.getInserted();
+        failed += paquet.getFailed();
+    }
+}
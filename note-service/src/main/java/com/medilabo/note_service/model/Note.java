@@ -4,16 +4,32 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 /**
  * Entité représentant une note médicale stockée dans MongoDB.
+ * <p>
+ * L'index composé {@code (patId, date, _id)} sert à la fois la recherche par patient
+ * et le parcours de l'historique du plus récent au plus ancien ; l'{@code _id} départage
+ * les notes de même date afin que la pagination sur clé soit stable. L'index
+ * {@code (lastModified, _id)} sert le flux des modifications ({@code GET /notes/changes}) ;
+ * l'index de texte (racinisation française) sert la recherche ({@code GET /notes/search}).
+ * </p>
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "notes")
+@Document(collection = "notes", language = "french")
+@CompoundIndexes({
+        @CompoundIndex(name = "patId_date", def = "{'patId': 1, 'date': -1, '_id': -1}"),
+        @CompoundIndex(name = "lastModified", def = "{'lastModified': 1, '_id': 1}")
+})
 public class Note {
 
     /** Identifiant technique unique (généré par MongoDB). */
@@ -27,8 +43,26 @@ public class Note {
     private String patient;
 
     /** Contenu de la note rédigé par le médecin. */
+    @TextIndexed
     private String note;
 
     /** Date et heure de création de la note. */
     private LocalDateTime date;
+
+    /** Instant de la dernière écriture de la note, renseigné automatiquement à chaque insertion ou mise à jour. */
+    @LastModifiedDate
+    private Instant lastModified;
+
+    /**
+     * Constructeur d'une note dont l'instant de dernière écriture reste à renseigner par MongoDB.
+     *
+     * @param id      L'identifiant technique ({@code null} pour une nouvelle note).
+     * @param patId   L'identifiant du patient associé.
+     * @param patient Le nom du patient.
+     * @param note    Le contenu de la note.
+     * @param date    La date et l'heure de création de la note.
+     */
+    public Note(String id, Integer patId, String patient, String note, LocalDateTime date) {
+        this(id, patId, patient, note, date, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.medilabo.note_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paquet regroupant, dans un seul document, un nombre borné de notes d'un même patient.
+ * <p>
+ * Copie de lecture de la collection {@code notes} (disposition {@code medilabo.notes.storage=bucket}) :
+ * l'historique d'un patient se lit en un ou quelques documents au lieu d'un document par note.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "note_buckets")
+public class NoteBucket {
+
+    /** Identifiant technique du paquet. */
+    @Id
+    private String id;
+
+    /** Identifiant du patient dont le paquet regroupe les notes. */
+    @Indexed(name = "patId")
+    private Integer patId;
+
+    /** Nombre de notes du paquet, borné par {@code medilabo.notes.bucket.max-size}. */
+    private int count;
+
+    /** Les notes du paquet. */
+    private List<Entry> notes = new ArrayList<>();
+
+    /**
+     * Note rangée dans un paquet ; le patient est porté par le paquet.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        /** Identifiant de la note dans la collection {@code notes}. */
+        @Indexed(name = "noteId")
+        private String noteId;
+
+        /** Nom du patient. */
+        private String patient;
+
+        /** Contenu de la note. */
+        private String note;
+
+        /** Date et heure de création de la note. */
+        private LocalDateTime date;
+
+        /** Instant de la dernière écriture de la note. */
+        private Instant lastModified;
+
+        /**
+         * Construit l'entrée correspondant à une note.
+         *
+         * @param note La note à ranger.
+         * @return     L'entrée du paquet.
+         */
+        public static Entry of(Note note) {
+            return new Entry(note.getId(), note.getPatient(), note.getNote(), note.getDate(), note.getLastModified());
+        }
+
+        /**
+         * Reconstitue la note correspondant à cette entrée.
+         *
+         * @param patId L'identifiant du patient porté par le paquet.
+         * @return      La note.
+         */
+        public Note toNote(Integer patId) {
+            return new Note(noteId, patId, patient, note, date, lastModified);
+        }
+    }
+}
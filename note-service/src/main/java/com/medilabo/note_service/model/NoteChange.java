@@ -0,0 +1,53 @@
+package com.medilabo.note_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Modification d'une note : création ou mise à jour (note fournie) ou suppression.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteChange {
+
+    /** Identifiant de la note modifiée. */
+    private String id;
+
+    /** Identifiant du patient associé. */
+    private Integer patId;
+
+    /** Instant de la modification. */
+    private Instant lastModified;
+
+    /** {@code true} si la note a été supprimée. */
+    private boolean deleted;
+
+    /** État de la note après modification ({@code null} pour une suppression). */
+    private Note note;
+
+    /**
+     * Construit la modification correspondant à l'état courant d'une note.
+     *
+     * @param note La note créée ou mise à jour.
+     * @return     La modification.
+     */
+    public static NoteChange of(Note note) {
+        return new NoteChange(note.getId(), note.getPatId(), note.getLastModified(), false, note);
+    }
+
+    /**
+     * Construit la modification correspondant à la suppression d'une note.
+     *
+     * @param trace La trace de suppression.
+     * @return      La modification.
+     */
+    public static NoteChange of(NoteTombstone trace) {
+        return new NoteChange(trace.getId(), trace.getPatId(), trace.getLastModified(), true, null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.medilabo.note_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page du flux des modifications de notes, de la plus ancienne à la plus récente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteChangePage {
+
+    /** Les modifications de la page, par instant croissant. */
+    private List<NoteChange> changes;
+
+    /** Jeton opaque à transmettre pour obtenir la page suivante ({@code null} lorsque le flux est à jour). */
+    private String next;
+}
@@ -0,0 +1,29 @@
+package com.medilabo.note_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Version de l'historique des notes d'un patient, servie en {@code ETag} par les lectures d'historique.
+ * <p>
+ * Le compteur est incrémenté ({@code $inc}) par chaque écriture touchant l'une des notes du patient,
+ * quelle que soit l'instance qui l'effectue : deux états distincts de l'historique n'ont jamais la même version,
+ * même si leurs écritures portent le même {@code lastModified}.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "note_history_versions")
+public class NoteHistoryVersion {
+
+    /** Identifiant du patient. */
+    @Id
+    private Integer patId;
+
+    /** Nombre d'écritures subies par l'historique du patient. */
+    private long version;
+}
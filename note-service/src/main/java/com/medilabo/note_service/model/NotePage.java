@@ -0,0 +1,22 @@
+package com.medilabo.note_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page de l'historique des notes d'un patient, parcouru du plus récent au plus ancien.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotePage {
+
+    /** Les notes de la page, de la plus récente à la plus ancienne. */
+    private List<Note> notes;
+
+    /** Jeton opaque à transmettre pour obtenir la page suivante ({@code null} en fin d'historique). */
+    private String next;
+}
@@ -0,0 +1,34 @@
+package com.medilabo.note_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Note trouvée par une recherche en texte intégral, accompagnée de sa pertinence.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSearchHit {
+
+    /** Identifiant technique de la note. */
+    private String id;
+
+    /** Identifiant du patient associé. */
+    private Integer patId;
+
+    /** Nom du patient. */
+    private String patient;
+
+    /** Contenu de la note. */
+    private String note;
+
+    /** Date et heure de création de la note. */
+    private LocalDateTime date;
+
+    /** Score de pertinence calculé par MongoDB (plus il est élevé, plus la note est pertinente). */
+    private Float score;
+}
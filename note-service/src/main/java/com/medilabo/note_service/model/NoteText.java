@@ -0,0 +1,26 @@
+package com.medilabo.note_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection d'une note réduite à son texte, destinée aux traitements de calcul du risque.
+ * <p>
+ * Seuls les champs {@code note} (et {@code patId} pour les lectures groupées) sont demandés
+ * à MongoDB : l'identifiant, la date et le nom du patient ne sont ni lus ni transmis.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteText {
+
+    /** Identifiant du patient associé (renseigné uniquement pour les lectures groupées). */
+    private Integer patId;
+
+    /** Contenu de la note rédigé par le médecin. */
+    private String note;
+}
@@ -0,0 +1,38 @@
+package com.medilabo.note_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Trace de la suppression d'une note, conservée afin que les consommateurs du flux
+ * des modifications ({@code GET /notes/changes}) puissent répercuter la suppression.
+ * <p>
+ * Les traces expirent au bout de 30 jours : un consommateur resté inactif plus longtemps
+ * doit recharger l'intégralité des notes ({@code GET /notes/export}).
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "note_tombstones")
+@CompoundIndex(name = "lastModified", def = "{'lastModified': 1, '_id': 1}")
+public class NoteTombstone {
+
+    /** Identifiant de la note supprimée. */
+    @Id
+    private String id;
+
+    /** Identifiant du patient auquel la note était associée. */
+    private Integer patId;
+
+    /** Instant de la suppression. */
+    @Indexed(name = "expiration", expireAfter = "30d")
+    private Instant lastModified;
+}
@@ -0,0 +1,69 @@
+package com.medilabo.note_service.proxies;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+
+/**
+ * Client HTTP du microservice d'évaluation, qui invalide les risques en cache après l'écriture des notes
+ * d'un ou de plusieurs patients. Un échec est journalisé sans faire échouer l'écriture.
+ */
+@Component
+public class AssessmentProxy {
+
+    private static final Logger log = LoggerFactory.getLogger(AssessmentProxy.class);
+
+    /** Au-delà de ce nombre de patients touchés par une écriture groupée, tout le cache des risques est invalidé. */
+    public static final int MAX_INVALIDATIONS_CIBLEES = 100;
+
+    private final RestClient restClient;
+
+    /**
+     * Constructeur configurant le client avec des délais courts.
+     *
+     * @param builder Le constructeur de clients REST fourni par Spring Boot
+     *                (absent en mode réactif, un constructeur par défaut est alors utilisé).
+     * @param url     L'URL de base du service d'évaluation.
+     */
+    public AssessmentProxy(ObjectProvider<RestClient.Builder> builder,
+                           @Value("${assessment-service.url:http://localhost:8081}") String url) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(1));
+        requestFactory.setReadTimeout(Duration.ofSeconds(2));
+        this.restClient = builder.getIfAvailable(RestClient::builder).baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Invalide le risque en cache d'un patient.
+     *
+     * @param patId L'identifiant du patient dont les données ont changé.
+     */
+    public void invalidateAssessment(Integer patId) {
+        if (patId == null) {
+            return;
+        }
+        try {
+            restClient.delete().uri("/assess/cache/{id}", patId).retrieve().toBodilessEntity();
+        } catch (RestClientException e) {
+            log.warn("Invalidation du risque en cache impossible pour le patient {} : {}", patId, e.getMessage());
+        }
+    }
+
+    /**
+     * Invalide l'ensemble des risques en cache, par exemple après un import massif de notes.
+     */
+    public void invalidateAllAssessments() {
+        try {
+            restClient.delete().uri("/assess/cache").retrieve().toBodilessEntity();
+        } catch (RestClientException e) {
+            log.warn("Invalidation de l'ensemble des risques en cache impossible : {}", e.getMessage());
+        }
+    }
+}
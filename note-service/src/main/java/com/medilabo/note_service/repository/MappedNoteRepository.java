@@ -0,0 +1,252 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.BulkChunkReport;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteSearchHit;
+import com.medilabo.note_service.model.NoteText;
+import com.medilabo.note_service.repository.MappedNoteStore.Emplacement;
+import com.medilabo.note_service.repository.MappedNoteStore.Genre;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation du dépôt des notes sur le journal projeté en mémoire ({@link MappedNoteStore}),
+ * active avec le profil {@code mmap} en remplacement du dépôt MongoDB.
+ * <p>
+ * L'historique d'un patient est lu à partir de l'index en mémoire, chaque note étant désérialisée
+ * directement depuis le segment projeté. Les tris, filtres et pages des autres requêtes sont appliqués
+ * en mémoire, ce qui convient aux volumes d'un déploiement autonome.
+ * </p>
+ */
+@Repository
+@Profile("mmap")
+public class MappedNoteRepository extends MappedRepositorySupport<Note> implements NoteRepository {
+
+    /** Nombre de caractères comparés entre un terme recherché et un mot de note (racinisation approchée). */
+    private static final int LONGUEUR_RACINE = 5;
+
+    private static final Comparator<Note> ANTECHRONOLOGIQUE = Comparator
+            .comparing(Note::getDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Note::getId)
+            .reversed();
+
+    private static final Comparator<Emplacement> PAR_MODIFICATION = Comparator
+            .comparing(Emplacement::lastModified)
+            .thenComparing(Emplacement::id);
+
+    private final MappedNoteStore store;
+
+    /**
+     * Constructeur injectant le journal des notes.
+     *
+     * @param store Le journal projeté en mémoire.
+     */
+    public MappedNoteRepository(MappedNoteStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected String identifiant(Note note) {
+        return note.getId();
+    }
+
+    @Override
+    protected Stream<Note> parcourir() {
+        return store.tous(Genre.NOTE).stream().map(store::lireNote);
+    }
+
+    @Override
+    public <S extends Note> S save(S note) {
+        store.enregistrerNote(note, false);
+        return note;
+    }
+
+    @Override
+    public <S extends Note> S insert(S note) {
+        if (!store.enregistrerNote(note, true)) {
+            throw new IllegalStateException("Identifiant de note déjà utilisé : " + note.getId());
+        }
+        return note;
+    }
+
+    @Override
+    public Optional<Note> findById(String id) {
+        return Optional.ofNullable(store.emplacement(Genre.NOTE, id)).map(store::lireNote);
+    }
+
+    @Override
+    public long count() {
+        return store.compter(Genre.NOTE);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.supprimer(Genre.NOTE, id);
+    }
+
+    @Override
+    public List<Note> findByPatId(Integer patId) {
+        return store.notesDuPatient(patId).stream().map(store::lireNote).toList();
+    }
+
+    @Override
+    public List<Note> findByPatIdIn(Collection<Integer> patIds) {
+        return patIds.stream().distinct().flatMap(patId -> findByPatId(patId).stream()).toList();
+    }
+
+    @Override
+    public List<NoteText> findTextByPatId(Integer patId) {
+        return findByPatId(patId).stream().map(note -> new NoteText(null, note.getNote())).toList();
+    }
+
+    @Override
+    public List<NoteText> findTextByPatIdIn(Collection<Integer> patIds) {
+        return findByPatIdIn(patIds).stream().map(note -> new NoteText(note.getPatId(), note.getNote())).toList();
+    }
+
+    @Override
+    public List<Note> findByPatIdOrderByDateDescIdDesc(Integer patId, Pageable pageable) {
+        return historique(patId, note -> true, pageable);
+    }
+
+    @Override
+    public List<Note> findByPatIdAfter(Integer patId, LocalDateTime date, Object id, Pageable pageable) {
+        String dernier = id.toString();
+        return historique(patId, note -> note.getDate() == null
+                || note.getDate().isBefore(date)
+                || (note.getDate().isEqual(date) && note.getId().compareTo(dernier) < 0), pageable);
+    }
+
+    @Override
+    public List<Note> findUndatedByPatIdAfter(Integer patId, Object id, Pageable pageable) {
+        String dernier = id.toString();
+        return historique(patId, note -> note.getDate() == null && note.getId().compareTo(dernier) < 0, pageable);
+    }
+
+    @Override
+    public List<Note> findAllBy(Pageable pageable) {
+        try (Stream<Note> notes = parcourir()) {
+            return paginer(trier(notes, pageable.getSort()), pageable);
+        }
+    }
+
+    @Override
+    public Stream<Note> streamAllBy() {
+        return parcourir();
+    }
+
+    @Override
+    public Stream<Note> streamByDateGreaterThanEqual(LocalDateTime since) {
+        return parcourir().filter(note -> note.getDate() != null && !note.getDate().isBefore(since));
+    }
+
+    @Override
+    public List<Note> findChangedSince(Instant since, Pageable pageable) {
+        return modifications(emplacement -> !emplacement.lastModified().isBefore(since), pageable);
+    }
+
+    @Override
+    public List<Note> findChangedAfter(Instant lastModified, Object id, Pageable pageable) {
+        String dernier = id.toString();
+        return modifications(emplacement -> emplacement.lastModified().isAfter(lastModified)
+                || (emplacement.lastModified().equals(lastModified) && emplacement.id().compareTo(dernier) > 0), pageable);
+    }
+
+    @Override
+    public BulkChunkReport insertUnordered(List<Note> notes) {
+        int inserees = 0;
+        String premiereErreur = null;
+        for (Note note : notes) {
+            if (store.enregistrerNote(note, true)) {
+                inserees++;
+            } else if (premiereErreur == null) {
+                premiereErreur = "Identifiant de note déjà utilisé : " + note.getId();
+            }
+        }
+        return new BulkChunkReport(0, inserees, notes.size() - inserees, premiereErreur);
+    }
+
+    /**
+     * Sans effet : la version d'un historique est la séquence du journal de sa dernière écriture
+     * ({@link MappedNoteStore#version(Integer)}), avancée par l'écriture elle-même.
+     */
+    @Override
+    public void incrementHistoryVersions(Collection<Integer> patIds) {
+    }
+
+    @Override
+    public long findHistoryVersion(Integer patId) {
+        return store.version(patId);
+    }
+
+    /**
+     * Recherche approchée en mémoire : la casse et les accents sont ignorés, et un mot de la note correspond
+     * à un terme lorsqu'ils commencent par les mêmes {@value #LONGUEUR_RACINE} caractères. Un terme préfixé
+     * par {@code -} exclut les notes qui le contiennent ; le score est le nombre de mots correspondants.
+     */
+    @Override
+    public List<NoteSearchHit> search(String termes, Integer patId, Pageable pageable) {
+        List<String> inclus = new ArrayList<>();
+        List<String> exclus = new ArrayList<>();
+        for (String terme : normaliser(termes.replace("\"", " ")).split("\\s+")) {
+            if (terme.startsWith("-") && terme.length() > 1) {
+                exclus.add(racine(terme.substring(1)));
+            } else if (!terme.isBlank()) {
+                inclus.add(racine(terme));
+            }
+        }
+        List<Emplacement> emplacements = patId == null ? store.tous(Genre.NOTE) : store.notesDuPatient(patId);
+        Stream<NoteSearchHit> resultats = emplacements.stream()
+                .map(store::lireNote)
+                .map(note -> {
+                    List<String> racines = note.getNote() == null ? List.of()
+                            : Stream.of(normaliser(note.getNote()).split("[^\\p{L}\\p{N}]+")).map(MappedNoteRepository::racine).toList();
+                    if (racines.stream().anyMatch(exclus::contains)) {
+                        return null;
+                    }
+                    long score = racines.stream().filter(inclus::contains).count();
+                    return score == 0 ? null : new NoteSearchHit(note.getId(), note.getPatId(), note.getPatient(),
+                            note.getNote(), note.getDate(), (float) score);
+                })
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(NoteSearchHit::getScore).reversed());
+        return paginer(resultats, pageable);
+    }
+
+    private List<Note> historique(Integer patId, Predicate<Note> filtre, Pageable pageable) {
+        return paginer(findByPatId(patId).stream().filter(filtre).sorted(ANTECHRONOLOGIQUE), pageable);
+    }
+
+    private List<Note> modifications(Predicate<Emplacement> filtre, Pageable pageable) {
+        return paginer(store.tous(Genre.NOTE).stream()
+                .filter(emplacement -> emplacement.lastModified() != null)
+                .filter(filtre)
+                .sorted(PAR_MODIFICATION), pageable).stream()
+                .map(store::lireNote)
+                .toList();
+    }
+
+    private static String normaliser(String texte) {
+        return Normalizer.normalize(texte, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.FRENCH);
+    }
+
+    private static String racine(String mot) {
+        return mot.length() > LONGUEUR_RACINE ? mot.substring(0, LONGUEUR_RACINE) : mot;
+    }
+}
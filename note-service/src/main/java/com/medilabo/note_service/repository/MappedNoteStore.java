@@ -0,0 +1,820 @@
+package com.medilabo.note_service.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteTombstone;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Stockage des notes dans un journal en ajout seul, réparti en segments de taille fixe projetés en mémoire
+ * ({@link MappedByteBuffer}). Utilisé par le profil {@code mmap}, qui se passe de MongoDB.
+ * <p>
+ * Chaque écriture (note, suppression, trace de suppression) ajoute un enregistrement à la fin du segment actif :
+ * {@code [longueur:int][crc32:int][séquence:long][type:byte][contenu JSON]}. Un enregistrement n'est jamais modifié ;
+ * la séquence, croissante, désigne la version la plus récente de chaque note lors de la relecture.
+ * Au démarrage, les segments sont relus pour reconstruire en mémoire l'index des notes par identifiant et par patient ;
+ * la relecture d'un segment s'arrête au premier enregistrement incomplet ou corrompu (écriture interrompue).
+ * </p>
+ * <p>
+ * Les lectures ne copient pas les données : chaque note est désérialisée directement depuis une tranche
+ * du segment projeté ({@link #contenu(Emplacement)}). Les enregistrements périmés (notes modifiées ou supprimées,
+ * traces expirées) sont éliminés en tâche de fond par compaction des segments scellés, dès que leur part
+ * dépasse {@code medilabo.notes.mmap.compaction-threshold}.
+ * </p>
+ */
+@Component
+@Profile("mmap")
+public class MappedNoteStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedNoteStore.class);
+
+    /** Taille de l'en-tête d'un enregistrement : longueur, crc32, séquence et type. */
+    static final int ENTETE = 4 + 4 + 8 + 1;
+
+    private static final String PREFIXE_SEGMENT = "segment-";
+    private static final String SUFFIXE_SEGMENT = ".log";
+
+    /**
+     * Liste des segments remplacés par une compaction : son écriture sur disque valide la compaction.
+     * Les segments listés sont supprimés ensuite, ou au démarrage si la compaction a été interrompue.
+     */
+    private static final String MANIFESTE_COMPACTION = "compaction.done";
+
+    /** Durée de conservation des traces de suppression, comme l'index d'expiration de MongoDB. */
+    private static final Duration RETENTION_TRACES = Duration.ofDays(30);
+
+    /**
+     * Nature des documents du journal, chacune avec son type d'écriture et son type de suppression.
+     */
+    public enum Genre {
+        NOTE((byte) 1, (byte) 2),
+        TRACE((byte) 3, (byte) 4);
+
+        private final byte ecriture;
+        private final byte suppression;
+
+        Genre(byte ecriture, byte suppression) {
+            this.ecriture = ecriture;
+            this.suppression = suppression;
+        }
+    }
+
+    /**
+     * Position d'un enregistrement dans le journal et clés qui l'indexent.
+     *
+     * @param segment      Le segment contenant l'enregistrement.
+     * @param position     La position de l'en-tête dans le segment.
+     * @param longueur     La longueur totale, en-tête compris.
+     * @param sequence     La séquence de l'écriture.
+     * @param id           L'identifiant du document.
+     * @param patId        L'identifiant du patient.
+     * @param lastModified L'instant de l'écriture.
+     */
+    public record Emplacement(Segment segment, int position, int longueur, long sequence,
+                              String id, Integer patId, Instant lastModified) {
+    }
+
+    /**
+     * Recopie d'un document par une compaction, appliquée à l'index une fois la compaction validée.
+     */
+    private record Deplacement(Genre genre, Emplacement ancien, Emplacement nouveau) {
+    }
+
+    private final Path dossier;
+    private final int tailleSegment;
+    private final boolean synchrone;
+    private final double seuilCompaction;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    /** Sérialise les compactions et la suppression des segments remplacés, sans bloquer lectures et écritures. */
+    private final ReentrantLock verrouCompaction = new ReentrantLock();
+    /** Dernier numéro de segment attribué, aux segments actifs comme aux copies d'une compaction. */
+    private final AtomicInteger numeros = new AtomicInteger();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, Emplacement> notes = new HashMap<>();
+    private final Map<Integer, Map<String, Emplacement>> notesParPatient = new HashMap<>();
+    private final Map<String, Emplacement> traces = new HashMap<>();
+    /** Séquence de la dernière écriture touchant les notes de chaque patient, depuis le démarrage. */
+    private final Map<Integer, Long> versionsParPatient = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService compacteur;
+
+    private Segment actif;
+    private long sequence;
+    /** Séquence la plus élevée du journal au démarrage, version des historiques non modifiés depuis. */
+    private volatile long sequenceInitiale;
+
+    /**
+     * Constructeur ouvrant le journal et reconstruisant l'index à partir des segments existants.
+     *
+     * @param dossier             Le dossier des segments, créé si besoin.
+     * @param tailleSegment       La taille de chaque segment projeté en mémoire.
+     * @param synchrone           {@code true} pour forcer l'écriture sur disque après chaque enregistrement.
+     * @param seuilCompaction     Part d'enregistrements périmés des segments scellés déclenchant une compaction.
+     * @param intervalleCompaction Intervalle entre deux vérifications du besoin de compaction.
+     * @param objectMapper        Le sérialiseur JSON des documents.
+     * @throws IOException En cas d'erreur d'accès aux segments.
+     */
+    public MappedNoteStore(@Value("${medilabo.notes.mmap.directory:./data/notes}") Path dossier,
+                           @Value("${medilabo.notes.mmap.segment-size:64MB}") DataSize tailleSegment,
+                           @Value("${medilabo.notes.mmap.sync:false}") boolean synchrone,
+                           @Value("${medilabo.notes.mmap.compaction-threshold:0.5}") double seuilCompaction,
+                           @Value("${medilabo.notes.mmap.compaction-interval:1m}") Duration intervalleCompaction,
+                           ObjectMapper objectMapper) throws IOException {
+        this.dossier = dossier;
+        this.tailleSegment = Math.toIntExact(tailleSegment.toBytes());
+        this.synchrone = synchrone;
+        this.seuilCompaction = seuilCompaction;
+        this.objectMapper = objectMapper;
+
+        Files.createDirectories(dossier);
+        supprimerSegmentsRemplaces();
+        relire();
+
+        this.compacteur = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "notes-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalle = intervalleCompaction.toMillis();
+        compacteur.scheduleWithFixedDelay(this::compacterSiNecessaire, intervalle, intervalle, TimeUnit.MILLISECONDS);
+    }
+
+    // --- LECTURES ---
+
+    /**
+     * Retourne l'emplacement de la version courante d'un document.
+     *
+     * @param genre La nature du document.
+     * @param id    Son identifiant.
+     * @return      Son emplacement, {@code null} s'il n'existe pas.
+     */
+    public Emplacement emplacement(Genre genre, String id) {
+        verrou.readLock().lock();
+        try {
+            return index(genre).get(id);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les emplacements des notes d'un patient, dans l'ordre de leur première écriture.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Une copie des emplacements, lisibles sans verrou.
+     */
+    public List<Emplacement> notesDuPatient(Integer patId) {
+        verrou.readLock().lock();
+        try {
+            Map<String, Emplacement> parId = notesParPatient.get(patId);
+            return parId == null ? List.of() : new ArrayList<>(parId.values());
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les emplacements de l'ensemble des documents d'une nature.
+     *
+     * @param genre La nature des documents.
+     * @return      Une copie des emplacements, lisibles sans verrou.
+     */
+    public List<Emplacement> tous(Genre genre) {
+        verrou.readLock().lock();
+        try {
+            return new ArrayList<>(index(genre).values());
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compte les documents d'une nature.
+     *
+     * @param genre La nature des documents.
+     * @return      Leur nombre.
+     */
+    public int compter(Genre genre) {
+        verrou.readLock().lock();
+        try {
+            return index(genre).size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne la version de l'historique d'un patient : la séquence de la dernière écriture (ajout, modification,
+     * suppression) touchant l'une de ses notes, ou celle de la dernière écriture du journal au démarrage
+     * si l'historique n'a pas été modifié depuis. La séquence n'étant jamais réutilisée, deux états distincts
+     * d'un même historique ont toujours des versions distinctes, y compris après un redémarrage.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      La version de son historique.
+     */
+    public long version(Integer patId) {
+        return versionsParPatient.getOrDefault(patId, sequenceInitiale);
+    }
+
+    /**
+     * Retourne le contenu JSON d'un enregistrement, sans copie : la tranche désigne directement le segment projeté.
+     * Un enregistrement n'étant jamais réécrit, la tranche reste valable même si une compaction
+     * déplace ensuite le document.
+     *
+     * @param emplacement L'emplacement de l'enregistrement.
+     * @return            Une tranche en lecture seule du segment.
+     */
+    public ByteBuffer contenu(Emplacement emplacement) {
+        return emplacement.segment().zone
+                .slice(emplacement.position() + ENTETE, emplacement.longueur() - ENTETE)
+                .asReadOnlyBuffer();
+    }
+
+    /**
+     * Désérialise une note à partir de son emplacement.
+     *
+     * @param emplacement L'emplacement de la note.
+     * @return            La note.
+     */
+    public Note lireNote(Emplacement emplacement) {
+        return lire(emplacement, Note.class);
+    }
+
+    /**
+     * Désérialise une trace de suppression à partir de son emplacement.
+     *
+     * @param emplacement L'emplacement de la trace.
+     * @return            La trace.
+     */
+    public NoteTombstone lireTrace(Emplacement emplacement) {
+        return lire(emplacement, NoteTombstone.class);
+    }
+
+    // --- ÉCRITURES ---
+
+    /**
+     * Enregistre une note. Une nouvelle note reçoit un identifiant au format ObjectId ;
+     * l'instant de dernière écriture est renseigné dans tous les cas.
+     *
+     * @param note      La note à enregistrer.
+     * @param siAbsente {@code true} pour refuser l'écriture si l'identifiant existe déjà.
+     * @return          {@code false} si la note existait déjà et que {@code siAbsente} est demandé.
+     */
+    public boolean enregistrerNote(Note note, boolean siAbsente) {
+        verrou.writeLock().lock();
+        try {
+            if (note.getId() == null) {
+                note.setId(new ObjectId().toHexString());
+            } else if (siAbsente && notes.containsKey(note.getId())) {
+                return false;
+            }
+            note.setLastModified(Instant.now());
+            ajouter(Genre.NOTE, Genre.NOTE.ecriture, note.getId(), note.getPatId(), note.getLastModified(),
+                    objectMapper.writeValueAsBytes(note));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Enregistre une trace de suppression.
+     *
+     * @param trace La trace.
+     */
+    public void enregistrerTrace(NoteTombstone trace) {
+        verrou.writeLock().lock();
+        try {
+            ajouter(Genre.TRACE, Genre.TRACE.ecriture, trace.getId(), trace.getPatId(), trace.getLastModified(),
+                    objectMapper.writeValueAsBytes(trace));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Supprime un document.
+     *
+     * @param genre La nature du document.
+     * @param id    Son identifiant.
+     */
+    public void supprimer(Genre genre, String id) {
+        verrou.writeLock().lock();
+        try {
+            if (index(genre).containsKey(id)) {
+                ajouter(genre, genre.suppression, id, null, Instant.now(), id.getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // --- COMPACTION ---
+
+    /**
+     * Compacte les segments scellés si leur part d'enregistrements périmés atteint le seuil.
+     */
+    void compacterSiNecessaire() {
+        verrouCompaction.lock();
+        try {
+            supprimerSegmentsRemplaces();
+            long occupes = 0;
+            long perimes = 0;
+            verrou.readLock().lock();
+            try {
+                for (Segment segment : segments.values()) {
+                    if (segment != actif) {
+                        occupes += segment.fin;
+                        perimes += segment.perime;
+                    }
+                }
+            } finally {
+                verrou.readLock().unlock();
+            }
+            if (occupes > 0 && perimes >= seuilCompaction * occupes) {
+                compacter();
+            }
+        } catch (RuntimeException | IOException e) {
+            log.error("Compaction du journal des notes en échec", e);
+        } finally {
+            verrouCompaction.unlock();
+        }
+    }
+
+    /**
+     * Recopie les enregistrements courants des segments scellés dans de nouveaux segments,
+     * puis supprime les segments d'origine. Les suppressions et les traces expirées ne sont pas recopiées.
+     * <p>
+     * Les enregistrements n'étant jamais réécrits, la recopie travaille sur un instantané de l'index relevé
+     * sous le verrou de lecture, puis sans verrou : lectures et écritures se poursuivent pendant la recopie
+     * et la mise sur disque. Le verrou d'écriture n'est pris que pour basculer l'index sur les copies ;
+     * un document modifié ou supprimé pendant la recopie garde sa nouvelle version et sa copie est comptée
+     * comme périmée.
+     * </p>
+     * <p>
+     * Les nouveaux segments puis le manifeste listant les segments remplacés sont forcés sur disque avant que
+     * l'index ne bascule : un arrêt avant le manifeste laisse les segments d'origine intacts (les copies sont relues
+     * comme des doublons de même séquence), un arrêt après est terminé au démarrage. Les segments remplacés ne sont
+     * pas démappés, des lectures sans verrou pouvant encore en tenir une tranche : la projection est libérée par
+     * le ramasse-miettes et, sous Windows, la suppression du fichier est retentée jusqu'à ce qu'elle aboutisse.
+     * </p>
+     *
+     * @return Le nombre d'octets libérés.
+     * @throws IOException En cas d'erreur d'accès aux segments ; le journal reste alors dans son état d'origine.
+     */
+    public long compacter() throws IOException {
+        verrouCompaction.lock();
+        try {
+            List<Segment> scelles = new ArrayList<>();
+            List<Emplacement> notesScellees = new ArrayList<>();
+            List<Emplacement> conservees = new ArrayList<>();
+            List<Emplacement> expirees = new ArrayList<>();
+            verrou.readLock().lock();
+            try {
+                for (Segment segment : segments.values()) {
+                    if (segment != actif) {
+                        scelles.add(segment);
+                    }
+                }
+                Set<Segment> aRemplacer = Set.copyOf(scelles);
+                Instant expiration = Instant.now().minus(RETENTION_TRACES);
+                for (Emplacement note : notes.values()) {
+                    if (aRemplacer.contains(note.segment())) {
+                        notesScellees.add(note);
+                    }
+                }
+                for (Emplacement trace : traces.values()) {
+                    if (aRemplacer.contains(trace.segment())) {
+                        boolean expiree = trace.lastModified() != null && trace.lastModified().isBefore(expiration);
+                        (expiree ? expirees : conservees).add(trace);
+                    }
+                }
+            } finally {
+                verrou.readLock().unlock();
+            }
+            if (scelles.isEmpty()) {
+                return 0;
+            }
+
+            List<Segment> produits = new ArrayList<>();
+            List<Deplacement> deplacements = new ArrayList<>();
+            try {
+                recopier(Genre.NOTE, notesScellees, produits, deplacements);
+                recopier(Genre.TRACE, conservees, produits, deplacements);
+                for (Segment produit : produits) {
+                    produit.zone.force();
+                }
+                synchroniserDossier();
+                ecrireManifeste(scelles.stream().map(segment -> segment.fichier.getFileName().toString()).toList());
+            } catch (IOException | RuntimeException e) {
+                abandonner(produits);
+                throw e;
+            }
+
+            // Compaction validée : l'index et la liste des segments basculent sur les copies.
+            long liberes = 0;
+            verrou.writeLock().lock();
+            try {
+                for (Deplacement deplacement : deplacements) {
+                    basculer(deplacement);
+                }
+                expirees.forEach(trace -> traces.remove(trace.id(), trace));
+                for (Segment segment : scelles) {
+                    liberes += segment.fin;
+                    segments.remove(segment.numero);
+                }
+                for (Segment produit : produits) {
+                    liberes -= produit.fin;
+                    segments.put(produit.numero, produit);
+                }
+            } finally {
+                verrou.writeLock().unlock();
+            }
+            try {
+                supprimerSegmentsRemplaces();
+            } catch (IOException e) {
+                log.warn("Suppression des segments remplacés reportée", e);
+            }
+            log.info("Journal des notes compacté : {} segments remplacés par {}, {} octets libérés",
+                    scelles.size(), produits.size(), liberes);
+            return liberes;
+        } finally {
+            verrouCompaction.unlock();
+        }
+    }
+
+    /**
+     * Arrête la compaction en tâche de fond et force l'écriture du segment actif sur disque.
+     */
+    @Override
+    public void close() {
+        compacteur.shutdownNow();
+        verrou.writeLock().lock();
+        try {
+            actif.zone.force();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // --- JOURNAL ---
+
+    private Map<String, Emplacement> index(Genre genre) {
+        return genre == Genre.NOTE ? notes : traces;
+    }
+
+    private <T> T lire(Emplacement emplacement, Class<T> type) {
+        try {
+            return objectMapper.readValue(new ByteBufferBackedInputStream(contenu(emplacement)), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement à la fin du segment actif et met l'index à jour.
+     * Appelé sous le verrou d'écriture.
+     */
+    private void ajouter(Genre genre, byte type, String id, Integer patId, Instant lastModified, byte[] contenu) {
+        int longueur = ENTETE + contenu.length;
+        if (longueur > tailleSegment) {
+            throw new IllegalArgumentException("Document de " + longueur + " octets, supérieur à la taille d'un segment");
+        }
+        if (actif.fin + longueur > actif.zone.capacity()) {
+            actif = ouvrirSegment(numeros.incrementAndGet());
+        }
+        long seq = ++sequence;
+        int position = actif.fin;
+        MappedByteBuffer zone = actif.zone;
+        zone.putLong(position + 8, seq);
+        zone.put(position + 16, type);
+        zone.put(position + ENTETE, contenu);
+        zone.putInt(position + 4, crc(zone, position, contenu.length));
+        // La longueur est écrite en dernier : un enregistrement interrompu est ignoré à la relecture.
+        zone.putInt(position, contenu.length);
+        if (synchrone) {
+            zone.force(position, longueur);
+        }
+        actif.fin += longueur;
+        Emplacement precedent = genre == Genre.NOTE ? notes.get(id) : null;
+        indexer(genre, type, new Emplacement(actif, position, longueur, seq, id, patId, lastModified), null);
+        if (genre == Genre.NOTE) {
+            avancerVersion(patId, seq);
+            avancerVersion(precedent == null ? null : precedent.patId(), seq);
+        }
+    }
+
+    private void avancerVersion(Integer patId, long seq) {
+        if (patId != null) {
+            versionsParPatient.put(patId, seq);
+        }
+    }
+
+    /**
+     * Applique un enregistrement à l'index : une écriture remplace la version précédente, une suppression la retire.
+     * Une version plus ancienne que celle déjà indexée (relecture) est ignorée et comptée comme périmée.
+     *
+     * @param suppressions Séquence de la dernière suppression de chaque document (relecture uniquement).
+     */
+    private void indexer(Genre genre, byte type, Emplacement emplacement, Map<String, Long> suppressions) {
+        Map<String, Emplacement> index = index(genre);
+        Emplacement courant = index.get(emplacement.id());
+        if (type == genre.suppression) {
+            emplacement.segment().perime += emplacement.longueur();
+            if (suppressions != null) {
+                suppressions.merge(emplacement.id(), emplacement.sequence(), Math::max);
+            }
+            if (courant != null && courant.sequence() < emplacement.sequence()) {
+                retirer(genre, courant);
+            }
+            return;
+        }
+        Long suppression = suppressions == null ? null : suppressions.get(emplacement.id());
+        if ((courant != null && courant.sequence() > emplacement.sequence())
+                || (suppression != null && suppression > emplacement.sequence())) {
+            emplacement.segment().perime += emplacement.longueur();
+            return;
+        }
+        if (courant != null) {
+            retirer(genre, courant);
+        }
+        index.put(emplacement.id(), emplacement);
+        if (genre == Genre.NOTE) {
+            notesParPatient.computeIfAbsent(emplacement.patId(), patId -> new LinkedHashMap<>())
+                    .put(emplacement.id(), emplacement);
+        }
+    }
+
+    private void retirer(Genre genre, Emplacement emplacement) {
+        emplacement.segment().perime += emplacement.longueur();
+        index(genre).remove(emplacement.id());
+        if (genre == Genre.NOTE) {
+            Map<String, Emplacement> parId = notesParPatient.get(emplacement.patId());
+            if (parId != null) {
+                parId.remove(emplacement.id());
+                if (parId.isEmpty()) {
+                    notesParPatient.remove(emplacement.patId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Recopie tels quels (même séquence, même crc) des enregistrements de segments scellés,
+     * dans de nouveaux segments pas encore inscrits au journal. Appelé sans verrou : l'index n'est pas modifié.
+     */
+    private void recopier(Genre genre, Collection<Emplacement> emplacements,
+                          List<Segment> produits, List<Deplacement> deplacements) {
+        for (Emplacement ancien : emplacements) {
+            Segment produit = produits.isEmpty() ? null : produits.get(produits.size() - 1);
+            if (produit == null || produit.fin + ancien.longueur() > produit.zone.capacity()) {
+                produit = projeter(numeros.incrementAndGet());
+                produits.add(produit);
+            }
+            produit.zone.put(produit.fin, ancien.segment().zone, ancien.position(), ancien.longueur());
+            Emplacement nouveau = new Emplacement(produit, produit.fin, ancien.longueur(), ancien.sequence(),
+                    ancien.id(), ancien.patId(), ancien.lastModified());
+            produit.fin += ancien.longueur();
+            deplacements.add(new Deplacement(genre, ancien, nouveau));
+        }
+    }
+
+    /**
+     * Fait désigner à l'index la copie d'un document plutôt que l'enregistrement d'origine, si l'index
+     * désigne toujours celui-ci. Sinon le document a été modifié ou supprimé pendant la recopie :
+     * la nouvelle version l'emporte et la copie est périmée. Appelé sous le verrou d'écriture.
+     */
+    private void basculer(Deplacement deplacement) {
+        Emplacement ancien = deplacement.ancien();
+        Emplacement nouveau = deplacement.nouveau();
+        if (!index(deplacement.genre()).replace(nouveau.id(), ancien, nouveau)) {
+            nouveau.segment().perime += nouveau.longueur();
+            return;
+        }
+        if (deplacement.genre() == Genre.NOTE) {
+            Map<String, Emplacement> parId = notesParPatient.get(nouveau.patId());
+            if (parId != null) {
+                parId.replace(nouveau.id(), ancien, nouveau);
+            }
+        }
+    }
+
+    /**
+     * Écrit la liste des segments remplacés, complétée de ceux qui restent à supprimer, et la force sur disque.
+     */
+    private void ecrireManifeste(List<String> remplaces) throws IOException {
+        Path manifeste = dossier.resolve(MANIFESTE_COMPACTION);
+        Path temporaire = dossier.resolve(MANIFESTE_COMPACTION + ".tmp");
+        List<String> noms = new ArrayList<>(Files.exists(manifeste) ? Files.readAllLines(manifeste) : List.of());
+        noms.addAll(remplaces);
+        byte[] contenu = (String.join("\n", noms) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel canal = FileChannel.open(temporaire,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            canal.write(ByteBuffer.wrap(contenu));
+            canal.force(true);
+        }
+        Files.move(temporaire, manifeste, StandardCopyOption.ATOMIC_MOVE);
+        synchroniserDossier();
+    }
+
+    /**
+     * Supprime les segments listés par le manifeste, puis le manifeste s'ils sont tous supprimés.
+     * Un segment encore projeté en mémoire ne peut pas être supprimé sous Windows : il reste listé
+     * et sa suppression est retentée à la vérification suivante ou au démarrage.
+     */
+    private void supprimerSegmentsRemplaces() throws IOException {
+        Path manifeste = dossier.resolve(MANIFESTE_COMPACTION);
+        if (!Files.exists(manifeste)) {
+            return;
+        }
+        int restants = 0;
+        for (String nom : Files.readAllLines(manifeste)) {
+            try {
+                if (!nom.isBlank()) {
+                    Files.deleteIfExists(dossier.resolve(nom));
+                }
+            } catch (IOException e) {
+                log.debug("Suppression du segment remplacé {} reportée", nom, e);
+                restants++;
+            }
+        }
+        if (restants == 0) {
+            Files.delete(manifeste);
+        }
+    }
+
+    /**
+     * Supprime les segments produits par une compaction abandonnée. Une copie qui ne peut être supprimée
+     * est relue au démarrage comme un doublon de même séquence, sans effet sur l'index.
+     */
+    private void abandonner(List<Segment> produits) {
+        for (Segment produit : produits) {
+            try {
+                Files.deleteIfExists(produit.fichier);
+            } catch (IOException e) {
+                log.warn("Segment {} d'une compaction abandonnée non supprimé", produit.fichier, e);
+            }
+        }
+    }
+
+    /**
+     * Force sur disque les entrées du dossier (création et renommage des fichiers).
+     * Sans objet sous Windows, où un dossier ne peut pas être ouvert.
+     */
+    private void synchroniserDossier() {
+        try (FileChannel canal = FileChannel.open(dossier, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            log.debug("Synchronisation du dossier {} impossible", dossier, e);
+        }
+    }
+
+    /**
+     * Relit l'ensemble des segments pour reconstruire l'index. Le dernier segment devient le segment actif.
+     */
+    private void relire() throws IOException {
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            for (Path fichier : fichiers.toList()) {
+                String nom = fichier.getFileName().toString();
+                if (nom.startsWith(PREFIXE_SEGMENT) && nom.endsWith(SUFFIXE_SEGMENT)) {
+                    int numero = Integer.parseInt(nom.substring(PREFIXE_SEGMENT.length(), nom.length() - SUFFIXE_SEGMENT.length()));
+                    ouvrirSegment(numero);
+                }
+            }
+        }
+        Map<String, Long> suppressions = new HashMap<>();
+        for (Segment segment : segments.values()) {
+            relire(segment, suppressions);
+        }
+        numeros.set(segments.isEmpty() ? 0 : segments.lastKey());
+        sequenceInitiale = sequence;
+        actif = segments.isEmpty() ? ouvrirSegment(numeros.incrementAndGet()) : segments.lastEntry().getValue();
+        log.info("Journal des notes relu : {} segments, {} notes, {} traces de suppression",
+                segments.size(), notes.size(), traces.size());
+    }
+
+    private void relire(Segment segment, Map<String, Long> suppressions) throws IOException {
+        MappedByteBuffer zone = segment.zone;
+        int position = 0;
+        while (position + ENTETE <= zone.capacity()) {
+            int taille = zone.getInt(position);
+            if (taille <= 0 || position + ENTETE + taille > zone.capacity()
+                    || zone.getInt(position + 4) != crc(zone, position, taille)) {
+                break;
+            }
+            long seq = zone.getLong(position + 8);
+            byte type = zone.get(position + 16);
+            Genre genre = type <= Genre.NOTE.suppression ? Genre.NOTE : Genre.TRACE;
+            Emplacement brut = new Emplacement(segment, position, ENTETE + taille, seq, null, null, null);
+            Emplacement emplacement;
+            if (type == genre.suppression) {
+                String id = StandardCharsets.UTF_8.decode(contenu(brut)).toString();
+                emplacement = new Emplacement(segment, position, brut.longueur(), seq, id, null, null);
+            } else if (genre == Genre.NOTE) {
+                Note note = lireNote(brut);
+                emplacement = new Emplacement(segment, position, brut.longueur(), seq, note.getId(), note.getPatId(), note.getLastModified());
+            } else {
+                NoteTombstone trace = lireTrace(brut);
+                emplacement = new Emplacement(segment, position, brut.longueur(), seq, trace.getId(), trace.getPatId(), trace.getLastModified());
+            }
+            indexer(genre, type, emplacement, suppressions);
+            sequence = Math.max(sequence, seq);
+            position += ENTETE + taille;
+        }
+        segment.fin = position;
+    }
+
+    private Segment ouvrirSegment(int numero) {
+        Segment segment = projeter(numero);
+        segments.put(numero, segment);
+        return segment;
+    }
+
+    /**
+     * Projette en mémoire un segment, créé si besoin, sans l'inscrire au journal.
+     */
+    private Segment projeter(int numero) {
+        Path fichier = dossier.resolve(String.format("%s%06d%s", PREFIXE_SEGMENT, numero, SUFFIXE_SEGMENT));
+        try (FileChannel canal = FileChannel.open(fichier,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long taille = Math.max(tailleSegment, canal.size());
+            return new Segment(numero, fichier, canal.map(FileChannel.MapMode.READ_WRITE, 0, taille));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calcule le crc32 de la séquence, du type et du contenu d'un enregistrement.
+     */
+    private static int crc(ByteBuffer zone, int position, int taille) {
+        CRC32 crc = new CRC32();
+        crc.update(zone.slice(position + 8, ENTETE - 8 + taille));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Fichier du journal projeté en mémoire. La projection reste valable après la fermeture du fichier.
+     */
+    public static final class Segment {
+
+        private final int numero;
+        private final Path fichier;
+        private final MappedByteBuffer zone;
+
+        /** Position de fin du dernier enregistrement valide. */
+        private int fin;
+
+        /** Nombre d'octets occupés par des enregistrements périmés. */
+        private int perime;
+
+        private Segment(int numero, Path fichier, MappedByteBuffer zone) {
+            this.numero = numero;
+            this.fichier = fichier;
+            this.zone = zone;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.NoteTombstone;
+import com.medilabo.note_service.repository.MappedNoteStore.Emplacement;
+import com.medilabo.note_service.repository.MappedNoteStore.Genre;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation du dépôt des traces de suppression sur le journal projeté en mémoire ({@link MappedNoteStore}),
+ * active avec le profil {@code mmap}. Les traces de plus de 30 jours sont éliminées à la compaction du journal.
+ */
+@Repository
+@Profile("mmap")
+public class MappedNoteTombstoneRepository extends MappedRepositorySupport<NoteTombstone> implements NoteTombstoneRepository {
+
+    private static final Comparator<Emplacement> PAR_MODIFICATION = Comparator
+            .comparing(Emplacement::lastModified)
+            .thenComparing(Emplacement::id);
+
+    private final MappedNoteStore store;
+
+    /**
+     * Constructeur injectant le journal des notes.
+     *
+     * @param store Le journal projeté en mémoire.
+     */
+    public MappedNoteTombstoneRepository(MappedNoteStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected String identifiant(NoteTombstone trace) {
+        return trace.getId();
+    }
+
+    @Override
+    protected Stream<NoteTombstone> parcourir() {
+        return store.tous(Genre.TRACE).stream().map(store::lireTrace);
+    }
+
+    @Override
+    public <S extends NoteTombstone> S save(S trace) {
+        store.enregistrerTrace(trace);
+        return trace;
+    }
+
+    @Override
+    public <S extends NoteTombstone> S insert(S trace) {
+        return save(trace);
+    }
+
+    @Override
+    public Optional<NoteTombstone> findById(String id) {
+        return Optional.ofNullable(store.emplacement(Genre.TRACE, id)).map(store::lireTrace);
+    }
+
+    @Override
+    public long count() {
+        return store.compter(Genre.TRACE);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.supprimer(Genre.TRACE, id);
+    }
+
+    @Override
+    public List<NoteTombstone> findChangedSince(Instant since, Pageable pageable) {
+        return modifications(emplacement -> !emplacement.lastModified().isBefore(since), pageable);
+    }
+
+    @Override
+    public List<NoteTombstone> findChangedAfter(Instant lastModified, Object id, Pageable pageable) {
+        String dernier = id.toString();
+        return modifications(emplacement -> emplacement.lastModified().isAfter(lastModified)
+                || (emplacement.lastModified().equals(lastModified) && emplacement.id().compareTo(dernier) > 0), pageable);
+    }
+
+    private List<NoteTombstone> modifications(Predicate<Emplacement> filtre, Pageable pageable) {
+        return paginer(store.tous(Genre.TRACE).stream()
+                .filter(emplacement -> emplacement.lastModified() != null)
+                .filter(filtre)
+                .sorted(PAR_MODIFICATION), pageable).stream()
+                .map(store::lireTrace)
+                .toList();
+    }
+}
@@ -0,0 +1,464 @@
+package com.medilabo.note_service.repository;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Socle des dépôts adossés au journal projeté en mémoire ({@link MappedNoteStore}, profil {@code mmap}).
+ * <p>
+ * Les opérations génériques de {@link MongoRepository} sont ramenées à quelques primitives (lecture, écriture,
+ * suppression par identifiant) ; les tris, la pagination et les requêtes par l'exemple sont appliqués en mémoire
+ * sur le parcours de l'ensemble des documents.
+ * </p>
+ *
+ * @param <T> Le type des documents.
+ */
+abstract class MappedRepositorySupport<T> implements MongoRepository<T, String> {
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    /**
+     * @param document Un document.
+     * @return         Son identifiant.
+     */
+    protected abstract String identifiant(T document);
+
+    /**
+     * @return Le flux de l'ensemble des documents, désérialisés au fil de la consommation.
+     */
+    protected abstract Stream<T> parcourir();
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> documents) {
+        List<S> enregistres = new ArrayList<>();
+        documents.forEach(document -> enregistres.add(save(document)));
+        return enregistres;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> documents) {
+        List<S> inseres = new ArrayList<>();
+        documents.forEach(document -> inseres.add(insert(document)));
+        return inseres;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<T> findAll() {
+        try (Stream<T> documents = parcourir()) {
+            return documents.toList();
+        }
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        List<T> documents = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(documents::add));
+        return documents;
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        try (Stream<T> documents = parcourir()) {
+            return trier(documents, sort).toList();
+        }
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> tous = findAll(pageable.getSort());
+        return new PageImpl<>(paginer(tous.stream(), pageable), pageable, tous.size());
+    }
+
+    @Override
+    public void delete(T document) {
+        deleteById(identifiant(document));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> documents) {
+        documents.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAll().forEach(this::delete);
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::one);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::all);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return findBy(example, requete -> requete.sortBy(sort).all());
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return findBy(example, requete -> requete.page(pageable));
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::count);
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::exists);
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        Supplier<Stream<S>> documents = () -> parcourir()
+                .filter(example.getProbeType()::isInstance)
+                .map(example.getProbeType()::cast)
+                .filter(document -> correspond(document, example));
+        return queryFunction.apply(new RequeteFluide<>(documents, Sort.unsorted(), Long.MAX_VALUE, Function.identity()));
+    }
+
+    /**
+     * Vérifie qu'un document correspond à un exemple, comme une requête par l'exemple de MongoDB :
+     * chaque propriété renseignée de l'exemple (ou toutes, si les valeurs absentes sont incluses)
+     * est comparée à celle du document, les chaînes selon le mode de comparaison et la casse demandés.
+     * Seules les propriétés de premier niveau sont comparées ; une propriété composée l'est par égalité.
+     *
+     * @param document Le document.
+     * @param example  L'exemple.
+     * @return         {@code true} si toutes les propriétés (ou l'une d'elles, selon l'exemple) correspondent.
+     */
+    static boolean correspond(Object document, Example<?> example) {
+        ExampleMatcherAccessor regles = new ExampleMatcherAccessor(example.getMatcher());
+        BeanWrapperImpl sonde = new BeanWrapperImpl(example.getProbe());
+        BeanWrapperImpl cible = new BeanWrapperImpl(document);
+        boolean toutes = example.getMatcher().isAllMatching();
+        boolean criteres = false;
+        for (PropertyDescriptor propriete : sonde.getPropertyDescriptors()) {
+            String nom = propriete.getName();
+            if (propriete.getReadMethod() == null || "class".equals(nom) || regles.isIgnoredPath(nom)) {
+                continue;
+            }
+            Object attendu = regles.getValueTransformerForPath(nom)
+                    .apply(Optional.ofNullable(sonde.getPropertyValue(nom))).orElse(null);
+            if (attendu == null && regles.getNullHandler() == ExampleMatcher.NullHandler.IGNORE) {
+                continue;
+            }
+            criteres = true;
+            boolean egale = egale(attendu, cible.getPropertyValue(nom),
+                    regles.getStringMatcherForPath(nom), regles.isIgnoreCaseForPath(nom));
+            if (egale != toutes) {
+                return egale;
+            }
+        }
+        return toutes || !criteres;
+    }
+
+    private static boolean egale(Object attendu, Object valeur, ExampleMatcher.StringMatcher mode, boolean sansCasse) {
+        if (attendu == null || valeur == null) {
+            return attendu == valeur;
+        }
+        if (!(attendu instanceof String motif) || !(valeur instanceof String texte)) {
+            return attendu.equals(valeur);
+        }
+        if (mode == ExampleMatcher.StringMatcher.REGEX) {
+            int options = sansCasse ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+            return Pattern.compile(motif, options).matcher(texte).find();
+        }
+        if (sansCasse) {
+            motif = motif.toLowerCase(Locale.ROOT);
+            texte = texte.toLowerCase(Locale.ROOT);
+        }
+        return switch (mode) {
+            case STARTING -> texte.startsWith(motif);
+            case ENDING -> texte.endsWith(motif);
+            case CONTAINING -> texte.contains(motif);
+            default -> texte.equals(motif);
+        };
+    }
+
+    /**
+     * Trie des documents selon les propriétés d'un {@link Sort}, les valeurs absentes en premier
+     * (ordre de MongoDB).
+     *
+     * @param documents Les documents.
+     * @param sort      Le tri demandé.
+     * @return          Les documents triés.
+     */
+    protected static <T> Stream<T> trier(Stream<T> documents, Sort sort) {
+        Comparator<T> ordre = null;
+        for (Sort.Order critere : sort) {
+            Comparator<T> parPropriete = Comparator.comparing(
+                    document -> valeur(document, critere.getProperty()), Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (critere.isDescending()) {
+                parPropriete = parPropriete.reversed();
+            }
+            ordre = ordre == null ? parPropriete : ordre.thenComparing(parPropriete);
+        }
+        return ordre == null ? documents : documents.sorted(ordre);
+    }
+
+    /**
+     * Applique le décalage et la taille d'une page.
+     *
+     * @param documents Les documents, déjà triés.
+     * @param pageable  La page demandée.
+     * @return          Les documents de la page.
+     */
+    protected static <T> List<T> paginer(Stream<T> documents, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return documents.toList();
+        }
+        return documents.skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> valeur(Object document, String propriete) {
+        return (Comparable<Object>) new BeanWrapperImpl(document).getPropertyValue(propriete);
+    }
+
+    /**
+     * Compare un document à la position d'un défilement par clés, selon l'ordre d'un tri.
+     *
+     * @return Un entier négatif, nul ou positif selon que le document précède, occupe ou suit la position.
+     */
+    private static int comparerAuxCles(Object document, Map<String, Object> cles, Sort sort) {
+        Comparator<Comparable<Object>> naturel = Comparator.nullsFirst(Comparator.naturalOrder());
+        for (Sort.Order critere : sort) {
+            @SuppressWarnings("unchecked")
+            Comparable<Object> cle = (Comparable<Object>) cles.get(critere.getProperty());
+            int comparaison = naturel.compare(valeur(document, critere.getProperty()), cle);
+            if (comparaison != 0) {
+                return critere.isDescending() ? -comparaison : comparaison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Convertit un document dans le type de résultat demandé : le type lui-même ou l'un de ses parents,
+     * une interface de projection, un record construit à partir de ses composants,
+     * ou une classe à constructeur sans argument dont les propriétés homonymes sont recopiées.
+     */
+    private static <R> R convertir(Object document, Class<R> type) {
+        if (type.isInstance(document)) {
+            return type.cast(document);
+        }
+        if (type.isInterface()) {
+            return PROJECTIONS.createProjection(type, document);
+        }
+        if (type.isRecord()) {
+            BeanWrapperImpl source = new BeanWrapperImpl(document);
+            RecordComponent[] composants = type.getRecordComponents();
+            Class<?>[] types = new Class<?>[composants.length];
+            Object[] valeurs = new Object[composants.length];
+            for (int i = 0; i < composants.length; i++) {
+                types[i] = composants[i].getType();
+                valeurs[i] = source.isReadableProperty(composants[i].getName())
+                        ? source.getPropertyValue(composants[i].getName()) : null;
+            }
+            return BeanUtils.instantiateClass(ClassUtils.getConstructorIfAvailable(type, types), valeurs);
+        }
+        R resultat = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(document, resultat);
+        return resultat;
+    }
+
+    /**
+     * Requête fluide en mémoire sur les documents correspondant à un exemple.
+     * Le tri et la limite s'appliquent aux documents, avant leur conversion dans le type de résultat.
+     * La liste des propriétés à charger ({@link #project(Collection)}) est sans effet : les documents
+     * sont toujours lus entièrement dans le journal.
+     *
+     * @param <S> Le type des documents.
+     * @param <R> Le type des résultats.
+     */
+    private static final class RequeteFluide<S, R> implements FluentQuery.FetchableFluentQuery<R> {
+
+        private final Supplier<Stream<S>> documents;
+        private final Sort tri;
+        private final long limite;
+        private final Function<S, R> conversion;
+
+        private RequeteFluide(Supplier<Stream<S>> documents, Sort tri, long limite, Function<S, R> conversion) {
+            this.documents = documents;
+            this.tri = tri;
+            this.limite = limite;
+            this.conversion = conversion;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> sortBy(Sort sort) {
+            return new RequeteFluide<>(documents, tri.and(sort), limite, conversion);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> limit(int limit) {
+            Assert.isTrue(limit >= 0, "La limite ne peut pas être négative");
+            return new RequeteFluide<>(documents, tri, limit, conversion);
+        }
+
+        @Override
+        public <N> FluentQuery.FetchableFluentQuery<N> as(Class<N> resultType) {
+            return new RequeteFluide<>(documents, tri, limite, document -> convertir(document, resultType));
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public R oneValue() {
+            List<R> resultats;
+            try (Stream<R> lus = lire(tri).limit(2)) {
+                resultats = lus.toList();
+            }
+            if (resultats.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1);
+            }
+            return resultats.isEmpty() ? null : resultats.get(0);
+        }
+
+        @Override
+        public R firstValue() {
+            try (Stream<R> lus = lire(tri)) {
+                return lus.findFirst().orElse(null);
+            }
+        }
+
+        @Override
+        public List<R> all() {
+            try (Stream<R> lus = lire(tri)) {
+                return lus.toList();
+            }
+        }
+
+        @Override
+        public Window<R> scroll(ScrollPosition position) {
+            if (position instanceof OffsetScrollPosition decalage) {
+                long debut = decalage.isInitial() ? 0 : decalage.getOffset();
+                List<R> resultats;
+                try (Stream<S> lus = trier(documents.get(), tri)) {
+                    resultats = lus.skip(debut).limit(suivant(limite)).map(conversion).toList();
+                }
+                return fenetre(resultats, OffsetScrollPosition.positionFunction(debut)::apply);
+            }
+            KeysetScrollPosition cles = (KeysetScrollPosition) position;
+            Sort ordre = tri.getOrderFor("id") == null ? tri.and(Sort.by("id")) : tri;
+            List<S> retenus;
+            try (Stream<S> lus = trier(documents.get(), cles.scrollsForward() ? ordre : ordre.reverse())) {
+                retenus = lus
+                        .filter(document -> cles.isInitial() || (cles.scrollsForward()
+                                ? comparerAuxCles(document, cles.getKeys(), ordre) > 0
+                                : comparerAuxCles(document, cles.getKeys(), ordre) < 0))
+                        .limit(suivant(limite))
+                        .toList();
+            }
+            List<S> page = new ArrayList<>(retenus.subList(0, (int) Math.min(retenus.size(), limite)));
+            if (cles.scrollsBackward()) {
+                Collections.reverse(page);
+            }
+            IntFunction<ScrollPosition> positions = i -> {
+                Map<String, Object> valeurs = new LinkedHashMap<>();
+                ordre.forEach(critere -> valeurs.put(critere.getProperty(), valeur(page.get(i), critere.getProperty())));
+                return cles.scrollsForward() ? ScrollPosition.forward(valeurs) : ScrollPosition.backward(valeurs);
+            };
+            return Window.from(page.stream().map(conversion).toList(), positions, retenus.size() > page.size());
+        }
+
+        @Override
+        public Page<R> page(Pageable pageable) {
+            List<R> tous;
+            try (Stream<R> lus = lire(tri.and(pageable.getSort()))) {
+                tous = lus.toList();
+            }
+            return new PageImpl<>(paginer(tous.stream(), pageable), pageable, tous.size());
+        }
+
+        @Override
+        public Stream<R> stream() {
+            return lire(tri);
+        }
+
+        @Override
+        public long count() {
+            try (Stream<R> lus = lire(tri)) {
+                return lus.count();
+            }
+        }
+
+        @Override
+        public boolean exists() {
+            try (Stream<R> lus = lire(tri)) {
+                return lus.findAny().isPresent();
+            }
+        }
+
+        private Stream<R> lire(Sort sort) {
+            return trier(documents.get(), sort).limit(limite).map(conversion);
+        }
+
+        /**
+         * Retient un élément de plus que la page pour savoir si une page suit.
+         */
+        private static long suivant(long limite) {
+            return limite == Long.MAX_VALUE ? limite : limite + 1;
+        }
+
+        private Window<R> fenetre(List<R> resultats, IntFunction<ScrollPosition> positions) {
+            List<R> page = resultats.subList(0, (int) Math.min(resultats.size(), limite));
+            return Window.from(page, positions, resultats.size() > page.size());
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteBucket;
+import com.medilabo.note_service.model.NoteText;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Disposition des notes par paquets : chaque patient dispose d'un ou plusieurs documents
+ * {@link NoteBucket} regroupant au plus {@code medilabo.notes.bucket.max-size} notes.
+ * <p>
+ * La collection {@code notes} reste la référence (index, recherche, flux des modifications) ;
+ * les paquets en sont une copie tenue à jour à chaque écriture par les événements de Spring Data
+ * et servent les lectures de l'historique d'un ou plusieurs patients. En cas de divergence
+ * (écriture groupée partiellement en échec par exemple), {@link #rebuild()} reconstruit
+ * les paquets à partir de la collection de référence. Les lectures et écritures de paquets de l'instance
+ * attendent la fin d'une reconstruction en cours ; un paquet vidé de ses notes est supprimé.
+ * </p>
+ */
+@Repository
+@ConditionalOnProperty(name = "medilabo.notes.storage", havingValue = "bucket")
+public class NoteBucketStore extends AbstractMongoEventListener<Note> {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteBucketStore.class);
+
+    /** Nombre de paquets écrits ensemble lors d'une reconstruction. */
+    private static final int PAQUETS_PAR_ECRITURE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final int tailleMax;
+
+    /** Exclusif pendant une reconstruction, partagé par les lectures et écritures de paquets. */
+    private final ReadWriteLock reconstruction = new ReentrantReadWriteLock();
+
+    /**
+     * Constructeur injectant le template MongoDB et la taille maximale des paquets.
+     *
+     * @param mongoTemplate Le template utilisé pour lire et écrire les paquets.
+     * @param tailleMax     Le nombre maximal de notes par paquet.
+     */
+    public NoteBucketStore(MongoTemplate mongoTemplate,
+                           @Value("${medilabo.notes.bucket.max-size:100}") int tailleMax) {
+        this.mongoTemplate = mongoTemplate;
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * Lit l'historique complet d'un patient.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Ses notes.
+     */
+    public List<Note> findByPatId(Integer patId) {
+        return findByPatIdIn(List.of(patId));
+    }
+
+    /**
+     * Lit l'historique de plusieurs patients.
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       Les notes de l'ensemble de ces patients.
+     */
+    public List<Note> findByPatIdIn(Collection<Integer> patIds) {
+        return partage(() -> {
+            List<Note> notes = new ArrayList<>();
+            for (NoteBucket paquet : mongoTemplate.find(parPatients(patIds), NoteBucket.class)) {
+                paquet.getNotes().forEach(entree -> notes.add(entree.toNote(paquet.getPatId())));
+            }
+            return notes;
+        });
+    }
+
+    /**
+     * Lit le texte seul des notes d'un patient.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Le texte de chacune de ses notes.
+     */
+    public List<NoteText> findTextByPatId(Integer patId) {
+        return findTextByPatIdIn(List.of(patId), false);
+    }
+
+    /**
+     * Lit le texte seul des notes de plusieurs patients.
+     *
+     * @param patIds       Les identifiants des patients.
+     * @param avecPatients {@code true} pour renseigner l'identifiant du patient de chaque note.
+     * @return             Le texte de chaque note.
+     */
+    public List<NoteText> findTextByPatIdIn(Collection<Integer> patIds, boolean avecPatients) {
+        Query query = parPatients(patIds);
+        query.fields().include("patId").include("notes.note");
+        return partage(() -> {
+            List<NoteText> textes = new ArrayList<>();
+            for (NoteBucket paquet : mongoTemplate.find(query, NoteBucket.class)) {
+                Integer patId = avecPatients ? paquet.getPatId() : null;
+                paquet.getNotes().forEach(entree -> textes.add(new NoteText(patId, entree.getNote())));
+            }
+            return textes;
+        });
+    }
+
+    /**
+     * Range une note dans le dernier paquet non plein de son patient, ou dans un nouveau paquet.
+     * Une version précédente de la note est d'abord retirée de son paquet (mise à jour, changement de patient).
+     *
+     * @param note La note écrite dans la collection de référence.
+     */
+    public void add(Note note) {
+        partage(() -> {
+            retirer(note.getId());
+            if (note.getPatId() != null) {
+                Query nonPlein = new Query(where("patId").is(note.getPatId()).and("count").lt(tailleMax));
+                Update ajout = new Update().push("notes", NoteBucket.Entry.of(note)).inc("count", 1);
+                mongoTemplate.upsert(nonPlein, ajout, NoteBucket.class);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Retire une note de son paquet, supprimé s'il ne contient plus aucune note.
+     *
+     * @param noteId L'identifiant de la note.
+     */
+    public void remove(String noteId) {
+        partage(() -> {
+            retirer(noteId);
+            return null;
+        });
+    }
+
+    /**
+     * Indique si les paquets sont à reconstruire : la collection {@code notes} contient des notes
+     * mais aucun paquet n'existe (première activation de la disposition par paquets).
+     *
+     * @return {@code true} si aucun paquet ne correspond aux notes existantes.
+     */
+    public boolean needsRebuild() {
+        return !mongoTemplate.exists(new Query(), NoteBucket.class) && mongoTemplate.exists(new Query(), Note.class);
+    }
+
+    /**
+     * Reconstruit l'ensemble des paquets à partir de la collection {@code notes}.
+     * Les notes sont parcourues patient par patient au moyen d'un curseur : seul le paquet
+     * en cours de constitution et le lot de paquets à écrire sont gardés en mémoire.
+     *
+     * @return Le nombre de notes rangées.
+     */
+    public long rebuild() {
+        reconstruction.writeLock().lock();
+        try {
+            return reconstruire();
+        } finally {
+            reconstruction.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tient les paquets à jour après chaque insertion ou mise à jour d'une note.
+     *
+     * @param event L'événement d'écriture.
+     */
+    @Override
+    public void onAfterSave(AfterSaveEvent<Note> event) {
+        add(event.getSource());
+    }
+
+    /**
+     * Tient les paquets à jour après chaque suppression d'une note.
+     *
+     * @param event L'événement de suppression, portant le filtre utilisé.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Note> event) {
+        Document filtre = event.getSource();
+        if (filtre.containsKey("_id")) {
+            remove(filtre.get("_id").toString());
+        } else if (filtre.isEmpty()) {
+            partage(() -> mongoTemplate.remove(new Query(), NoteBucket.class));
+        } else {
+            log.warn("Suppression de notes par filtre {} : paquets à reconstruire", filtre.toJson());
+        }
+    }
+
+    private static Query parPatients(Collection<Integer> patIds) {
+        return new Query(where("patId").in(patIds));
+    }
+
+    /**
+     * Exécute une lecture ou une écriture de paquets, après la fin d'une éventuelle reconstruction.
+     *
+     * @param operation L'opération à exécuter.
+     * @return          Son résultat.
+     */
+    private <T> T partage(Supplier<T> operation) {
+        reconstruction.readLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            reconstruction.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retire une note de son paquet puis supprime ce paquet s'il est vide. La suppression n'a lieu que
+     * si le paquet est toujours vide : une note ajoutée entre-temps le conserve.
+     *
+     * @param noteId L'identifiant de la note.
+     */
+    private void retirer(String noteId) {
+        if (noteId == null) {
+            return;
+        }
+        Query contenant = new Query(where("notes.noteId").is(noteId));
+        contenant.fields().include("count");
+        Update retrait = new Update().pull("notes", new Document("noteId", noteId)).inc("count", -1);
+        NoteBucket paquet = mongoTemplate.findAndModify(contenant, retrait,
+                FindAndModifyOptions.options().returnNew(true), NoteBucket.class);
+        if (paquet != null && paquet.getCount() <= 0) {
+            mongoTemplate.remove(new Query(where("_id").is(paquet.getId()).and("count").lte(0)), NoteBucket.class);
+        }
+    }
+
+    /**
+     * Remplace l'ensemble des paquets ; appelée sous le verrou exclusif.
+     *
+     * @return Le nombre de notes rangées.
+     */
+    private long reconstruire() {
+        mongoTemplate.remove(new Query(), NoteBucket.class);
+
+        Query toutes = new Query().with(Sort.by("patId", "date"));
+        List<NoteBucket> aEcrire = new ArrayList<>(PAQUETS_PAR_ECRITURE);
+        long rangees = 0;
+        NoteBucket courant = null;
+        try (Stream<Note> notes = mongoTemplate.stream(toutes, Note.class)) {
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                if (note.getPatId() == null) {
+                    continue;
+                }
+                if (courant == null || !courant.getPatId().equals(note.getPatId()) || courant.getCount() == tailleMax) {
+                    courant = new NoteBucket(null, note.getPatId(), 0, new ArrayList<>());
+                    aEcrire.add(courant);
+                    if (aEcrire.size() > PAQUETS_PAR_ECRITURE) {
+                        ecrire(aEcrire.subList(0, PAQUETS_PAR_ECRITURE));
+                    }
+                }
+                courant.getNotes().add(NoteBucket.Entry.of(note));
+                courant.setCount(courant.getCount() + 1);
+                rangees++;
+            }
+        }
+        ecrire(aEcrire);
+        log.info("Paquets de notes reconstruits : {} notes rangées", rangees);
+        return rangees;
+    }
+
+    /**
+     * Insère un lot de paquets complets puis vide la liste.
+     *
+     * @param paquets Les paquets à insérer.
+     */
+    private void ecrire(List<NoteBucket> paquets) {
+        if (!paquets.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NoteBucket.class).insert(paquets).execute();
+            paquets.clear();
+        }
+    }
+}
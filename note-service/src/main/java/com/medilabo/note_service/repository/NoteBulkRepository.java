@@ -0,0 +1,22 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.BulkChunkReport;
+import com.medilabo.note_service.model.Note;
+
+import java.util.List;
+
+/**
+ * Fragment du dépôt des notes dédié aux écritures en masse.
+ * Son implémentation ({@link NoteBulkRepositoryImpl}) est associée à {@link NoteRepository} par Spring Data.
+ */
+public interface NoteBulkRepository {
+
+    /**
+     * Insère un paquet de notes en une seule écriture groupée non ordonnée :
+     * l'échec d'une note (identifiant en double par exemple) n'empêche pas l'insertion des autres.
+     *
+     * @param notes Les notes à insérer.
+     * @return      Le nombre de notes insérées et en échec, et le rang des notes dont l'insertion peut être retentée.
+     */
+    BulkChunkReport insertUnordered(List<Note> notes);
+}
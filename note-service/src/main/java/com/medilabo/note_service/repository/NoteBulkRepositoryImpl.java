@@ -0,0 +1,49 @@
+package com.medilabo.note_service.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.medilabo.note_service.model.BulkChunkReport;
+import com.medilabo.note_service.model.Note;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * Implémentation des écritures en masse, au moyen des opérations groupées de MongoDB.
+ */
+public class NoteBulkRepositoryImpl implements NoteBulkRepository {
+
+    /** Code d'erreur MongoDB d'un identifiant déjà utilisé. */
+    private static final int CLE_EN_DOUBLE = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructeur injectant le template MongoDB.
+     *
+     * @param mongoTemplate Le template utilisé pour les opérations groupées.
+     */
+    public NoteBulkRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public BulkChunkReport insertUnordered(List<Note> notes) {
+        try {
+            int inserees = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class)
+                    .insert(notes)
+                    .execute()
+                    .getInsertedCount();
+            return new BulkChunkReport(0, inserees, notes.size() - inserees, null);
+        } catch (BulkOperationException e) {
+            List<BulkWriteError> erreurs = e.getErrors();
+            String premiereErreur = erreurs.isEmpty() ? e.getMessage() : erreurs.get(0).getMessage();
+            List<Integer> aRetenter = erreurs.stream()
+                    .filter(erreur -> erreur.getCode() != CLE_EN_DOUBLE)
+                    .map(BulkWriteError::getIndex)
+                    .toList();
+            return new BulkChunkReport(0, e.getResult().getInsertedCount(), erreurs.size(), premiereErreur, aRetenter);
+        }
+    }
+}
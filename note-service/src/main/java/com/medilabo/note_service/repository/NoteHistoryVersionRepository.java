@@ -0,0 +1,26 @@
+package com.medilabo.note_service.repository;
+
+import java.util.Collection;
+
+/**
+ * Fragment du dépôt des notes dédié aux versions des historiques des patients.
+ * Son implémentation ({@link NoteHistoryVersionRepositoryImpl}) est associée à {@link NoteRepository} par Spring Data.
+ */
+public interface NoteHistoryVersionRepository {
+
+    /**
+     * Incrémente la version de l'historique de plusieurs patients, en une seule écriture groupée.
+     * Appelé après chaque écriture de notes ; les identifiants {@code null} sont ignorés.
+     *
+     * @param patIds Les identifiants des patients dont des notes ont été écrites.
+     */
+    void incrementHistoryVersions(Collection<Integer> patIds);
+
+    /**
+     * Retourne la version de l'historique d'un patient.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Sa version, 0 si ses notes n'ont jamais été écrites.
+     */
+    long findHistoryVersion(Integer patId);
+}
@@ -0,0 +1,50 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.NoteHistoryVersion;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implémentation des versions des historiques, tenues dans la collection {@code note_history_versions}.
+ */
+public class NoteHistoryVersionRepositoryImpl implements NoteHistoryVersionRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructeur injectant le template MongoDB.
+     *
+     * @param mongoTemplate Le template utilisé pour lire et incrémenter les versions.
+     */
+    public NoteHistoryVersionRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void incrementHistoryVersions(Collection<Integer> patIds) {
+        List<Integer> patients = patIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (patients.isEmpty()) {
+            return;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NoteHistoryVersion.class);
+        patients.forEach(patId -> operations.upsert(parPatient(patId), new Update().inc("version", 1)));
+        operations.execute();
+    }
+
+    @Override
+    public long findHistoryVersion(Integer patId) {
+        NoteHistoryVersion version = mongoTemplate.findOne(parPatient(patId), NoteHistoryVersion.class);
+        return version == null ? 0L : version.getVersion();
+    }
+
+    private static Query parPatient(Integer patId) {
+        return Query.query(Criteria.where("_id").is(patId));
+    }
+}
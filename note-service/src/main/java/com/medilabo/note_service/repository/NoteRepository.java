@@ -1,10 +1,18 @@
 package com.medilabo.note_service.repository;
 
 import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteText;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface Repository pour l'accès aux données des notes médicales.
@@ -15,7 +23,8 @@ import java.util.List;
  * </p>
  */
 @Repository
-public interface NoteRepository extends MongoRepository<Note, String> {
+public interface NoteRepository extends MongoRepository<Note, String>, NoteBulkRepository, NoteSearchRepository,
+        NoteHistoryVersionRepository {
 
     /**
      * Recherche l'historique complet des notes pour un patient spécifique.
@@ -26,4 +35,112 @@ public interface NoteRepository extends MongoRepository<Note, String> {
      * @return      Une liste d'objets Note.
      */
     List<Note> findByPatId(Integer patId);
-}
\ No newline at end of file
+
+    /**
+     * Recherche les notes de plusieurs patients en une seule requête ({@code $in}).
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       Les notes de l'ensemble de ces patients.
+     */
+    List<Note> findByPatIdIn(Collection<Integer> patIds);
+
+    /**
+     * Recherche le texte des notes d'un patient, sans les autres champs du document.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Le texte de chacune de ses notes.
+     */
+    @Query(value = "{ 'patId': ?0 }", fields = "{ 'note': 1, '_id': 0 }")
+    List<NoteText> findTextByPatId(Integer patId);
+
+    /**
+     * Recherche le texte des notes de plusieurs patients en une seule requête.
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       Le texte de chaque note, accompagné de l'identifiant de son patient.
+     */
+    @Query(value = "{ 'patId': { '$in': ?0 } }", fields = "{ 'patId': 1, 'note': 1, '_id': 0 }")
+    List<NoteText> findTextByPatIdIn(Collection<Integer> patIds);
+
+    /**
+     * Retourne les notes les plus récentes d'un patient (première page de l'historique).
+     *
+     * @param patId    L'identifiant du patient.
+     * @param pageable La taille de la page.
+     * @return         Les notes, de la plus récente à la plus ancienne.
+     */
+    List<Note> findByPatIdOrderByDateDescIdDesc(Integer patId, Pageable pageable);
+
+    /**
+     * Retourne les notes d'un patient qui suivent, dans l'ordre antéchronologique,
+     * une note datée (pagination sur clé). Les notes sans date sont placées en fin d'historique.
+     *
+     * @param patId    L'identifiant du patient.
+     * @param date     La date de la dernière note de la page précédente.
+     * @param id       L'identifiant de cette note, qui départage les notes de même date.
+     * @param pageable La taille de la page.
+     * @return         Les notes suivantes, de la plus récente à la plus ancienne.
+     */
+    @Query(value = "{ 'patId': ?0, '$or': [ { 'date': { '$lt': ?1 } }, { 'date': ?1, '_id': { '$lt': ?2 } }, { 'date': null } ] }",
+            sort = "{ 'date': -1, '_id': -1 }")
+    List<Note> findByPatIdAfter(Integer patId, LocalDateTime date, Object id, Pageable pageable);
+
+    /**
+     * Retourne les notes sans date d'un patient qui suivent une note elle-même sans date.
+     *
+     * @param patId    L'identifiant du patient.
+     * @param id       L'identifiant de la dernière note de la page précédente.
+     * @param pageable La taille de la page.
+     * @return         Les notes suivantes.
+     */
+    @Query(value = "{ 'patId': ?0, 'date': null, '_id': { '$lt': ?1 } }", sort = "{ '_id': -1 }")
+    List<Note> findUndatedByPatIdAfter(Integer patId, Object id, Pageable pageable);
+
+    /**
+     * Retourne une page de l'ensemble des notes, sans compter le nombre total de documents.
+     *
+     * @param pageable La page demandée et son tri.
+     * @return         Les notes de la page.
+     */
+    List<Note> findAllBy(Pageable pageable);
+
+    /**
+     * Parcourt l'ensemble des notes au moyen d'un curseur MongoDB.
+     * Les documents sont lus par lots au fil de la consommation du flux, qui doit être fermé.
+     *
+     * @return Le flux des notes.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Note> streamAllBy();
+
+    /**
+     * Parcourt au moyen d'un curseur MongoDB les notes datées d'après un instant donné.
+     *
+     * @param since L'instant à partir duquel les notes sont retenues (inclus).
+     * @return      Le flux des notes, qui doit être fermé.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Note> streamByDateGreaterThanEqual(LocalDateTime since);
+
+    /**
+     * Retourne les notes créées ou modifiées à partir d'un instant donné, par instant croissant.
+     *
+     * @param since    L'instant de départ (inclus).
+     * @param pageable La taille de la page.
+     * @return         Les notes modifiées.
+     */
+    @Query(value = "{ 'lastModified': { '$gte': ?0 } }", sort = "{ 'lastModified': 1, '_id': 1 }")
+    List<Note> findChangedSince(Instant since, Pageable pageable);
+
+    /**
+     * Retourne les notes modifiées qui suivent une position du flux des modifications (pagination sur clé).
+     *
+     * @param lastModified L'instant de la dernière modification de la page précédente.
+     * @param id           L'identifiant de cette modification, qui départage les instants égaux.
+     * @param pageable     La taille de la page.
+     * @return             Les notes modifiées suivantes.
+     */
+    @Query(value = "{ '$or': [ { 'lastModified': { '$gt': ?0 } }, { 'lastModified': ?0, '_id': { '$gt': ?1 } } ] }",
+            sort = "{ 'lastModified': 1, '_id': 1 }")
+    List<Note> findChangedAfter(Instant lastModified, Object id, Pageable pageable);
+}
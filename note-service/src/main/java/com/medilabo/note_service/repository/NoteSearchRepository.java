@@ -0,0 +1,24 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.NoteSearchHit;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Fragment du dépôt des notes dédié à la recherche en texte intégral.
+ * Son implémentation ({@link NoteSearchRepositoryImpl}) est associée à {@link NoteRepository} par Spring Data.
+ */
+public interface NoteSearchRepository {
+
+    /**
+     * Recherche les notes contenant les termes demandés, des plus pertinentes aux moins pertinentes.
+     * Les termes sont réduits à leur racine française et comparés sans tenir compte de la casse ni des accents.
+     *
+     * @param termes   Les termes recherchés (syntaxe de {@code $text} : expressions entre guillemets, exclusions par {@code -}).
+     * @param patId    Restreint la recherche aux notes de ce patient ({@code null} = tous les patients).
+     * @param pageable La page demandée.
+     * @return         Les notes trouvées et leur score de pertinence.
+     */
+    List<NoteSearchHit> search(String termes, Integer patId, Pageable pageable);
+}
@@ -0,0 +1,42 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteSearchHit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.util.List;
+
+/**
+ * Implémentation de la recherche en texte intégral, au moyen de l'index de texte de la collection des notes.
+ */
+public class NoteSearchRepositoryImpl implements NoteSearchRepository {
+
+    private static final String LANGUE = "french";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructeur injectant le template MongoDB.
+     *
+     * @param mongoTemplate Le template utilisé pour les requêtes de recherche.
+     */
+    public NoteSearchRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<NoteSearchHit> search(String termes, Integer patId, Pageable pageable) {
+        TextQuery query = TextQuery.queryText(TextCriteria.forLanguage(LANGUE).matching(termes))
+                .sortByScore()
+                .includeScore("score");
+        if (patId != null) {
+            query.addCriteria(Criteria.where("patId").is(patId));
+        }
+        query.with(pageable);
+        return mongoTemplate.find(query, NoteSearchHit.class, mongoTemplate.getCollectionName(Note.class));
+    }
+}
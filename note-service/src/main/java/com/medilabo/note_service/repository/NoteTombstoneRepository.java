@@ -0,0 +1,39 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.NoteTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface Repository pour l'accès aux traces de suppression des notes.
+ */
+@Repository
+public interface NoteTombstoneRepository extends MongoRepository<NoteTombstone, String> {
+
+    /**
+     * Retourne les suppressions survenues à partir d'un instant donné, par instant croissant.
+     *
+     * @param since    L'instant de départ (inclus).
+     * @param pageable La taille de la page.
+     * @return         Les traces de suppression.
+     */
+    @Query(value = "{ 'lastModified': { '$gte': ?0 } }", sort = "{ 'lastModified': 1, '_id': 1 }")
+    List<NoteTombstone> findChangedSince(Instant since, Pageable pageable);
+
+    /**
+     * Retourne les suppressions qui suivent une position du flux des modifications (pagination sur clé).
+     *
+     * @param lastModified L'instant de la dernière modification de la page précédente.
+     * @param id           L'identifiant de cette modification, qui départage les instants égaux.
+     * @param pageable     La taille de la page.
+     * @return             Les traces de suppression suivantes.
+     */
+    @Query(value = "{ '$or': [ { 'lastModified': { '$gt': ?0 } }, { 'lastModified': ?0, '_id': { '$gt': ?1 } } ] }",
+            sort = "{ 'lastModified': 1, '_id': 1 }")
+    List<NoteTombstone> findChangedAfter(Instant lastModified, Object id, Pageable pageable);
+}
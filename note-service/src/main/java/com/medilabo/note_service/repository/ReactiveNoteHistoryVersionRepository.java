@@ -0,0 +1,30 @@
+package com.medilabo.note_service.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Fragment non bloquant du dépôt des notes dédié aux versions des historiques des patients (profil {@code reactive}).
+ * Son implémentation ({@link ReactiveNoteHistoryVersionRepositoryImpl}) est associée à {@link ReactiveNoteRepository}
+ * par Spring Data ; les versions sont celles de {@link NoteHistoryVersionRepository}.
+ */
+public interface ReactiveNoteHistoryVersionRepository {
+
+    /**
+     * Incrémente la version de l'historique de plusieurs patients, en une seule écriture groupée.
+     * Les identifiants {@code null} sont ignorés.
+     *
+     * @param patIds Les identifiants des patients dont des notes ont été écrites.
+     * @return       Un signal de fin, une fois les versions incrémentées.
+     */
+    Mono<Void> incrementHistoryVersions(Collection<Integer> patIds);
+
+    /**
+     * Retourne la version de l'historique d'un patient.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Sa version, 0 si ses notes n'ont jamais été écrites.
+     */
+    Mono<Long> findHistoryVersion(Integer patId);
+}
@@ -0,0 +1,53 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.NoteHistoryVersion;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implémentation non bloquante des versions des historiques, tenues dans la collection {@code note_history_versions}.
+ */
+public class ReactiveNoteHistoryVersionRepositoryImpl implements ReactiveNoteHistoryVersionRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Constructeur injectant le template MongoDB réactif.
+     *
+     * @param mongoTemplate Le template utilisé pour lire et incrémenter les versions.
+     */
+    public ReactiveNoteHistoryVersionRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> incrementHistoryVersions(Collection<Integer> patIds) {
+        List<Integer> patients = patIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (patients.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NoteHistoryVersion.class);
+        patients.forEach(patId -> operations.upsert(parPatient(patId), new Update().inc("version", 1)));
+        return operations.execute().then();
+    }
+
+    @Override
+    public Mono<Long> findHistoryVersion(Integer patId) {
+        return mongoTemplate.findOne(parPatient(patId), NoteHistoryVersion.class)
+                .map(NoteHistoryVersion::getVersion)
+                .defaultIfEmpty(0L);
+    }
+
+    private static Query parPatient(Integer patId) {
+        return Query.query(Criteria.where("_id").is(patId));
+    }
+}
@@ -0,0 +1,108 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteText;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Interface Repository non bloquante pour l'accès aux notes médicales (profil {@code reactive}).
+ * <p>
+ * Mêmes requêtes que {@link NoteRepository}, exécutées par le driver MongoDB Reactive Streams :
+ * les documents sont publiés au fil de leur lecture et demandés au serveur au rythme
+ * de leur consommation.
+ * </p>
+ */
+@Repository
+public interface ReactiveNoteRepository extends ReactiveMongoRepository<Note, String>, ReactiveNoteHistoryVersionRepository {
+
+    /**
+     * Recherche l'historique complet des notes pour un patient spécifique.
+     *
+     * @param patId L'identifiant technique (SQL) du patient associé.
+     * @return      Le flux des notes.
+     */
+    Flux<Note> findByPatId(Integer patId);
+
+    /**
+     * Recherche les notes de plusieurs patients en une seule requête ({@code $in}).
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       Le flux des notes de l'ensemble de ces patients.
+     */
+    Flux<Note> findByPatIdIn(Collection<Integer> patIds);
+
+    /**
+     * Recherche le texte des notes d'un patient, sans les autres champs du document.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      Le texte de chacune de ses notes.
+     */
+    @Query(value = "{ 'patId': ?0 }", fields = "{ 'note': 1, '_id': 0 }")
+    Flux<NoteText> findTextByPatId(Integer patId);
+
+    /**
+     * Recherche le texte des notes de plusieurs patients en une seule requête.
+     *
+     * @param patIds Les identifiants des patients.
+     * @return       Le texte de chaque note, accompagné de l'identifiant de son patient.
+     */
+    @Query(value = "{ 'patId': { '$in': ?0 } }", fields = "{ 'patId': 1, 'note': 1, '_id': 0 }")
+    Flux<NoteText> findTextByPatIdIn(Collection<Integer> patIds);
+
+    /**
+     * Retourne les notes les plus récentes d'un patient (première page de l'historique).
+     *
+     * @param patId    L'identifiant du patient.
+     * @param pageable La taille de la page.
+     * @return         Les notes, de la plus récente à la plus ancienne.
+     */
+    Flux<Note> findByPatIdOrderByDateDescIdDesc(Integer patId, Pageable pageable);
+
+    /**
+     * Retourne les notes d'un patient qui suivent, dans l'ordre antéchronologique, une note datée.
+     *
+     * @param patId    L'identifiant du patient.
+     * @param date     La date de la dernière note de la page précédente.
+     * @param id       L'identifiant de cette note, qui départage les notes de même date.
+     * @param pageable La taille de la page.
+     * @return         Les notes suivantes, de la plus récente à la plus ancienne.
+     * @see NoteRepository#findByPatIdAfter(Integer, LocalDateTime, Object, Pageable)
+     */
+    @Query(value = "{ 'patId': ?0, '$or': [ { 'date': { '$lt': ?1 } }, { 'date': ?1, '_id': { '$lt': ?2 } }, { 'date': null } ] }",
+            sort = "{ 'date': -1, '_id': -1 }")
+    Flux<Note> findByPatIdAfter(Integer patId, LocalDateTime date, Object id, Pageable pageable);
+
+    /**
+     * Retourne les notes sans date d'un patient qui suivent une note elle-même sans date.
+     *
+     * @param patId    L'identifiant du patient.
+     * @param id       L'identifiant de la dernière note de la page précédente.
+     * @param pageable La taille de la page.
+     * @return         Les notes suivantes.
+     */
+    @Query(value = "{ 'patId': ?0, 'date': null, '_id': { '$lt': ?1 } }", sort = "{ '_id': -1 }")
+    Flux<Note> findUndatedByPatIdAfter(Integer patId, Object id, Pageable pageable);
+
+    /**
+     * Retourne une page de l'ensemble des notes.
+     *
+     * @param pageable La page demandée et son tri.
+     * @return         Les notes de la page.
+     */
+    Flux<Note> findAllBy(Pageable pageable);
+
+    /**
+     * Parcourt les notes datées d'après un instant donné.
+     *
+     * @param since L'instant à partir duquel les notes sont retenues (inclus).
+     * @return      Le flux des notes.
+     */
+    Flux<Note> findByDateGreaterThanEqual(LocalDateTime since);
+}
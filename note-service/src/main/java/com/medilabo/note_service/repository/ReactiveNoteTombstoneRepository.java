@@ -0,0 +1,12 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.NoteTombstone;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Interface Repository non bloquante pour l'enregistrement des traces de suppression (profil {@code reactive}).
+ */
+@Repository
+public interface ReactiveNoteTombstoneRepository extends ReactiveMongoRepository<NoteTombstone, String> {
+}
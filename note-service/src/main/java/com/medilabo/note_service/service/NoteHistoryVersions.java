@@ -0,0 +1,79 @@
+package com.medilabo.note_service.service;
+
+import com.medilabo.note_service.repository.NoteRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Version de l'historique des notes de chaque patient, servie en {@code ETag} faible par les lectures d'historique.
+ * <p>
+ * La version est un compteur par patient stocké avec les notes (collection {@code note_history_versions}),
+ * incrémenté par {@code $inc} après chaque écriture touchant l'une de ses notes : ajout, modification
+ * (pour l'ancien et le nouveau patient), suppression, import et écriture différée. Toutes les instances
+ * lisent le même compteur, et deux écritures d'une même milliseconde ou datées par des horloges décalées
+ * produisent malgré tout deux versions distinctes.
+ * </p>
+ * <p>
+ * La version est relevée <em>avant</em> de lire les notes et incrémentée <em>après</em> les avoir écrites :
+ * une écriture concurrente produit au pire une réponse étiquetée d'une version déjà dépassée, jamais
+ * une réponse périmée étiquetée de la version courante. Une écriture faite directement dans MongoDB,
+ * hors de ce service, n'est pas prise en compte.
+ * L'étiquette est faible ({@code W/"..."}) : la réponse reste compressible par le serveur.
+ * </p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NoteHistoryVersions {
+
+    private final NoteRepository noteRepository;
+
+    /**
+     * Constructeur injectant le dépôt qui tient les versions.
+     *
+     * @param noteRepository Le dépôt des notes et des versions de leurs historiques.
+     */
+    public NoteHistoryVersions(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    /**
+     * Signale une écriture dans l'historique d'un patient.
+     *
+     * @param patId L'identifiant du patient (ignoré s'il est {@code null}).
+     */
+    public void incrementer(Integer patId) {
+        incrementer(Collections.singleton(patId));
+    }
+
+    /**
+     * Signale une écriture dans l'historique de plusieurs patients.
+     *
+     * @param patIds Les identifiants des patients (les {@code null} sont ignorés).
+     */
+    public void incrementer(Collection<Integer> patIds) {
+        noteRepository.incrementHistoryVersions(patIds);
+    }
+
+    /**
+     * Retourne l'étiquette de la version courante de l'historique d'un patient.
+     *
+     * @param patId L'identifiant du patient.
+     * @return      L'étiquette faible.
+     */
+    public String etag(Integer patId) {
+        return etag(noteRepository.findHistoryVersion(patId));
+    }
+
+    /**
+     * Construit l'étiquette d'une version de l'historique.
+     *
+     * @param version La version de l'historique.
+     * @return        L'étiquette faible ({@code W/"version"}, la version en base 36).
+     */
+    public static String etag(long version) {
+        return "W/\"" + Long.toString(version, 36) + "\"";
+    }
+}
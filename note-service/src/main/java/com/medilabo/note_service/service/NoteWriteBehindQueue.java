@@ -0,0 +1,508 @@
+package com.medilabo.note_service.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.note_service.model.BulkChunkReport;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.proxies.AssessmentProxy;
+import com.medilabo.note_service.repository.NoteRepository;
+import com.medilabo.note_service.repository.NoteTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Écriture différée des nouvelles notes ({@code medilabo.notes.write-behind.enabled=true}).
+ * <p>
+ * Une note reçue par {@code POST /notes} est ajoutée à un journal local, forcé sur disque, puis placée
+ * dans une file bornée ; la requête se termine sans attendre MongoDB. Un unique thread d'écriture vide
+ * la file par paquets ({@link NoteRepository#insertUnordered(List)}) : plus les notes arrivent nombreuses,
+ * plus les paquets sont gros. Les forçages du journal sont eux aussi regroupés entre requêtes simultanées.
+ * </p>
+ * <p>
+ * L'identifiant de la note est attribué dès l'acceptation : après un arrêt brutal, les journaux restants
+ * sont réinsérés au démarrage, les notes déjà écrites étant rejetées comme doublons et les notes supprimées
+ * depuis (trace de suppression) écartées ; le journal courant est vidé dès que toutes ses notes sont écrites.
+ * Lorsque la file est pleine (MongoDB lent ou indisponible), les nouvelles notes sont refusées plutôt que
+ * mises en attente sans limite. Une note acceptée n'est visible en lecture qu'une fois son paquet écrit.
+ * </p>
+ * <p>
+ * Une indisponibilité de MongoDB est retentée sans limite. Une note rejetée par MongoDB (autre erreur qu'un
+ * identifiant en double) ou un paquet en échec pour une autre raison est retenté
+ * {@code medilabo.notes.write-behind.max-attempts} fois, puis ajouté au fichier de rebut {@value #FICHIER_REBUT} du dossier des journaux : il suffit de le renommer
+ * en journal ({@code wal-*.ndjson}) pour le réinsérer au démarrage suivant.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "medilabo.notes.write-behind.enabled", havingValue = "true")
+public class NoteWriteBehindQueue implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteWriteBehindQueue.class);
+
+    private static final String PREFIXE_JOURNAL = "wal-";
+    private static final String SUFFIXE_JOURNAL = ".ndjson";
+
+    /** Taille au-delà de laquelle un nouveau journal est ouvert ; l'ancien est supprimé une fois ses notes écrites. */
+    private static final long TAILLE_MAX_JOURNAL = 16L * 1024 * 1024;
+
+    /** Attente maximale d'une nouvelle note par le thread d'écriture, qui vérifie alors la demande d'arrêt. */
+    private static final long ATTENTE_FILE_MS = 100;
+
+    /** Attente maximale entre deux tentatives d'écriture d'un paquet en échec. */
+    private static final long REPRISE_MAX_MS = 5_000;
+
+    /** Notes mises au rebut, au format des journaux. */
+    private static final String FICHIER_REBUT = "rebut.ndjson";
+
+    /** Attente maximale de l'écriture des notes restantes à l'arrêt du service. */
+    private static final Duration DELAI_ARRET = Duration.ofSeconds(30);
+
+    /**
+     * Note acceptée et journal qui la contient.
+     */
+    private record Entree(Note note, Journal journal) {
+    }
+
+    private final NoteRepository noteRepository;
+    private final NoteTombstoneRepository tombstoneRepository;
+    private final AssessmentProxy assessmentProxy;
+    private final NoteHistoryVersions versions;
+    private final ObjectMapper objectMapper;
+    private final Path dossier;
+    private final int tailleLot;
+    private final Duration attentePlace;
+    private final int tentativesMax;
+
+    /** Places libres de la file ; une place n'est rendue qu'une fois la note écrite dans MongoDB. */
+    private final Semaphore places;
+    private final int capacite;
+    private final LinkedBlockingQueue<Entree> file = new LinkedBlockingQueue<>();
+    private final List<Path> journauxARejouer;
+    private final Thread ecrivain;
+
+    private final Object verrouJournal = new Object();
+    private Journal courant;
+    private int numeroJournal;
+    private volatile boolean ouvert = true;
+
+    private final Timer dureeEcriture;
+    private final Counter refus;
+    private final Counter rebuts;
+
+    /**
+     * Constructeur ouvrant un nouveau journal et démarrant le thread d'écriture.
+     *
+     * @param noteRepository      Le dépôt dans lequel les notes sont écrites.
+     * @param tombstoneRepository Le dépôt des traces de suppression, consulté lors de la réinsertion des journaux.
+     * @param assessmentProxy     Le client utilisé pour invalider les risques en cache après écriture.
+     * @param versions            Les versions des historiques, incrémentées après écriture.
+     * @param objectMapper        Le sérialiseur JSON du journal.
+     * @param meterRegistry       Le registre des métriques de la file.
+     * @param dossier             Le dossier des journaux.
+     * @param capacite            Le nombre maximal de notes acceptées et pas encore écrites.
+     * @param tailleLot           Le nombre maximal de notes écrites par paquet.
+     * @param attentePlace        L'attente maximale d'une place lorsque la file est pleine.
+     * @param tentativesMax       Le nombre de tentatives d'écriture d'une note rejetée avant sa mise au rebut.
+     * @throws IOException En cas d'erreur d'accès au dossier des journaux.
+     */
+    public NoteWriteBehindQueue(NoteRepository noteRepository,
+                                NoteTombstoneRepository tombstoneRepository,
+                                AssessmentProxy assessmentProxy,
+                                NoteHistoryVersions versions,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${medilabo.notes.write-behind.wal-directory:./data/notes-wal}") Path dossier,
+                                @Value("${medilabo.notes.write-behind.capacity:10000}") int capacite,
+                                @Value("${medilabo.notes.write-behind.batch-size:500}") int tailleLot,
+                                @Value("${medilabo.notes.write-behind.offer-timeout:100ms}") Duration attentePlace,
+                                @Value("${medilabo.notes.write-behind.max-attempts:10}") int tentativesMax) throws IOException {
+        this.noteRepository = noteRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.assessmentProxy = assessmentProxy;
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.dossier = dossier;
+        this.capacite = capacite;
+        this.tailleLot = tailleLot;
+        this.attentePlace = attentePlace;
+        this.tentativesMax = tentativesMax;
+        this.places = new Semaphore(capacite);
+
+        Files.createDirectories(dossier);
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            this.journauxARejouer = fichiers.filter(NoteWriteBehindQueue::estUnJournal).sorted().toList();
+        }
+        this.numeroJournal = journauxARejouer.stream().mapToInt(NoteWriteBehindQueue::numero).max().orElse(0);
+        this.courant = ouvrirJournal();
+
+        Gauge.builder("notes.writebehind.queue.depth", this, NoteWriteBehindQueue::profondeur)
+                .description("Notes acceptées et pas encore écrites dans MongoDB")
+                .register(meterRegistry);
+        this.dureeEcriture = Timer.builder("notes.writebehind.flush")
+                .description("Durée d'écriture d'un paquet de notes dans MongoDB, reprises comprises")
+                .register(meterRegistry);
+        this.refus = Counter.builder("notes.writebehind.rejected")
+                .description("Notes refusées faute de place dans la file")
+                .register(meterRegistry);
+        this.rebuts = Counter.builder("notes.writebehind.discarded")
+                .description("Notes rejetées par MongoDB et mises au rebut")
+                .register(meterRegistry);
+
+        this.ecrivain = new Thread(this::ecrire, "notes-write-behind");
+        ecrivain.start();
+    }
+
+    /**
+     * Accepte une note : elle est journalisée sur disque puis placée dans la file d'écriture.
+     * Un identifiant lui est attribué si elle n'en a pas.
+     *
+     * @param note La note à écrire.
+     * @return     {@code false} si la file est pleine ou en cours d'arrêt : la note n'est pas acceptée.
+     * @throws IOException En cas d'erreur d'écriture du journal ; la note n'est alors pas acceptée.
+     */
+    public boolean accepter(Note note) throws IOException {
+        try {
+            if (!ouvert || !places.tryAcquire(attentePlace.toMillis(), TimeUnit.MILLISECONDS)) {
+                refus.increment();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            if (note.getId() == null) {
+                note.setId(new ObjectId().toHexString());
+            }
+            byte[] json = objectMapper.writeValueAsBytes(note);
+            ByteBuffer ligne = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+            // Copie : la note rendue au client n'est pas modifiée par le thread d'écriture.
+            Note copie = new Note(note.getId(), note.getPatId(), note.getPatient(), note.getNote(), note.getDate());
+            file.add(new Entree(copie, journaliser(ligne)));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            places.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Le nombre de notes acceptées et pas encore écrites dans MongoDB.
+     */
+    public int profondeur() {
+        return capacite - places.availablePermits();
+    }
+
+    /**
+     * Cesse d'accepter des notes et attend l'écriture de celles de la file. Les notes qui n'ont pas pu
+     * être écrites dans le délai restent dans leur journal et seront réinsérées au prochain démarrage.
+     */
+    @Override
+    public void close() {
+        ouvert = false;
+        try {
+            ecrivain.join(DELAI_ARRET.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ecrivain.isAlive()) {
+            log.warn("{} notes restent à écrire ; elles seront réinsérées au prochain démarrage", profondeur());
+            ecrivain.interrupt();
+        }
+    }
+
+    // --- JOURNAL ---
+
+    /**
+     * Ajoute une ligne au journal courant et la force sur disque avant de rendre la main.
+     *
+     * @return Le journal contenant la ligne.
+     */
+    private Journal journaliser(ByteBuffer ligne) throws IOException {
+        Journal journal;
+        long fin;
+        synchronized (verrouJournal) {
+            if (courant.taille >= TAILLE_MAX_JOURNAL) {
+                courant.ferme = true;
+                supprimerSiEcrit(courant);
+                courant = ouvrirJournal();
+            }
+            journal = courant;
+            while (ligne.hasRemaining()) {
+                journal.canal.write(ligne);
+            }
+            journal.enAttente++;
+            journal.taille += ligne.limit();
+            fin = journal.taille;
+        }
+        journal.forcer(fin);
+        return journal;
+    }
+
+    private Journal ouvrirJournal() throws IOException {
+        Path fichier = dossier.resolve(String.format("%s%06d%s", PREFIXE_JOURNAL, ++numeroJournal, SUFFIXE_JOURNAL));
+        return new Journal(fichier, FileChannel.open(fichier,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Signale l'écriture d'une note dans MongoDB. Un journal dont toutes les notes sont écrites
+     * est supprimé s'il est fermé, vidé s'il s'agit du journal courant.
+     */
+    private void liberer(Journal journal) {
+        synchronized (verrouJournal) {
+            journal.enAttente--;
+            supprimerSiEcrit(journal);
+            if (journal == courant && journal.enAttente == 0) {
+                try {
+                    journal.vider();
+                } catch (IOException e) {
+                    log.warn("Vidage du journal {} impossible : {}", journal.fichier, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void supprimerSiEcrit(Journal journal) {
+        if (journal.ferme && journal.enAttente == 0) {
+            try {
+                journal.canal.close();
+                Files.deleteIfExists(journal.fichier);
+            } catch (IOException e) {
+                log.warn("Suppression du journal {} impossible : {}", journal.fichier, e.getMessage());
+            }
+        }
+    }
+
+    // --- ÉCRITURE DANS MONGODB ---
+
+    /**
+     * Boucle du thread d'écriture : réinsère les journaux d'une exécution précédente, puis vide la file
+     * par paquets jusqu'à l'arrêt du service.
+     */
+    private void ecrire() {
+        try {
+            for (Path journal : journauxARejouer) {
+                rejouer(journal);
+            }
+            List<Entree> lot = new ArrayList<>(tailleLot);
+            while (ouvert || !file.isEmpty()) {
+                Entree premiere = file.poll(ATTENTE_FILE_MS, TimeUnit.MILLISECONDS);
+                if (premiere == null) {
+                    continue;
+                }
+                lot.add(premiere);
+                file.drainTo(lot, tailleLot - 1);
+                inserer(lot.stream().map(Entree::note).toList());
+                lot.forEach(entree -> liberer(entree.journal()));
+                places.release(lot.size());
+                lot.clear();
+            }
+            synchronized (verrouJournal) {
+                courant.ferme = true;
+                supprimerSiEcrit(courant);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Réinsère les notes d'un journal laissé par une exécution précédente, puis le supprime.
+     * Une dernière ligne incomplète (arrêt pendant l'écriture, note non acceptée) est ignorée.
+     */
+    private void rejouer(Path journal) throws InterruptedException {
+        int rejouees = 0;
+        try (InputStream entree = Files.newInputStream(journal);
+             MappingIterator<Note> notes = objectMapper.readerFor(Note.class).readValues(entree)) {
+            List<Note> lot = new ArrayList<>(tailleLot);
+            while (lireSuivante(notes, lot)) {
+                if (tombstoneRepository.existsById(lot.get(lot.size() - 1).getId())) {
+                    lot.remove(lot.size() - 1);
+                } else if (lot.size() == tailleLot) {
+                    inserer(lot);
+                    rejouees += lot.size();
+                    lot.clear();
+                }
+            }
+            if (!lot.isEmpty()) {
+                inserer(lot);
+                rejouees += lot.size();
+            }
+            Files.delete(journal);
+            log.info("Journal {} rejoué : {} notes", journal.getFileName(), rejouees);
+        } catch (IOException e) {
+            log.error("Journal {} illisible, conservé pour analyse", journal, e);
+        }
+    }
+
+    private static boolean lireSuivante(MappingIterator<Note> notes, List<Note> lot) {
+        try {
+            if (!notes.hasNextValue()) {
+                return false;
+            }
+            lot.add(notes.nextValue());
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Écrit un paquet de notes, en réessayant tant que MongoDB est indisponible.
+     * Les notes déjà présentes (paquet rejoué) sont rejetées comme doublons sans interrompre le paquet ;
+     * les autres notes rejetées sont retentées seules, puis mises au rebut.
+     */
+    private void inserer(List<Note> notes) throws InterruptedException {
+        long debut = System.nanoTime();
+        long reprise = 100;
+        int tentatives = 0;
+        List<Note> restantes = notes;
+        while (!restantes.isEmpty()) {
+            String erreur;
+            try {
+                BulkChunkReport bilan = noteRepository.insertUnordered(restantes);
+                erreur = bilan.getError();
+                restantes = bilan.getRetryable().stream().map(restantes::get).toList();
+            } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+                log.warn("MongoDB indisponible, écriture de {} notes retentée dans {} ms : {}", restantes.size(), reprise, e.getMessage());
+                erreur = null;
+            } catch (RuntimeException e) {
+                erreur = e.toString();
+            }
+            if (erreur != null && !restantes.isEmpty()) {
+                if (++tentatives >= tentativesMax) {
+                    if (mettreAuRebut(restantes, erreur)) {
+                        break;
+                    }
+                    tentatives = 0;
+                }
+                log.warn("Écriture de {} notes en échec ({}/{}), nouvelle tentative dans {} ms : {}",
+                        restantes.size(), tentatives, tentativesMax, reprise, erreur);
+            }
+            if (!restantes.isEmpty()) {
+                Thread.sleep(reprise);
+                reprise = Math.min(reprise * 2, REPRISE_MAX_MS);
+            }
+        }
+        dureeEcriture.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+
+        Set<Integer> patients = new HashSet<>();
+        notes.forEach(note -> patients.add(note.getPatId()));
+        patients.remove(null);
+        versions.incrementer(patients);
+        if (patients.size() > AssessmentProxy.MAX_INVALIDATIONS_CIBLEES) {
+            assessmentProxy.invalidateAllAssessments();
+        } else {
+            patients.forEach(assessmentProxy::invalidateAssessment);
+        }
+    }
+
+    /**
+     * Ajoute des notes au fichier de rebut et le force sur disque : elles quittent la file sans être perdues.
+     *
+     * @return {@code false} si le rebut n'a pas pu être écrit : les notes restent dans la file et sont retentées.
+     */
+    private boolean mettreAuRebut(List<Note> notes, String erreur) {
+        log.error("{} notes rejetées par MongoDB, mises au rebut dans {} : {}", notes.size(), FICHIER_REBUT, erreur);
+        try (FileChannel rebut = FileChannel.open(dossier.resolve(FICHIER_REBUT),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Note note : notes) {
+                byte[] json = objectMapper.writeValueAsBytes(note);
+                ByteBuffer ligne = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+                while (ligne.hasRemaining()) {
+                    rebut.write(ligne);
+                }
+            }
+            rebut.force(false);
+            rebuts.increment(notes.size());
+            return true;
+        } catch (IOException e) {
+            log.error("Mise au rebut impossible, les notes restent dans la file", e);
+            return false;
+        }
+    }
+
+    private static boolean estUnJournal(Path fichier) {
+        String nom = fichier.getFileName().toString();
+        return nom.startsWith(PREFIXE_JOURNAL) && nom.endsWith(SUFFIXE_JOURNAL);
+    }
+
+    private static int numero(Path journal) {
+        String nom = journal.getFileName().toString();
+        return Integer.parseInt(nom.substring(PREFIXE_JOURNAL.length(), nom.length() - SUFFIXE_JOURNAL.length()));
+    }
+
+    /**
+     * Fichier journal en ajout seul. Les champs modifiables sont protégés par le verrou du journal courant,
+     * sauf la position forcée, protégée par le journal lui-même.
+     */
+    private static final class Journal {
+
+        private final Path fichier;
+        private final FileChannel canal;
+
+        /** Nombre de notes du journal pas encore écrites dans MongoDB. */
+        private int enAttente;
+        private long taille;
+        private boolean ferme;
+
+        /** Position jusqu'à laquelle le journal est forcé sur disque. */
+        private long force;
+
+        private Journal(Path fichier, FileChannel canal) {
+            this.fichier = fichier;
+            this.canal = canal;
+        }
+
+        /**
+         * Vide le journal, dont toutes les notes sont écrites. Appelé sous le verrou du journal courant,
+         * aucune ligne ne pouvant alors être en cours de forçage.
+         */
+        private synchronized void vider() throws IOException {
+            canal.truncate(0);
+            taille = 0;
+            force = 0;
+        }
+
+        /**
+         * Force le journal sur disque jusqu'à une position. Un forçage couvre toutes les lignes écrites
+         * avant lui : les requêtes arrivées pendant un forçage sont servies par le suivant.
+         */
+        private synchronized void forcer(long fin) throws IOException {
+            if (force >= fin) {
+                return;
+            }
+            long cible = canal.size();
+            canal.force(false);
+            force = cible;
+        }
+    }
+}
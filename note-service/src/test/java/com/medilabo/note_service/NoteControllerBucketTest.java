@@ -0,0 +1,95 @@
+package com.medilabo.note_service;
+
+import com.medilabo.note_service.controller.NoteController;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteText;
+import com.medilabo.note_service.proxies.AssessmentProxy;
+import com.medilabo.note_service.repository.NoteBucketStore;
+import com.medilabo.note_service.repository.NoteRepository;
+import com.medilabo.note_service.repository.NoteTombstoneRepository;
+import com.medilabo.note_service.service.NoteHistoryVersions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Classe de tests unitaires du contrôleur NoteController en disposition par paquets.
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = NoteController.class)
+@Import(NoteHistoryVersions.class)
+public class NoteControllerBucketTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NoteRepository noteRepository;
+
+    @MockBean
+    private NoteTombstoneRepository tombstoneRepository;
+
+    @MockBean
+    private AssessmentProxy assessmentProxy;
+
+    @MockBean
+    private NoteBucketStore noteBucketStore;
+
+    /**
+     * Vérifie que l'historique d'un patient est lu dans ses paquets.
+     */
+    @Test
+    public void getNotesByPatientId_shouldReadBuckets() throws Exception {
+        given(noteBucketStore.findByPatId(1))
+                .willReturn(List.of(new Note("1", 1, "Test Patient", "Note content 1", LocalDateTime.now())));
+
+        mockMvc.perform(get("/notes/patient/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is("1")));
+
+        verify(noteRepository, never()).findByPatId(anyInt());
+    }
+
+    /**
+     * Vérifie que les lectures par lot et de texte seul sont servies par les paquets, avec la même réponse JSON.
+     */
+    @Test
+    public void getNoteTexts_shouldReadBuckets() throws Exception {
+        given(noteBucketStore.findTextByPatIdIn(List.of(1, 2), true))
+                .willReturn(List.of(new NoteText(1, "Fumeur"), new NoteText(2, "Vertiges")));
+        given(noteBucketStore.findTextByPatId(1)).willReturn(List.of(new NoteText(null, "Fumeur")));
+
+        mockMvc.perform(get("/notes/patients/text").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].patId", is(2)));
+
+        mockMvc.perform(get("/notes/patient/1/text"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].note", is("Fumeur")))
+                .andExpect(jsonPath("$[0].patId").doesNotExist());
+
+        verify(noteRepository, never()).findTextByPatIdIn(anyList());
+        verify(noteRepository, never()).findTextByPatId(any());
+    }
+}
@@ -2,25 +2,55 @@ package com.medilabo.note_service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medilabo.note_service.controller.NoteController;
+import com.medilabo.note_service.model.BulkChunkReport;
 import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteSearchHit;
+import com.medilabo.note_service.model.NoteText;
+import com.medilabo.note_service.model.NoteTombstone;
+import com.medilabo.note_service.proxies.AssessmentProxy;
 import com.medilabo.note_service.repository.NoteRepository;
+import com.medilabo.note_service.repository.NoteTombstoneRepository;
+import com.medilabo.note_service.service.NoteHistoryVersions;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,7 +59,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Classe de tests unitaires pour le contrôleur NoteController.
  */
 @ExtendWith(SpringExtension.class)
-@WebMvcTest(NoteController.class)
+@WebMvcTest(controllers = NoteController.class, properties = "medilabo.notes.bulk.chunk-size=2")
+@Import(NoteHistoryVersions.class)
 public class NoteControllerTest {
 
     @Autowired
@@ -38,6 +69,12 @@ public class NoteControllerTest {
     @MockBean
     private NoteRepository noteRepository;
 
+    @MockBean
+    private NoteTombstoneRepository tombstoneRepository;
+
+    @MockBean
+    private AssessmentProxy assessmentProxy;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -60,7 +97,7 @@ public class NoteControllerTest {
      */
     @Test
     public void getAllNotes_shouldReturnList() throws Exception {
-        given(noteRepository.findAll()).willReturn(List.of(note1, note2));
+        given(noteRepository.findAllBy(PageRequest.of(0, 100, Sort.by("id")))).willReturn(List.of(note1, note2));
 
         mockMvc.perform(get("/notes"))
                 .andExpect(status().isOk())
@@ -68,6 +105,62 @@ public class NoteControllerTest {
                 .andExpect(jsonPath("$[0].patient", is(note1.getPatient())));
     }
 
+    /**
+     * Vérifie que la liste des notes est plafonnée, quelle que soit la taille demandée.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getAllNotes_shouldCapPageSize() throws Exception {
+        given(noteRepository.findAllBy(PageRequest.of(2, 1000, Sort.by("id")))).willReturn(List.of(note2));
+
+        mockMvc.perform(get("/notes").param("page", "2").param("size", "1000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    /**
+     * Vérifie l'export en flux des notes, une note par ligne, filtré par date.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void exportNotes_shouldWriteOneNotePerLine() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 0, 0);
+        given(noteRepository.streamByDateGreaterThanEqual(since)).willReturn(Stream.of(note1, note2));
+
+        MvcResult resultat = mockMvc.perform(get("/notes/export")
+                        .param("since", "2024-01-01T00:00:00")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultat))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"note\":\"Note content 1\"")))
+                .andExpect(content().string(containsString("}\n{")));
+    }
+
+    /**
+     * Vérifie l'export en flux sous forme de tableau JSON pour les clients qui le demandent.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void exportNotes_shouldWriteJsonArray_whenRequested() throws Exception {
+        given(noteRepository.streamAllBy()).willReturn(Stream.of(note1, note2));
+
+        MvcResult resultat = mockMvc.perform(get("/notes/export").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultat))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].patId", is(2)));
+    }
+
     /**
      * Vérifie la récupération des notes pour un patient spécifique via son identifiant.
      *
@@ -83,6 +176,164 @@ public class NoteControllerTest {
                 .andExpect(jsonPath("$[0].note", is(note1.getNote())));
     }
 
+    /**
+     * Vérifie que l'historique d'un patient est servi avec sa version faible, qu'une lecture conditionnelle
+     * à jour reçoit un 304 sans relire les notes, et qu'une écriture enregistrée change la version.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getNotesByPatId_shouldAnswerNotModified_untilHistoryChanges() throws Exception {
+        stubVersions();
+        given(noteRepository.findHistoryVersion(2)).willReturn(5L);
+        given(noteRepository.findByPatId(1)).willReturn(List.of(note1));
+        given(noteRepository.save(any(Note.class))).willReturn(note1);
+
+        String etag = mockMvc.perform(get("/notes/patient/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/notes/patient/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/notes/patient/2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(noteRepository, times(1)).findByPatId(1);
+
+        mockMvc.perform(post("/notes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(note1)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/notes/patient/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    /**
+     * Vérifie que deux modifications portant le même {@code lastModified} (même milliseconde, ou horloges
+     * d'instances décalées) produisent deux versions distinctes de l'historique : la version est un compteur
+     * incrémenté après chaque écriture, pour le nouveau comme pour l'ancien patient de la note.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void updateNote_shouldChangeVersion_whenWritesShareLastModified() throws Exception {
+        stubVersions();
+        Instant instant = Instant.parse("2024-01-01T10:00:00Z");
+        note1.setLastModified(instant);
+        note2.setPatId(1);
+        note2.setLastModified(instant);
+        given(noteRepository.findByPatId(1)).willReturn(List.of(note1, note2));
+        given(noteRepository.findById("2")).willReturn(Optional.of(new Note("2", 2, "Another Patient", "Note", null)));
+        given(noteRepository.save(any(Note.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(put("/notes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(note1)))
+                .andExpect(status().isOk());
+        String premiere = mockMvc.perform(get("/notes/patient/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/notes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(note2)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/notes/patient/1").header(HttpHeaders.IF_NONE_MATCH, premiere))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(premiere)))
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(noteRepository).incrementHistoryVersions(Arrays.asList(1, null));
+        verify(noteRepository).incrementHistoryVersions(Arrays.asList(1, 2));
+    }
+
+    /**
+     * Simule le compteur de version de l'historique du patient 1, incrémenté par chaque écriture.
+     */
+    private void stubVersions() {
+        AtomicLong version = new AtomicLong();
+        willAnswer(invocation -> version.incrementAndGet()).given(noteRepository).incrementHistoryVersions(anyCollection());
+        given(noteRepository.findHistoryVersion(1)).willAnswer(invocation -> version.get());
+    }
+
+    /**
+     * Vérifie la récupération groupée des notes de plusieurs patients.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getNotesByPatientIds_shouldReturnNotesOfAllPatients() throws Exception {
+        given(noteRepository.findByPatIdIn(List.of(1, 2))).willReturn(List.of(note1, note2));
+
+        mockMvc.perform(get("/notes/patients").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].patId", is(2)));
+    }
+
+    /**
+     * Vérifie que la projection par patient ne transmet que le texte des notes.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getNoteTextsByPatientId_shouldReturnOnlyText() throws Exception {
+        given(noteRepository.findTextByPatId(1)).willReturn(List.of(new NoteText(null, "Note content 1")));
+
+        mockMvc.perform(get("/notes/patient/1/text"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"note\":\"Note content 1\"}]", true));
+    }
+
+    /**
+     * Vérifie que la projection groupée associe chaque texte à son patient.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getNoteTextsByPatientIds_shouldReturnTextAndPatient() throws Exception {
+        given(noteRepository.findTextByPatIdIn(List.of(1, 2))).willReturn(List.of(
+                new NoteText(1, "Note content 1"), new NoteText(2, "Note content 2")));
+
+        mockMvc.perform(get("/notes/patients/text").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"patId\":1,\"note\":\"Note content 1\"},{\"patId\":2,\"note\":\"Note content 2\"}]", true));
+    }
+
+    /**
+     * Vérifie la recherche en texte intégral restreinte à un patient, avec plafonnement de la taille de page.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void searchNotes_shouldReturnRankedHits() throws Exception {
+        given(noteRepository.search("vertiges", 1, PageRequest.of(0, 100))).willReturn(List.of(
+                new NoteSearchHit("1", 1, "Test Patient", "Vertiges fréquents", null, 1.5f)));
+
+        mockMvc.perform(get("/notes/search").param("q", "vertiges").param("patId", "1").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].note", is("Vertiges fréquents")))
+                .andExpect(jsonPath("$[0].score", is(1.5)));
+    }
+
+    /**
+     * Vérifie qu'une recherche sans terme est refusée.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void searchNotes_shouldRejectBlankQuery() throws Exception {
+        mockMvc.perform(get("/notes/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Vérifie l'ajout d'une nouvelle note.
      *
@@ -97,6 +348,59 @@ public class NoteControllerTest {
                         .content(objectMapper.writeValueAsString(note1)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.patient", is(note1.getPatient())));
+
+        verify(assessmentProxy).invalidateAssessment(1);
+    }
+
+    /**
+     * Vérifie l'import en masse d'un flux NDJSON, inséré par paquets de la taille configurée.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void addNotes_shouldInsertNdjsonByChunks() throws Exception {
+        given(noteRepository.insertUnordered(anyList())).willAnswer(invocation -> {
+            List<?> paquet = invocation.getArgument(0);
+            return new BulkChunkReport(0, paquet.size() - 1, 1, "E11000 duplicate key");
+        });
+        String corps = objectMapper.writeValueAsString(note1) + "\n"
+                + objectMapper.writeValueAsString(note2) + "\n"
+                + objectMapper.writeValueAsString(note1) + "\n";
+
+        mockMvc.perform(post("/notes/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corps))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(1)))
+                .andExpect(jsonPath("$.failed", is(2)))
+                .andExpect(jsonPath("$.chunks", hasSize(2)))
+                .andExpect(jsonPath("$.chunks[1].chunk", is(1)))
+                .andExpect(jsonPath("$.chunks[1].error", is("E11000 duplicate key")));
+
+        verify(noteRepository, times(2)).insertUnordered(anyList());
+        verify(assessmentProxy).invalidateAssessment(1);
+        verify(assessmentProxy).invalidateAssessment(2);
+    }
+
+    /**
+     * Vérifie qu'un tableau JSON mal formé interrompt l'import en conservant les paquets déjà écrits.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void addNotes_shouldReportReadError_whenArrayIsMalformed() throws Exception {
+        given(noteRepository.insertUnordered(anyList())).willAnswer(invocation -> {
+            List<?> paquet = invocation.getArgument(0);
+            return new BulkChunkReport(0, paquet.size(), 0, null);
+        });
+        String corps = "[" + objectMapper.writeValueAsString(note1) + "," + objectMapper.writeValueAsString(note2) + ",{\"patId\":";
+
+        mockMvc.perform(post("/notes/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corps))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.inserted", is(2)))
+                .andExpect(jsonPath("$.error", notNullValue()));
     }
 
     /**
@@ -128,4 +432,134 @@ public class NoteControllerTest {
 
         verify(noteRepository).deleteById("1");
     }
-}
\ No newline at end of file
+
+    /**
+     * Vérifie que la suppression d'une note écrit sa trace avant de la supprimer
+     * et invalide le risque en cache du patient concerné.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void deleteNote_shouldInvalidateAssessment() throws Exception {
+        given(noteRepository.findById("2")).willReturn(Optional.of(note2));
+
+        mockMvc.perform(delete("/notes/2"))
+                .andExpect(status().isOk());
+
+        InOrder ordre = inOrder(tombstoneRepository, noteRepository);
+        ordre.verify(tombstoneRepository).save(any(NoteTombstone.class));
+        ordre.verify(noteRepository).deleteById("2");
+        verify(assessmentProxy).invalidateAssessment(2);
+    }
+
+    /**
+     * Vérifie que le flux des modifications fusionne les écritures et les suppressions par instant croissant,
+     * et que le jeton de la page suivante reprend après la dernière modification transmise.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getChanges_shouldMergeWritesAndDeletes() throws Exception {
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        Note modifiee = new Note("65f1a0000000000000000001", 1, "Test Patient", "Note modifiée", null, since.plusSeconds(10));
+        Note creee = new Note("65f1a0000000000000000003", 2, "Another Patient", "Note créée", null, since.plusSeconds(30));
+        NoteTombstone supprimee = new NoteTombstone("65f1a0000000000000000002", 1, since.plusSeconds(20));
+        given(noteRepository.findChangedSince(since, PageRequest.ofSize(3))).willReturn(List.of(modifiee, creee));
+        given(tombstoneRepository.findChangedSince(since, PageRequest.ofSize(3))).willReturn(List.of(supprimee));
+
+        String reponse = mockMvc.perform(get("/notes/changes").param("since", "2024-01-01T00:00:00Z").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].note.note", is("Note modifiée")))
+                .andExpect(jsonPath("$.changes[1].deleted", is(true)))
+                .andExpect(jsonPath("$.changes[1].patId", is(1)))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(reponse).get("next").asText();
+
+        ObjectId derniere = new ObjectId(supprimee.getId());
+        given(noteRepository.findChangedAfter(eq(supprimee.getLastModified()), eq(derniere), eq(PageRequest.ofSize(3))))
+                .willReturn(List.of(creee));
+
+        mockMvc.perform(get("/notes/changes").param("cursor", cursor).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].id", is(creee.getId())))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    /**
+     * Vérifie que le flux des modifications exige un point de départ.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getChanges_shouldRequireStartingPoint() throws Exception {
+        mockMvc.perform(get("/notes/changes"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Vérifie que déplacer une note vers un autre patient invalide le risque des deux patients.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void updateNote_shouldInvalidatePreviousPatient_whenPatientChanges() throws Exception {
+        Note movedNote = new Note("1", 2, "Another Patient", "Note content 1", LocalDateTime.now());
+        given(noteRepository.findById("1")).willReturn(Optional.of(note1));
+        given(noteRepository.save(any(Note.class))).willReturn(movedNote);
+
+        mockMvc.perform(put("/notes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movedNote)))
+                .andExpect(status().isOk());
+
+        verify(assessmentProxy).invalidateAssessment(2);
+        verify(assessmentProxy).invalidateAssessment(1);
+    }
+
+    /**
+     * Vérifie la pagination sur clé de l'historique : la première page fournit un jeton,
+     * qui désigne la position de sa dernière note pour la page suivante.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getNotesPageByPatientId_shouldReturnNextCursor() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 10, 0);
+        Note recente = new Note("65f1a0000000000000000003", 1, "Test Patient", "Note récente", date);
+        Note ancienne = new Note("65f1a0000000000000000002", 1, "Test Patient", "Note ancienne", date);
+        Note plusAncienne = new Note("65f1a0000000000000000001", 1, "Test Patient", "Note plus ancienne", date.minusDays(1));
+        given(noteRepository.findByPatIdOrderByDateDescIdDesc(1, PageRequest.ofSize(3)))
+                .willReturn(List.of(recente, ancienne, plusAncienne));
+
+        String reponse = mockMvc.perform(get("/notes/patient/1/page").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes", hasSize(2)))
+                .andExpect(jsonPath("$.notes[1].note", is("Note ancienne")))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(reponse).get("next").asText();
+
+        given(noteRepository.findByPatIdAfter(eq(1), eq(date), eq(new ObjectId(ancienne.getId())), eq(PageRequest.ofSize(3))))
+                .willReturn(List.of(plusAncienne));
+
+        mockMvc.perform(get("/notes/patient/1/page").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes", hasSize(1)))
+                .andExpect(jsonPath("$.notes[0].note", is("Note plus ancienne")))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    /**
+     * Vérifie qu'un jeton de pagination invalide est refusé.
+     *
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    public void getNotesPageByPatientId_shouldRejectInvalidCursor() throws Exception {
+        mockMvc.perform(get("/notes/patient/1/page").param("cursor", "pas-un-curseur"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,163 @@
+package com.medilabo.note_service;
+
+import com.medilabo.note_service.controller.ReactiveNoteController;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteTombstone;
+import com.medilabo.note_service.proxies.AssessmentProxy;
+import com.medilabo.note_service.repository.ReactiveNoteRepository;
+import com.medilabo.note_service.repository.ReactiveNoteTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Classe de tests unitaires du contrôleur ReactiveNoteController (mode réactif).
+ */
+@WebFluxTest(controllers = ReactiveNoteController.class)
+public class ReactiveNoteControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveNoteRepository noteRepository;
+
+    @MockBean
+    private ReactiveNoteTombstoneRepository tombstoneRepository;
+
+    @MockBean
+    private AssessmentProxy assessmentProxy;
+
+    @BeforeEach
+    public void setup() {
+        given(noteRepository.incrementHistoryVersions(anyCollection())).willReturn(Mono.empty());
+    }
+
+    private void stubVersion(long version) {
+        given(noteRepository.findHistoryVersion(1)).willReturn(Mono.just(version));
+    }
+
+    /**
+     * Vérifie que l'historique d'un patient est renvoyé en tableau JSON.
+     */
+    @Test
+    public void getNotesByPatientId_shouldReturnJsonArray() {
+        stubVersion(2L);
+        given(noteRepository.findByPatId(1)).willReturn(Flux.just(
+                new Note("1", 1, "Test Patient", "Note 1", LocalDateTime.now()),
+                new Note("2", 1, "Test Patient", "Note 2", LocalDateTime.now())));
+
+        webTestClient.get().uri("/notes/patient/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].id").isEqualTo("2");
+    }
+
+    /**
+     * Vérifie qu'une lecture conditionnelle à jour de l'historique reçoit un 304 sans relire les notes.
+     */
+    @Test
+    public void getNotesByPatientId_shouldAnswerNotModified_whenVersionIsCurrent() {
+        stubVersion(1L);
+        given(noteRepository.findByPatId(1)).willReturn(Flux.just(new Note("1", 1, "A", "Note 1", null)));
+
+        String etag = webTestClient.get().uri("/notes/patient/1")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Note.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/notes/patient/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().values(HttpHeaders.ETAG, valeurs -> assertEquals(List.of(etag), valeurs))
+                .expectBody().isEmpty();
+        verify(noteRepository, times(1)).findByPatId(1);
+    }
+
+    /**
+     * Vérifie que l'export est publié une note par ligne lorsque le client demande du NDJSON.
+     */
+    @Test
+    public void exportNotes_shouldStreamNdjson() {
+        given(noteRepository.findAll()).willReturn(Flux.just(
+                new Note("1", 1, "A", "Note 1", null),
+                new Note("2", 2, "B", "Note 2", null)));
+
+        List<Note> notes = webTestClient.get().uri("/notes/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Note.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(2, notes.size());
+    }
+
+    /**
+     * Vérifie que la pagination par curseur renvoie le jeton de la page suivante.
+     */
+    @Test
+    public void getNotesPageByPatientId_shouldReturnNextCursor() {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 10, 0);
+        given(noteRepository.findByPatIdOrderByDateDescIdDesc(any(), any(Pageable.class))).willReturn(Flux.just(
+                new Note("3", 1, "A", "Note 3", date),
+                new Note("2", 1, "A", "Note 2", date),
+                new Note("1", 1, "A", "Note 1", date)));
+
+        webTestClient.get().uri("/notes/patient/1/page?size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.notes.length()").isEqualTo(2)
+                .jsonPath("$.next").isNotEmpty();
+    }
+
+    /**
+     * Vérifie que la suppression enregistre une trace avant de supprimer la note, puis invalide le risque du patient.
+     */
+    @Test
+    public void deleteNote_shouldRecordTombstoneAndInvalidate() {
+        given(noteRepository.findById("1")).willReturn(Mono.just(new Note("1", 7, "A", "Note", null)));
+        given(noteRepository.deleteById("1")).willReturn(Mono.empty());
+        given(tombstoneRepository.save(any(NoteTombstone.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        webTestClient.delete().uri("/notes/1")
+                .exchange()
+                .expectStatus().isOk();
+
+        InOrder ordre = inOrder(tombstoneRepository, noteRepository);
+        ordre.verify(tombstoneRepository).save(any(NoteTombstone.class));
+        ordre.verify(noteRepository).deleteById("1");
+        ordre.verify(noteRepository).incrementHistoryVersions(Set.of(7));
+        verify(assessmentProxy).invalidateAssessment(7);
+    }
+}
@@ -0,0 +1,241 @@
+package com.medilabo.note_service.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.note_service.model.BulkChunkReport;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteText;
+import com.medilabo.note_service.model.NoteTombstone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Classe de tests unitaires du dépôt des notes adossé au journal projeté en mémoire (profil {@code mmap}).
+ */
+class MappedNoteRepositoryTest {
+
+    @TempDir
+    Path dossier;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private MappedNoteStore store;
+    private MappedNoteRepository repository;
+
+    @BeforeEach
+    void ouvrir() throws IOException {
+        store = new MappedNoteStore(dossier, DataSize.ofKilobytes(1), false, 0.5, Duration.ofHours(1), objectMapper);
+        repository = new MappedNoteRepository(store);
+    }
+
+    @AfterEach
+    void fermer() {
+        store.close();
+    }
+
+    private void rouvrir() throws IOException {
+        fermer();
+        ouvrir();
+    }
+
+    /**
+     * Vérifie qu'une mise à jour remplace la note et que l'identifiant attribué est conservé.
+     */
+    @Test
+    void save_shouldReplacePreviousVersion() {
+        Note note = repository.save(new Note(null, 1, "Test", "Poids stable", LocalDateTime.now()));
+        note.setNote("Fumeur");
+        repository.save(note);
+
+        List<Note> notes = repository.findByPatId(1);
+        assertEquals(1, notes.size());
+        assertEquals("Fumeur", notes.get(0).getNote());
+        assertEquals(note.getId(), notes.get(0).getId());
+    }
+
+    /**
+     * Vérifie que chaque écriture fait avancer la version de l'historique des patients touchés, y compris
+     * deux écritures portant le même {@code lastModified}, et qu'une version n'est pas réutilisée après réouverture.
+     */
+    @Test
+    void findHistoryVersion_shouldAdvanceOnEveryWrite() throws IOException {
+        Instant instant = Instant.parse("2024-01-01T10:00:00Z");
+        Note premiere = new Note(null, 1, "Test", "Poids stable", LocalDateTime.now());
+        premiere.setLastModified(instant);
+        repository.save(premiere);
+        long v1 = repository.findHistoryVersion(1);
+        Note seconde = new Note(null, 1, "Test", "Fumeur", LocalDateTime.now());
+        seconde.setLastModified(instant);
+        repository.save(seconde);
+        long v2 = repository.findHistoryVersion(1);
+        assertTrue(v2 > v1);
+
+        seconde.setPatId(2);
+        repository.save(seconde);
+        long v3 = repository.findHistoryVersion(1);
+        assertTrue(v3 > v2);
+        assertEquals(v3, repository.findHistoryVersion(2));
+
+        rouvrir();
+        assertEquals(v3, repository.findHistoryVersion(1));
+        repository.deleteById(premiere.getId());
+        assertTrue(repository.findHistoryVersion(1) > v3);
+        assertEquals(v3, repository.findHistoryVersion(2));
+    }
+
+    /**
+     * Vérifie que l'index est reconstruit à l'identique à la réouverture du journal, sur plusieurs segments.
+     */
+    @Test
+    void reopen_shouldRebuildIndex() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            repository.save(new Note(null, i % 3, "Patient " + i, "Note " + i, LocalDateTime.now()));
+        }
+        String supprimee = repository.findByPatId(0).get(0).getId();
+        repository.deleteById(supprimee);
+
+        rouvrir();
+
+        assertEquals(19, repository.count());
+        assertEquals(6, repository.findByPatId(0).size());
+        assertTrue(repository.findById(supprimee).isEmpty());
+    }
+
+    /**
+     * Vérifie que la compaction libère les versions périmées sans perdre de note ni de trace, y compris après réouverture.
+     */
+    @Test
+    void compact_shouldKeepCurrentDocuments() throws IOException {
+        Note note = repository.save(new Note(null, 1, "Test", "Version 0", LocalDateTime.now()));
+        for (int i = 1; i <= 30; i++) {
+            note.setNote("Version " + i);
+            repository.save(note);
+        }
+        new MappedNoteTombstoneRepository(store).save(new NoteTombstone("supprimee", 2, Instant.now()));
+
+        assertTrue(store.compacter() > 0);
+        rouvrir();
+
+        assertEquals("Version 30", repository.findById(note.getId()).orElseThrow().getNote());
+        assertEquals(1, new MappedNoteTombstoneRepository(store).count());
+    }
+
+    /**
+     * Vérifie qu'une compaction validée par son manifeste mais interrompue avant la suppression
+     * des segments remplacés est terminée à la réouverture.
+     */
+    @Test
+    void open_shouldDeleteSegmentsListedByCompactionManifest() throws IOException {
+        Note note = repository.save(new Note(null, 1, "Test", "Conservée", LocalDateTime.now()));
+        store.close();
+        Path remplace = dossier.resolve("segment-000099.log");
+        Files.write(remplace, new byte[64]);
+        Files.write(dossier.resolve("compaction.done"), List.of(remplace.getFileName().toString()));
+
+        ouvrir();
+
+        assertFalse(Files.exists(remplace));
+        assertFalse(Files.exists(dossier.resolve("compaction.done")));
+        assertEquals("Conservée", repository.findById(note.getId()).orElseThrow().getNote());
+    }
+
+    /**
+     * Vérifie le parcours de l'historique du plus récent au plus ancien, page par page.
+     */
+    @Test
+    void findByPatIdAfter_shouldContinueHistory() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Note ancienne = repository.save(new Note(null, 1, "Test", "Ancienne", maintenant.minusDays(2)));
+        Note recente = repository.save(new Note(null, 1, "Test", "Récente", maintenant));
+        Note sansDate = repository.save(new Note(null, 1, "Test", "Sans date", null));
+
+        List<Note> premiere = repository.findByPatIdOrderByDateDescIdDesc(1, PageRequest.ofSize(1));
+        List<Note> suite = repository.findByPatIdAfter(1, recente.getDate(), recente.getId(), PageRequest.ofSize(5));
+
+        assertEquals(List.of(recente.getId()), premiere.stream().map(Note::getId).toList());
+        assertEquals(List.of(ancienne.getId(), sansDate.getId()), suite.stream().map(Note::getId).toList());
+    }
+
+    /**
+     * Vérifie les requêtes par l'exemple : propriétés renseignées de l'exemple, comparaison des chaînes
+     * selon le mode et la casse demandés, et correspondance de l'une des propriétés seulement.
+     */
+    @Test
+    void findAllByExample_shouldMatchProbeProperties() {
+        Note fumeur = repository.save(new Note(null, 1, "Test", "Patient FUMEUR", null));
+        repository.save(new Note(null, 1, "Test", "Poids stable", null));
+        Note autre = repository.save(new Note(null, 2, "Autre", "Fumeur occasionnel", null));
+
+        ExampleMatcher contient = ExampleMatcher.matching()
+                .withMatcher("note", ExampleMatcher.GenericPropertyMatchers.contains().ignoreCase());
+        List<Note> fumeursDuPatient = repository.findAll(Example.of(new Note(null, 1, null, "fumeur", null), contient));
+        long unOuAutre = repository.count(Example.of(new Note(null, 1, "Autre", null, null), ExampleMatcher.matchingAny()));
+
+        assertEquals(List.of(fumeur.getId()), fumeursDuPatient.stream().map(Note::getId).toList());
+        assertEquals(3, unOuAutre);
+        assertTrue(repository.exists(Example.of(new Note(autre.getId(), null, null, null, null))));
+        assertTrue(repository.findOne(Example.of(new Note(null, 3, null, null, null))).isEmpty());
+    }
+
+    /**
+     * Vérifie la requête fluide par l'exemple : tri, limite, projection et défilement par position.
+     */
+    @Test
+    void findByExample_shouldSortLimitProjectAndScroll() {
+        for (int i = 0; i < 5; i++) {
+            repository.save(new Note(null, 1, "Test", "Note " + i, null));
+        }
+        Example<Note> patient = Example.of(new Note(null, 1, null, null, null));
+
+        List<NoteText> textes = repository.findBy(patient, requete -> requete
+                .sortBy(Sort.by(Sort.Direction.DESC, "note")).limit(2).as(NoteText.class).all());
+        Window<Note> premiere = repository.findBy(patient, requete -> requete
+                .sortBy(Sort.by("note")).limit(2).scroll(ScrollPosition.keyset()));
+        Window<Note> seconde = repository.findBy(patient, requete -> requete
+                .sortBy(Sort.by("note")).limit(2).scroll(premiere.positionAt(premiere.size() - 1)));
+        Window<Note> derniere = repository.findBy(patient, requete -> requete
+                .sortBy(Sort.by("note")).limit(2).scroll(ScrollPosition.offset(4)));
+
+        assertEquals(List.of("Note 4", "Note 3"), textes.stream().map(NoteText::getNote).toList());
+        assertEquals(List.of("Note 2", "Note 3"), seconde.stream().map(Note::getNote).toList());
+        assertTrue(seconde.hasNext());
+        assertEquals(List.of("Note 4"), derniere.stream().map(Note::getNote).toList());
+        assertFalse(derniere.hasNext());
+    }
+
+    /**
+     * Vérifie qu'un import signale les identifiants déjà utilisés sans interrompre le paquet.
+     */
+    @Test
+    void insertUnordered_shouldRejectDuplicates() {
+        Note existante = repository.save(new Note(null, 1, "Test", "Existante", null));
+
+        BulkChunkReport bilan = repository.insertUnordered(List.of(
+                new Note(existante.getId(), 1, "Test", "Doublon", null),
+                new Note(null, 1, "Test", "Nouvelle", null)));
+
+        assertEquals(1, bilan.getInserted());
+        assertEquals(1, bilan.getFailed());
+        assertEquals(2, repository.count());
+    }
+}
@@ -0,0 +1,131 @@
+package com.medilabo.note_service.repository;
+
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.model.NoteBucket;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Classe de tests unitaires des paquets de notes par patient ({@code medilabo.notes.storage=bucket}).
+ */
+class NoteBucketStoreTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final NoteBucketStore store = new NoteBucketStore(mongoTemplate, 2);
+
+    /**
+     * Vérifie qu'une note est d'abord retirée de son ancien paquet puis ajoutée au dernier paquet non plein de son patient.
+     */
+    @Test
+    void add_shouldRemovePreviousVersionThenPushIntoNonFullBucket() {
+        Note note = new Note("n1", 7, "Test", "Fumeur", LocalDateTime.now());
+
+        store.add(note);
+
+        ArgumentCaptor<Query> nonPlein = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> ajout = ArgumentCaptor.forClass(Update.class);
+        InOrder ordre = inOrder(mongoTemplate);
+        ordre.verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NoteBucket.class));
+        ordre.verify(mongoTemplate).upsert(nonPlein.capture(), ajout.capture(), eq(NoteBucket.class));
+        assertEquals(new Document("patId", 7).append("count", new Document("$lt", 2)), nonPlein.getValue().getQueryObject());
+        assertEquals(new Document("count", 1), ajout.getValue().getUpdateObject().get("$inc"));
+    }
+
+    /**
+     * Vérifie qu'un paquet vidé de sa dernière note est supprimé, à condition qu'il soit toujours vide.
+     */
+    @Test
+    void remove_shouldDeleteEmptiedBucket() {
+        given(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NoteBucket.class)))
+                .willReturn(new NoteBucket("b1", 7, 0, null));
+
+        store.remove("n1");
+
+        ArgumentCaptor<Query> suppression = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(suppression.capture(), eq(NoteBucket.class));
+        assertEquals(new Document("_id", "b1").append("count", new Document("$lte", 0)), suppression.getValue().getQueryObject());
+    }
+
+    /**
+     * Vérifie qu'un paquet contenant encore des notes, ou une note absente des paquets, ne supprime aucun paquet.
+     */
+    @Test
+    void remove_shouldKeepNonEmptyBucket() {
+        given(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NoteBucket.class)))
+                .willReturn(new NoteBucket("b1", 7, 1, null))
+                .willReturn(null);
+
+        store.remove("n1");
+        store.remove("absente");
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(NoteBucket.class));
+    }
+
+    /**
+     * Vérifie que la reconstruction remplace les paquets existants et range les notes
+     * par patient, en paquets d'au plus {@code max-size} notes.
+     */
+    @Test
+    void rebuild_shouldGroupNotesByPatientInBoundedBuckets() {
+        LocalDateTime date = LocalDateTime.now();
+        given(mongoTemplate.stream(any(Query.class), eq(Note.class))).willReturn(Stream.of(
+                new Note("a", 1, "A", "1", date),
+                new Note("b", 1, "A", "2", date),
+                new Note("c", 1, "A", "3", date),
+                new Note("d", null, "?", "sans patient", date),
+                new Note("e", 2, "B", "4", date)));
+        BulkOperations bulk = mock(BulkOperations.class);
+        List<NoteBucket> inseres = new ArrayList<>();
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NoteBucket.class)).willReturn(bulk);
+        given(bulk.insert(anyList())).willAnswer(invocation -> {
+            inseres.addAll(invocation.getArgument(0));
+            return bulk;
+        });
+
+        long rangees = store.rebuild();
+
+        assertEquals(4, rangees);
+        InOrder ordre = inOrder(mongoTemplate);
+        ordre.verify(mongoTemplate).remove(any(Query.class), eq(NoteBucket.class));
+        ordre.verify(mongoTemplate).stream(any(Query.class), eq(Note.class));
+        assertEquals(List.of(1, 1, 2), inseres.stream().map(NoteBucket::getPatId).toList());
+        assertEquals(List.of(2, 1, 1), inseres.stream().map(NoteBucket::getCount).toList());
+        assertEquals(List.of("a", "b"), inseres.get(0).getNotes().stream().map(NoteBucket.Entry::getNoteId).toList());
+    }
+
+    /**
+     * Vérifie qu'une reconstruction n'est nécessaire que si des notes existent sans aucun paquet.
+     */
+    @Test
+    void needsRebuild_shouldDetectMissingBuckets() {
+        given(mongoTemplate.exists(any(Query.class), eq(NoteBucket.class))).willReturn(false, true);
+        given(mongoTemplate.exists(any(Query.class), eq(Note.class))).willReturn(true);
+
+        assertTrue(store.needsRebuild());
+        assertFalse(store.needsRebuild());
+    }
+}
@@ -0,0 +1,155 @@
+package com.medilabo.note_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.note_service.model.BulkChunkReport;
+import com.medilabo.note_service.model.Note;
+import com.medilabo.note_service.proxies.AssessmentProxy;
+import com.medilabo.note_service.repository.NoteRepository;
+import com.medilabo.note_service.repository.NoteTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Classe de tests unitaires de la file d'écriture différée des notes.
+ */
+class NoteWriteBehindQueueTest {
+
+    @TempDir
+    Path dossier;
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final NoteTombstoneRepository tombstoneRepository = mock(NoteTombstoneRepository.class);
+    private final AssessmentProxy assessmentProxy = mock(AssessmentProxy.class);
+    private final NoteHistoryVersions versions = new NoteHistoryVersions(noteRepository);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private NoteWriteBehindQueue file;
+
+    private NoteWriteBehindQueue ouvrir(int capacite) throws IOException {
+        file = new NoteWriteBehindQueue(noteRepository, tombstoneRepository, assessmentProxy, versions, objectMapper, meterRegistry,
+                dossier, capacite, 10, Duration.ofMillis(10), 2);
+        return file;
+    }
+
+    @AfterEach
+    void fermer() {
+        file.close();
+    }
+
+    /**
+     * Vérifie qu'une note acceptée reçoit un identifiant, est écrite par paquet puis fait avancer la version
+     * de l'historique et invalider le risque.
+     */
+    @Test
+    void accepter_shouldWriteNoteInBackground() throws IOException {
+        given(noteRepository.insertUnordered(anyList())).willReturn(new BulkChunkReport(0, 1, 0, null));
+        Note note = new Note(null, 7, "Test", "Fumeur", null);
+
+        assertTrue(ouvrir(10).accepter(note));
+
+        assertNotNull(note.getId());
+        verify(noteRepository, timeout(2000)).insertUnordered(List.of(note));
+        verify(assessmentProxy, timeout(2000)).invalidateAssessment(7);
+        verify(noteRepository).incrementHistoryVersions(Set.of(7));
+    }
+
+    /**
+     * Vérifie que les notes sont refusées tant que la file est pleine, et que la profondeur est exposée.
+     */
+    @Test
+    void accepter_shouldRefuse_whenQueueIsFull() throws Exception {
+        CountDownLatch mongoBloque = new CountDownLatch(1);
+        given(noteRepository.insertUnordered(anyList())).willAnswer(invocation -> {
+            mongoBloque.await();
+            return new BulkChunkReport();
+        });
+        ouvrir(2);
+
+        assertTrue(file.accepter(new Note(null, 1, "Test", "Première", null)));
+        assertTrue(file.accepter(new Note(null, 1, "Test", "Seconde", null)));
+        assertFalse(file.accepter(new Note(null, 1, "Test", "Refusée", null)));
+
+        assertEquals(2.0, meterRegistry.get("notes.writebehind.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("notes.writebehind.rejected").counter().count());
+        mongoBloque.countDown();
+    }
+
+    /**
+     * Vérifie que les notes d'un journal laissé par un arrêt brutal sont réinsérées au démarrage,
+     * sauf les notes supprimées depuis et une dernière ligne incomplète.
+     */
+    @Test
+    void start_shouldReplayRemainingJournal() throws IOException {
+        Note note = new Note("6ad3c41b78f9f531a3d351e0", 3, "Test", "Vertiges", null);
+        Note supprimee = new Note("6ad3c41b78f9f531a3d351e1", 3, "Test", "Supprimée", null);
+        given(tombstoneRepository.existsById(supprimee.getId())).willReturn(true);
+        given(noteRepository.insertUnordered(anyList())).willReturn(new BulkChunkReport(0, 1, 0, null));
+        Files.writeString(dossier.resolve("wal-000004.ndjson"), objectMapper.writeValueAsString(note) + "\n"
+                + objectMapper.writeValueAsString(supprimee) + "\n{\"id\":\"incompl");
+
+        ouvrir(10);
+
+        verify(noteRepository, timeout(2000)).insertUnordered(List.of(note));
+        verify(assessmentProxy, timeout(2000)).invalidateAssessment(3);
+    }
+
+    /**
+     * Vérifie que seules les notes rejetées pour une autre raison qu'un doublon sont retentées.
+     */
+    @Test
+    void inserer_shouldRetryOnlyRetryableNotes() throws IOException {
+        Note doublon = new Note("6ad3c41b78f9f531a3d351e2", 4, "Test", "Doublon", null);
+        Note rejetee = new Note("6ad3c41b78f9f531a3d351e3", 4, "Test", "Rejetée", null);
+        given(noteRepository.insertUnordered(anyList()))
+                .willReturn(new BulkChunkReport(0, 0, 2, "E11000 duplicate key", List.of(1)))
+                .willReturn(new BulkChunkReport(0, 1, 0, null));
+        ouvrir(10);
+
+        file.accepter(doublon);
+        file.accepter(rejetee);
+
+        verify(noteRepository, timeout(2000)).insertUnordered(List.of(rejetee));
+    }
+
+    /**
+     * Vérifie qu'une note toujours rejetée est mise au rebut après le nombre maximal de tentatives,
+     * au format des journaux, et libère sa place dans la file.
+     */
+    @Test
+    void inserer_shouldDiscardPoisonNotes() throws Exception {
+        Note rejetee = new Note("6ad3c41b78f9f531a3d351e4", 5, "Test", "Trop grande", null);
+        given(noteRepository.insertUnordered(anyList()))
+                .willReturn(new BulkChunkReport(0, 0, 1, "document too large", List.of(0)));
+        ouvrir(10);
+
+        file.accepter(rejetee);
+
+        verify(noteRepository, timeout(2000).times(2)).insertUnordered(List.of(rejetee));
+        verify(assessmentProxy, timeout(2000)).invalidateAssessment(5);
+        List<String> rebut = Files.readAllLines(dossier.resolve("rebut.ndjson"));
+        assertEquals(List.of(objectMapper.writeValueAsString(rejetee)), rebut);
+        assertEquals(1.0, meterRegistry.get("notes.writebehind.discarded").counter().count());
+        assertEquals(0, file.profondeur());
+    }
+}
@@ -2,6 +2,7 @@ package com.medilabo.patient_service.config;
 
 import com.medilabo.patient_service.model.Patient;
 import com.medilabo.patient_service.repository.PatientRepository;
+import com.medilabo.patient_service.service.PatientTrigramIndex;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,13 +27,15 @@ public class DataDataInitializer {
      * de patients requis pour valider les règles métier (None, Borderline, In Danger, Early Onset).
      * L'identifiant est passé à {@code null} pour déléguer la génération de la clé primaire
      * à la base de données (stratégie AUTO_INCREMENT).
+     * Le chargement ayant lieu après la construction de l'index de recherche, chaque patient inséré y est ajouté.
      * </p>
      *
-     * @param repository Le repository permettant la persistance des entités Patient.
+     * @param repository   Le repository permettant la persistance des entités Patient.
+     * @param trigramIndex L'index des trigrammes des noms, complété des patients insérés.
      * @return Une instance de {@link CommandLineRunner} exécutée par Spring Boot.
      */
     @Bean
-    CommandLineRunner initDatabase(PatientRepository repository) {
+    CommandLineRunner initDatabase(PatientRepository repository, PatientTrigramIndex trigramIndex) {
         return args -> {
             if (repository.count() == 0) {
                 // Insertion du Patient 1 : Cas de test "None" (Aucun risque)
@@ -47,6 +50,7 @@ public class DataDataInitializer {
                 // Insertion du Patient 4 : Cas de test "Early Onset" (Apparition précoce)
                 repository.save(new Patient(null, "TestEarlyOnset", "Test", LocalDate.of(2002, 6, 28), "F", "4 Valley Dr", "400-555-6666"));
 
+                repository.findAll().forEach(patient -> trigramIndex.indexer(patient.getId(), patient.getPrenom(), patient.getNom()));
                 System.out.println("INFO: Données de test initialisées avec succès.");
             }
         };
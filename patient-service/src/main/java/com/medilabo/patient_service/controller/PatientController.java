@@ -1,11 +1,31 @@
 package com.medilabo.patient_service.controller;
 
 import com.medilabo.patient_service.model.Patient;
+import com.medilabo.patient_service.model.PatientBatch;
+import com.medilabo.patient_service.model.PatientPage;
+import com.medilabo.patient_service.model.PatientSummary;
+import com.medilabo.patient_service.proxies.AssessmentProxy;
 import com.medilabo.patient_service.repository.PatientRepository;
+import com.medilabo.patient_service.service.NameNormalizer;
+import com.medilabo.patient_service.service.PatientTrigramIndex;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -15,10 +35,40 @@ import java.util.Optional;
 @RequestMapping("/api/patients")
 public class PatientController {
 
+    /** Taille maximale d'une page de patients. */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /** Nombre maximal d'identifiants par lecture groupée. */
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    /** Taille maximale d'une page de résultats de recherche. */
+    static final int MAX_SEARCH_SIZE = 100;
+
+    /** Nombre maximal de patients retenus par une recherche approchante, toutes pages confondues. */
+    static final int MAX_FUZZY_RESULTS = 1000;
+
+    private static final Sort TRI_PAR_NOM = Sort.by("nomNormalise", "prenomNormalise", "id");
+
+    /** Un patient peut être conservé par le client, à condition d'être revalidé à chaque lecture. */
+    private static final CacheControl CACHE_PATIENT = CacheControl.noCache().cachePrivate();
+
     private final PatientRepository patientRepository;
+    private final AssessmentProxy assessmentProxy;
+    private final PatientTrigramIndex trigramIndex;
 
-    public PatientController(PatientRepository patientRepository) {
+    /**
+     * Constructeur injectant le dépôt des patients, le client du service d'évaluation
+     * et l'index de recherche approchante.
+     *
+     * @param patientRepository Le dépôt des patients.
+     * @param assessmentProxy   Le client utilisé pour invalider les risques en cache.
+     * @param trigramIndex      L'index des trigrammes des noms.
+     */
+    public PatientController(PatientRepository patientRepository, AssessmentProxy assessmentProxy,
+                             PatientTrigramIndex trigramIndex) {
         this.patientRepository = patientRepository;
+        this.assessmentProxy = assessmentProxy;
+        this.trigramIndex = trigramIndex;
     }
 
     /**
@@ -30,16 +80,170 @@ public class PatientController {
         return patientRepository.findAll();
     }
 
+    /**
+     * Liste les patients page par page, par pagination sur clé.
+     * Pour obtenir la page suivante, passer en {@code after} l'identifiant du dernier patient reçu ;
+     * une page vide signale la fin de la liste.
+     * <p>
+     * Chaque patient est réduit à sa projection de liste (identité, date de naissance, genre).
+     * La page, bornée à {@value #MAX_PAGE_SIZE} patients, est lue en une liste par le dépôt puis sérialisée :
+     * aucune transaction n'est tenue ouverte pendant l'écriture de la réponse.
+     * </p>
+     *
+     * @param after L'identifiant du dernier patient déjà reçu (0 pour la première page).
+     * @param limit Le nombre maximal de patients à retourner (plafonné à {@value #MAX_PAGE_SIZE}).
+     * @return Une page de patients triés par identifiant.
+     */
+    @GetMapping(params = "limit")
+    public List<PatientSummary> getPatientsPage(@RequestParam(defaultValue = "0") Long after,
+                                                @RequestParam int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return patientRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+    }
+
+    /**
+     * Récupère plusieurs patients en un seul appel.
+     *
+     * @param ids Les identifiants des patients (au plus {@value #MAX_BATCH_SIZE}).
+     * @return Les patients trouvés, dans l'ordre de la demande, et les identifiants introuvables.
+     * @see #getPatientsByIdsPost(List)
+     */
+    @GetMapping(params = "ids")
+    public PatientBatch getPatientsByIds(@RequestParam List<Long> ids) {
+        return chargerPatients(ids);
+    }
+
+    /**
+     * Récupère plusieurs patients en un seul appel, les identifiants étant transmis dans le corps
+     * de la requête (listes trop longues pour une URL).
+     *
+     * @param ids Les identifiants des patients (au plus {@value #MAX_BATCH_SIZE}).
+     * @return Les patients trouvés, dans l'ordre de la demande, et les identifiants introuvables.
+     */
+    @PostMapping("/batch")
+    public PatientBatch getPatientsByIdsPost(@RequestBody List<Long> ids) {
+        return chargerPatients(ids);
+    }
+
+    /**
+     * Charge les patients demandés, sans doublon, en une requête par paquet d'identifiants.
+     */
+    private PatientBatch chargerPatients(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Au plus " + MAX_BATCH_SIZE + " patients par lecture groupée");
+        }
+        List<Long> demandes = new ArrayList<>(new LinkedHashSet<>(ids));
+        demandes.remove(null);
+        if (demandes.isEmpty()) {
+            return new PatientBatch(List.of(), List.of());
+        }
+
+        List<Patient> charges = patientRepository.findAllInOrder(demandes);
+        List<Patient> patients = new ArrayList<>(charges.size());
+        List<Long> introuvables = new ArrayList<>();
+        for (int i = 0; i < demandes.size(); i++) {
+            if (charges.get(i) == null) {
+                introuvables.add(demandes.get(i));
+            } else {
+                patients.add(charges.get(i));
+            }
+        }
+        return new PatientBatch(patients, introuvables);
+    }
+
+    /**
+     * Recherche des patients par nom et/ou date de naissance.
+     * <p>
+     * Par défaut, {@code name} est un préfixe du nom de famille, comparé sans tenir compte
+     * de la casse ni des accents ; les résultats sont triés par nom, prénom puis identifiant.
+     * Avec {@code fuzzy=true}, {@code name} est comparé au nom complet (prénom et nom) par similarité
+     * de trigrammes, ce qui tolère les fautes de frappe ; les résultats sont triés du plus ressemblant
+     * au moins ressemblant.
+     * </p>
+     *
+     * @param name      Le nom recherché (optionnel si {@code birthDate} est fourni).
+     * @param birthDate La date de naissance, au format {@code yyyy-MM-dd} (optionnel si {@code name} est fourni).
+     * @param fuzzy     {@code true} pour une recherche approchante.
+     * @param page      Le numéro de la page (à partir de 0).
+     * @param size      Le nombre de patients par page (plafonné à {@value #MAX_SEARCH_SIZE}).
+     * @return La page de patients et le numéro de la page suivante.
+     */
+    @GetMapping("/search")
+    public PatientPage searchPatients(@RequestParam(required = false) String name,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthDate,
+                                      @RequestParam(defaultValue = "false") boolean fuzzy,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int size) {
+        String prefixe = NameNormalizer.normalize(name);
+        if (prefixe.isEmpty() && birthDate == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Un nom ou une date de naissance est requis");
+        }
+        int numeroPage = Math.max(0, page);
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_SIZE));
+
+        if (fuzzy && !prefixe.isEmpty()) {
+            return rechercherApprochant(name, birthDate, numeroPage, pageSize);
+        }
+
+        Slice<PatientSummary> resultats;
+        if (prefixe.isEmpty()) {
+            resultats = patientRepository.findByDateDeNaissance(birthDate,
+                    PageRequest.of(numeroPage, pageSize, Sort.by("id")));
+        } else if (birthDate == null) {
+            resultats = patientRepository.findByNomNormaliseStartingWith(prefixe,
+                    PageRequest.of(numeroPage, pageSize, TRI_PAR_NOM));
+        } else {
+            resultats = patientRepository.findByNomNormaliseStartingWithAndDateDeNaissance(prefixe, birthDate,
+                    PageRequest.of(numeroPage, pageSize, TRI_PAR_NOM));
+        }
+        return new PatientPage(resultats.getContent(), resultats.hasNext() ? numeroPage + 1 : null);
+    }
+
+    /**
+     * Recherche approchante : l'index des trigrammes classe les patients, seule la page demandée
+     * est lue en base (ou, avec une date de naissance, les patients classés nés à cette date).
+     */
+    private PatientPage rechercherApprochant(String name, LocalDate birthDate, int numeroPage, int pageSize) {
+        List<Long> classement = trigramIndex.rechercher(name, MAX_FUZZY_RESULTS);
+        Map<Long, Integer> rangs = new HashMap<>();
+        for (int rang = 0; rang < classement.size(); rang++) {
+            rangs.put(classement.get(rang), rang);
+        }
+        Comparator<PatientSummary> parRang = Comparator.comparing(patient -> rangs.get(patient.id()));
+
+        int debut = (int) Math.min((long) numeroPage * pageSize, MAX_FUZZY_RESULTS);
+        if (birthDate == null) {
+            if (debut >= classement.size()) {
+                return new PatientPage(List.of(), null);
+            }
+            List<Long> ids = classement.subList(debut, Math.min(debut + pageSize, classement.size()));
+            List<PatientSummary> patients = patientRepository.findByIdIn(ids).stream().sorted(parRang).toList();
+            return new PatientPage(patients, debut + pageSize < classement.size() ? numeroPage + 1 : null);
+        }
+
+        List<PatientSummary> retenus = classement.isEmpty() ? List.of()
+                : patientRepository.findByIdInAndDateDeNaissance(classement, birthDate).stream().sorted(parRang).toList();
+        if (debut >= retenus.size()) {
+            return new PatientPage(List.of(), null);
+        }
+        return new PatientPage(retenus.subList(debut, Math.min(debut + pageSize, retenus.size())),
+                debut + pageSize < retenus.size() ? numeroPage + 1 : null);
+    }
+
     /**
      * Récupère les informations d'un patient par son ID.
+     * La réponse porte la version du patient en {@code ETag} : si le client présente cette version
+     * ({@code If-None-Match}), Spring répond 304 sans sérialiser le patient.
      *
      * @param id L'identifiant du patient.
-     * @return Le patient trouvé ou une réponse 404.
+     * @return Le patient trouvé, une réponse 304 ou une réponse 404.
      */
     @GetMapping("/{id}")
     public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
         Optional<Patient> patient = patientRepository.findById(id);
-        return patient.map(ResponseEntity::ok)
+        return patient.map(trouve -> ResponseEntity.ok().cacheControl(CACHE_PATIENT).eTag(etag(trouve)).body(trouve))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -48,7 +252,7 @@ public class PatientController {
      *
      * @param id             L'identifiant du patient à modifier.
      * @param patientDetails Les nouvelles informations.
-     * @return Le patient mis à jour.
+     * @return Le patient mis à jour, avec l'{@code ETag} de sa nouvelle version.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Patient> updatePatient(@PathVariable Long id, @RequestBody Patient patientDetails) {
@@ -63,6 +267,18 @@ public class PatientController {
         patient.setTelephone(patientDetails.getTelephone());
 
         final Patient updatedPatient = patientRepository.save(patient);
-        return ResponseEntity.ok(updatedPatient);
+        trigramIndex.indexer(updatedPatient.getId(), updatedPatient.getPrenom(), updatedPatient.getNom());
+        assessmentProxy.invalidateAssessment(id);
+        return ResponseEntity.ok().cacheControl(CACHE_PATIENT).eTag(etag(updatedPatient)).body(updatedPatient);
+    }
+
+    /**
+     * Construit l'étiquette forte d'un patient à partir de son numéro de version.
+     *
+     * @param patient Le patient.
+     * @return        L'étiquette, entre guillemets.
+     */
+    static String etag(Patient patient) {
+        return "\"" + (patient.getVersion() == null ? 0 : patient.getVersion()) + "\"";
     }
 }
\ No newline at end of file
@@ -1,13 +1,37 @@
 package com.medilabo.patient_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.medilabo.patient_service.service.NameNormalizer;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDate;
 
 /**
  * Entité représentant un patient en base de données.
+ * <p>
+ * Le nom et le prénom sont aussi enregistrés sous leur forme de recherche ({@link NameNormalizer}),
+ * recalculée à chaque écriture ; ces colonnes indexées servent la recherche par préfixe
+ * et ne sont pas exposées en JSON.
+ * </p>
+ * <p>
+ * Les patients lus par identifiant sont conservés dans le cache de second niveau (région {@code patients}) :
+ * une relecture ne sollicite plus la base. En lecture-écriture, l'entrée est verrouillée pendant
+ * la transaction qui modifie le patient, puis remplacée à sa validation.
+ * </p>
+ * <p>
+ * Le numéro de version, incrémenté par Hibernate à chaque mise à jour, n'est pas exposé en JSON :
+ * il est servi en {@code ETag} par la lecture d'un patient.
+ * </p>
  */
 @Entity
-@Table(name = "patient")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patients")
+@Table(name = "patient", indexes = {
+        @Index(name = "idx_patient_nom_normalise", columnList = "nom_normalise, prenom_normalise, id"),
+        @Index(name = "idx_patient_date_de_naissance", columnList = "date_de_naissance, id")
+})
 public class Patient {
 
     @Id
@@ -21,6 +45,16 @@ public class Patient {
     private String adresse;
     private String telephone;
 
+    @JsonIgnore
+    private String nomNormalise;
+
+    @JsonIgnore
+    private String prenomNormalise;
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
     /**
      * Constructeur par défaut.
      */
@@ -62,4 +96,17 @@ public class Patient {
     public void setAdresse(String adresse) { this.adresse = adresse; }
     public String getTelephone() { return telephone; }
     public void setTelephone(String telephone) { this.telephone = telephone; }
+    public String getNomNormalise() { return nomNormalise; }
+    public String getPrenomNormalise() { return prenomNormalise; }
+    public Long getVersion() { return version; }
+
+    /**
+     * Recalcule les formes de recherche du nom et du prénom avant chaque insertion ou mise à jour.
+     */
+    @PrePersist
+    @PreUpdate
+    void normaliserNoms() {
+        this.nomNormalise = NameNormalizer.normalize(nom);
+        this.prenomNormalise = NameNormalizer.normalize(prenom);
+    }
 }
\ No newline at end of file
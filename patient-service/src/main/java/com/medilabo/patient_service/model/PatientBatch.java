@@ -0,0 +1,12 @@
+package com.medilabo.patient_service.model;
+
+import java.util.List;
+
+/**
+ * Résultat d'une lecture groupée de patients.
+ *
+ * @param patients Les patients trouvés, dans l'ordre des identifiants demandés.
+ * @param missing  Les identifiants demandés qui ne correspondent à aucun patient.
+ */
+public record PatientBatch(List<Patient> patients, List<Long> missing) {
+}
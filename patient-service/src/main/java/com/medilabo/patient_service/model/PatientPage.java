@@ -0,0 +1,12 @@
+package com.medilabo.patient_service.model;
+
+import java.util.List;
+
+/**
+ * Page de résultats d'une recherche de patients.
+ *
+ * @param patients Les patients de la page.
+ * @param next     Le numéro de la page suivante, {@code null} s'il s'agit de la dernière.
+ */
+public record PatientPage(List<PatientSummary> patients, Integer next) {
+}
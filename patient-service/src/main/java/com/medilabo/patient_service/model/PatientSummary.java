@@ -0,0 +1,19 @@
+package com.medilabo.patient_service.model;
+
+import java.time.LocalDate;
+
+/**
+ * Projection allégée d'un patient pour les listes : identité, date de naissance et genre.
+ * <p>
+ * Seules ces colonnes sont lues en base ; l'adresse et le téléphone restent disponibles
+ * dans la fiche complète ({@code GET /api/patients/{id}}).
+ * </p>
+ *
+ * @param id              Identifiant unique.
+ * @param prenom          Prénom du patient.
+ * @param nom             Nom du patient.
+ * @param dateDeNaissance Date de naissance.
+ * @param genre           Genre (M/F).
+ */
+public record PatientSummary(Long id, String prenom, String nom, LocalDate dateDeNaissance, String genre) {
+}
@@ -0,0 +1,53 @@
+package com.medilabo.patient_service.proxies;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+
+/**
+ * Client HTTP du microservice d'évaluation, qui invalide le risque en cache d'un patient dont
+ * l'âge ou le genre a pu changer. Un échec est journalisé sans faire échouer la mise à jour.
+ */
+@Component
+public class AssessmentProxy {
+
+    private static final Logger log = LoggerFactory.getLogger(AssessmentProxy.class);
+
+    private final RestClient restClient;
+
+    /**
+     * Constructeur configurant le client avec des délais courts.
+     *
+     * @param builder Le constructeur de clients REST fourni par Spring Boot.
+     * @param url     L'URL de base du service d'évaluation.
+     */
+    public AssessmentProxy(RestClient.Builder builder,
+                           @Value("${assessment-service.url:http://localhost:8081}") String url) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(1));
+        requestFactory.setReadTimeout(Duration.ofSeconds(2));
+        this.restClient = builder.baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Invalide le risque en cache d'un patient.
+     *
+     * @param id L'identifiant du patient dont les données ont changé.
+     */
+    public void invalidateAssessment(Long id) {
+        if (id == null) {
+            return;
+        }
+        try {
+            restClient.delete().uri("/assess/cache/{id}", id).retrieve().toBodilessEntity();
+        } catch (RestClientException e) {
+            log.warn("Invalidation du risque en cache impossible pour le patient {} : {}", id, e.getMessage());
+        }
+    }
+}
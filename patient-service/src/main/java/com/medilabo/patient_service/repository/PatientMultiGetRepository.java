@@ -0,0 +1,22 @@
+package com.medilabo.patient_service.repository;
+
+import com.medilabo.patient_service.model.Patient;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Lecture groupée de patients par identifiant, ajoutée à {@link PatientRepository}.
+ */
+public interface PatientMultiGetRepository {
+
+    /**
+     * Charge plusieurs patients en une seule requête par paquet d'identifiants
+     * ({@code WHERE id IN (...)}), après consultation du cache de second niveau.
+     *
+     * @param ids Les identifiants des patients, sans doublon.
+     * @return    Les patients, dans l'ordre de {@code ids} ; {@code null} à la place d'un patient inexistant.
+     */
+    @Transactional(readOnly = true)
+    List<Patient> findAllInOrder(List<Long> ids);
+}
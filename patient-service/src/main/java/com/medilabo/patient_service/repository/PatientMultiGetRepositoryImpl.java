@@ -0,0 +1,37 @@
+package com.medilabo.patient_service.repository;
+
+import com.medilabo.patient_service.model.Patient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.List;
+
+/**
+ * Implémentation de {@link PatientMultiGetRepository} par le chargement multiple d'Hibernate.
+ * <p>
+ * Les patients déjà présents dans la session ou dans le cache de second niveau ne sont pas relus ;
+ * les autres sont chargés par paquets de {@value #TAILLE_PAQUET} identifiants, une requête par paquet.
+ * </p>
+ */
+class PatientMultiGetRepositoryImpl implements PatientMultiGetRepository {
+
+    /** Nombre maximal d'identifiants par requête {@code IN}. */
+    static final int TAILLE_PAQUET = 1000;
+
+    private final EntityManager entityManager;
+
+    PatientMultiGetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Patient> findAllInOrder(List<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Patient.class)
+                .with(CacheMode.NORMAL)
+                .withBatchSize(TAILLE_PAQUET)
+                .enableOrderedReturn(true)
+                .multiLoad(ids);
+    }
+}
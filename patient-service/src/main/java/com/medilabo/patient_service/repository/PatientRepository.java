@@ -1,9 +1,21 @@
 package com.medilabo.patient_service.repository;
 
 import com.medilabo.patient_service.model.Patient;
+import com.medilabo.patient_service.model.PatientSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Interface Repository pour l'accès aux données Patient.
  * <p>
@@ -13,5 +25,77 @@ import org.springframework.stereotype.Repository;
  * </p>
  */
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
-}
\ No newline at end of file
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientMultiGetRepository {
+
+    /**
+     * Parcourt une page de patients par pagination sur clé : les patients d'identifiant
+     * strictement supérieur au dernier identifiant reçu, triés par identifiant.
+     * Le coût ne dépend pas de la position dans la table, contrairement à un décalage (OFFSET).
+     * <p>
+     * Seules les colonnes de {@link PatientSummary} sont lues, sans passer par le contexte de persistance.
+     * La page étant bornée par {@code limit}, elle est retournée en liste : aucune transaction n'est
+     * à ouvrir par l'appelant, et la connexion est rendue dès la lecture terminée.
+     * </p>
+     *
+     * @param after L'identifiant du dernier patient de la page précédente (0 pour la première page).
+     * @param limit Le nombre maximal de patients à retourner.
+     * @return      Les patients de la page.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    List<PatientSummary> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    /**
+     * Parcourt tous les patients par ordre d'identifiant, pour la reconstruction de l'index de recherche.
+     * Le flux doit être consommé dans une transaction, puis fermé.
+     *
+     * @return Le flux des patients.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PatientSummary> streamAllByOrderByIdAsc();
+
+    /**
+     * Recherche les patients dont le nom normalisé commence par un préfixe (index {@code idx_patient_nom_normalise}).
+     *
+     * @param prefixe  Le préfixe, déjà normalisé.
+     * @param pageable La page demandée et son tri.
+     * @return         La page de patients, sans comptage du total.
+     */
+    Slice<PatientSummary> findByNomNormaliseStartingWith(String prefixe, Pageable pageable);
+
+    /**
+     * Recherche les patients nés à une date donnée dont le nom normalisé commence par un préfixe.
+     *
+     * @param prefixe         Le préfixe, déjà normalisé.
+     * @param dateDeNaissance La date de naissance.
+     * @param pageable        La page demandée et son tri.
+     * @return                La page de patients, sans comptage du total.
+     */
+    Slice<PatientSummary> findByNomNormaliseStartingWithAndDateDeNaissance(String prefixe, LocalDate dateDeNaissance,
+                                                                          Pageable pageable);
+
+    /**
+     * Recherche les patients nés à une date donnée (index {@code idx_patient_date_de_naissance}).
+     *
+     * @param dateDeNaissance La date de naissance.
+     * @param pageable        La page demandée et son tri.
+     * @return                La page de patients, sans comptage du total.
+     */
+    Slice<PatientSummary> findByDateDeNaissance(LocalDate dateDeNaissance, Pageable pageable);
+
+    /**
+     * Récupère la projection de liste de plusieurs patients.
+     *
+     * @param ids Les identifiants des patients.
+     * @return    Les patients trouvés, dans un ordre quelconque.
+     */
+    List<PatientSummary> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Récupère la projection de liste de ceux des patients donnés qui sont nés à une date donnée.
+     *
+     * @param ids             Les identifiants des patients.
+     * @param dateDeNaissance La date de naissance.
+     * @return                Les patients retenus, dans un ordre quelconque.
+     */
+    List<PatientSummary> findByIdInAndDateDeNaissance(Collection<Long> ids, LocalDate dateDeNaissance);
+}
@@ -0,0 +1,32 @@
+package com.medilabo.patient_service.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forme de recherche des noms de patients : minuscules, sans accents ni ponctuation,
+ * mots séparés par une seule espace ({@code "Hélène  D'Arcy"} devient {@code "helene d arcy"}).
+ */
+public final class NameNormalizer {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private NameNormalizer() {
+    }
+
+    /**
+     * Normalise un nom pour la recherche.
+     *
+     * @param nom Le nom saisi ou enregistré (peut être {@code null}).
+     * @return    Le nom normalisé, vide si {@code nom} est {@code null} ou ne contient aucune lettre.
+     */
+    public static String normalize(String nom) {
+        if (nom == null) {
+            return "";
+        }
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(nom, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATEURS.matcher(sansAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
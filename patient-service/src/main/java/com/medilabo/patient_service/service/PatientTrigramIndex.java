@@ -0,0 +1,286 @@
+package com.medilabo.patient_service.service;
+
+import com.medilabo.patient_service.model.PatientSummary;
+import com.medilabo.patient_service.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index en mémoire des trigrammes du nom complet (prénom et nom) de chaque patient,
+ * pour la recherche approchante (fautes de frappe, lettres inversées, accents omis).
+ * <p>
+ * Chaque mot normalisé ({@link NameNormalizer}) est complété de deux espaces devant et d'une derrière,
+ * puis découpé en trigrammes ({@code "dupont"} donne {@code "  d", " du", "dup", ..., "nt "}).
+ * Pour chaque trigramme, l'index conserve la liste triée des patients qui le contiennent.
+ * Une recherche parcourt uniquement les listes des trigrammes de la saisie et classe les patients
+ * par similarité (trigrammes communs / trigrammes distincts des deux noms).
+ * </p>
+ * <p>
+ * L'index est construit au démarrage, une fois tous les singletons créés et avant le démarrage du serveur web :
+ * aucune recherche n'est servie par un index vide, et aucune modification de patient ne peut intervenir
+ * pendant la construction puis être effacée par la substitution de l'index construit.
+ * Il est ensuite tenu à jour à chaque écriture d'un patient, y compris par le chargement des données initiales.
+ * Les lectures sont concurrentes ; une écriture les suspend brièvement.
+ * </p>
+ */
+@Component
+public class PatientTrigramIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientTrigramIndex.class);
+
+    /** Similarité minimale pour qu'un patient soit retenu (entre 0 et 1). */
+    static final double SIMILARITE_MIN = 0.3;
+
+    private final PatientRepository patientRepository;
+    private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private Contenu contenu = new Contenu();
+
+    /**
+     * Constructeur.
+     *
+     * @param patientRepository Le dépôt des patients, parcouru à la reconstruction.
+     */
+    public PatientTrigramIndex(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    /**
+     * Construit l'index au démarrage de l'application, avant que le serveur web n'accepte des requêtes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        reconstruire();
+    }
+
+    /**
+     * Reconstruit l'index à partir de la base, dans la transaction de l'appelant (le flux des patients l'exige).
+     * L'index est construit à part puis substitué d'un bloc à l'ancien.
+     */
+    void reconstruire() {
+        long debut = System.nanoTime();
+        Contenu nouveau = new Contenu();
+        try (Stream<PatientSummary> patients = patientRepository.streamAllByOrderByIdAsc()) {
+            patients.forEach(patient -> nouveau.indexer(patient.id(), patient.prenom(), patient.nom()));
+        }
+
+        verrou.writeLock().lock();
+        try {
+            contenu = nouveau;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        log.info("Index des trigrammes reconstruit : {} patients, {} trigrammes en {} ms",
+                nouveau.ids.size(), nouveau.patientsParTrigramme.size(), (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    /**
+     * Indexe un patient, ou remplace son entrée si son nom a changé.
+     *
+     * @param id     L'identifiant du patient.
+     * @param prenom Son prénom.
+     * @param nom    Son nom.
+     */
+    public void indexer(Long id, String prenom, String nom) {
+        verrou.writeLock().lock();
+        try {
+            contenu.indexer(id, prenom, nom);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les patients dont le nom complet ressemble à la saisie.
+     *
+     * @param saisie Le texte recherché (nom, prénom, ou les deux dans un ordre quelconque).
+     * @param max    Le nombre maximal d'identifiants retournés.
+     * @return       Les identifiants des patients retenus, du plus ressemblant au moins ressemblant
+     *               (à similarité égale, par identifiant croissant).
+     */
+    public List<Long> rechercher(String saisie, int max) {
+        String[] requete = trigrammes(NameNormalizer.normalize(saisie));
+        if (requete.length == 0) {
+            return List.of();
+        }
+
+        List<Resultat> resultats = new ArrayList<>();
+        verrou.readLock().lock();
+        try {
+            // Trigrammes communs par patient : un compteur par numéro d'ordre, et la liste des patients rencontrés.
+            int[] communs = new int[contenu.ids.size()];
+            int[] rencontres = new int[64];
+            int nombreRencontres = 0;
+            for (String trigramme : requete) {
+                Postings patients = contenu.patientsParTrigramme.get(trigramme);
+                if (patients == null) {
+                    continue;
+                }
+                for (int i = 0; i < patients.taille; i++) {
+                    int ordre = patients.ordres[i];
+                    if (communs[ordre]++ == 0) {
+                        if (nombreRencontres == rencontres.length) {
+                            rencontres = Arrays.copyOf(rencontres, nombreRencontres * 2);
+                        }
+                        rencontres[nombreRencontres++] = ordre;
+                    }
+                }
+            }
+            for (int i = 0; i < nombreRencontres; i++) {
+                int ordre = rencontres[i];
+                int union = requete.length + contenu.nombres[ordre] - communs[ordre];
+                double similarite = (double) communs[ordre] / union;
+                if (similarite >= SIMILARITE_MIN) {
+                    resultats.add(new Resultat(contenu.ids.get(ordre), similarite));
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+
+        return resultats.stream()
+                .sorted(Comparator.comparingDouble(Resultat::similarite).reversed().thenComparing(Resultat::id))
+                .limit(max)
+                .map(Resultat::id)
+                .toList();
+    }
+
+    /**
+     * Découpe un nom normalisé en trigrammes distincts.
+     *
+     * @param nomNormalise Le nom normalisé.
+     * @return             Ses trigrammes distincts, dans l'ordre d'apparition.
+     */
+    static String[] trigrammes(String nomNormalise) {
+        Set<String> trigrammes = new LinkedHashSet<>();
+        for (String mot : nomNormalise.split(" ")) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            String complete = "  " + mot + " ";
+            for (int i = 0; i + 3 <= complete.length(); i++) {
+                trigrammes.add(complete.substring(i, i + 3));
+            }
+        }
+        return trigrammes.toArray(String[]::new);
+    }
+
+    private record Resultat(Long id, double similarite) {
+    }
+
+    /**
+     * Contenu de l'index. Chaque patient reçoit un numéro d'ordre dense (0, 1, 2...), attribué à sa première
+     * indexation et conservé ensuite : les listes par trigramme stockent ces numéros dans des tableaux
+     * d'entiers, et une recherche compte les trigrammes communs dans un simple tableau.
+     */
+    private static final class Contenu {
+
+        /** Numéros d'ordre des patients par trigramme. */
+        private final Map<String, Postings> patientsParTrigramme = new HashMap<>();
+
+        /** Numéro d'ordre de chaque patient. */
+        private final Map<Long, Integer> ordres = new HashMap<>();
+
+        /** Identifiant du patient de chaque numéro d'ordre. */
+        private final List<Long> ids = new ArrayList<>();
+
+        /** Trigrammes distincts du nom de chaque numéro d'ordre, pour la désindexation. */
+        private final List<String[]> trigrammes = new ArrayList<>();
+
+        /** Nombre de trigrammes distincts de chaque numéro d'ordre, lu à chaque calcul de similarité. */
+        private int[] nombres = new int[1024];
+
+        private void indexer(Long id, String prenom, String nom) {
+            Integer ordre = ordres.get(id);
+            if (ordre == null) {
+                ordre = ids.size();
+                ordres.put(id, ordre);
+                ids.add(id);
+                trigrammes.add(new String[0]);
+                if (ordre == nombres.length) {
+                    nombres = Arrays.copyOf(nombres, ordre * 2);
+                }
+            } else {
+                for (String trigramme : trigrammes.get(ordre)) {
+                    Postings patients = patientsParTrigramme.get(trigramme);
+                    patients.retirer(ordre);
+                    if (patients.taille == 0) {
+                        patientsParTrigramme.remove(trigramme);
+                    }
+                }
+            }
+
+            String[] nouveaux = PatientTrigramIndex.trigrammes(NameNormalizer.normalize(prenom + " " + nom));
+            for (int i = 0; i < nouveaux.length; i++) {
+                Postings patients = patientsParTrigramme.computeIfAbsent(nouveaux[i], Postings::new);
+                patients.ajouter(ordre);
+                // Les trigrammes identiques de tous les patients partagent la même chaîne, celle de la liste.
+                nouveaux[i] = patients.trigramme;
+            }
+            trigrammes.set(ordre, nouveaux);
+            nombres[ordre] = nouveaux.length;
+        }
+    }
+
+    /**
+     * Liste triée et sans doublon des numéros d'ordre des patients contenant un trigramme.
+     * La reconstruction attribue les numéros dans l'ordre croissant, donc les ajoute en fin de tableau.
+     */
+    private static final class Postings {
+
+        private final String trigramme;
+        private int[] ordres = new int[4];
+        private int taille;
+
+        private Postings(String trigramme) {
+            this.trigramme = trigramme;
+        }
+
+        private void ajouter(int ordre) {
+            if (taille == 0 || ordres[taille - 1] < ordre) {
+                agrandir();
+                ordres[taille++] = ordre;
+                return;
+            }
+            int position = Arrays.binarySearch(ordres, 0, taille, ordre);
+            if (position >= 0) {
+                return;
+            }
+            int insertion = -position - 1;
+            agrandir();
+            System.arraycopy(ordres, insertion, ordres, insertion + 1, taille - insertion);
+            ordres[insertion] = ordre;
+            taille++;
+        }
+
+        private void retirer(int ordre) {
+            int position = Arrays.binarySearch(ordres, 0, taille, ordre);
+            if (position >= 0) {
+                System.arraycopy(ordres, position + 1, ordres, position, taille - position - 1);
+                taille--;
+            }
+        }
+
+        private void agrandir() {
+            if (taille == ordres.length) {
+                ordres = Arrays.copyOf(ordres, taille * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.medilabo.patient_service;
+
+import com.medilabo.patient_service.controller.PatientController;
+import com.medilabo.patient_service.model.Patient;
+import com.medilabo.patient_service.proxies.AssessmentProxy;
+import com.medilabo.patient_service.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests d'intégration du cache de second niveau des patients.
+ */
+@SpringBootTest
+class PatientCacheTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientController patientController;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AssessmentProxy assessmentProxy;
+
+    private Statistics statistiques;
+
+    @BeforeEach
+    void setUp() {
+        statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistiques.clear();
+    }
+
+    /**
+     * Vérifie qu'une relecture du même patient est servie par le cache, sans requête SQL.
+     */
+    @Test
+    void findById_shouldHitCache_onSecondRead() {
+        patientRepository.findById(1L);
+        long requetes = statistiques.getPrepareStatementCount();
+
+        patientRepository.findById(1L);
+
+        assertEquals(requetes, statistiques.getPrepareStatementCount());
+        assertEquals(1, statistiques.getDomainDataRegionStatistics("patients").getHitCount());
+    }
+
+    /**
+     * Vérifie que la mise à jour d'un patient remplace son entrée en cache et change son {@code ETag}.
+     */
+    @Test
+    void updatePatient_shouldRefreshCachedEntry() {
+        Patient patient = patientRepository.findById(2L).orElseThrow();
+        Patient modifications = new Patient(null, patient.getPrenom(), patient.getNom(), patient.getDateDeNaissance(),
+                patient.getGenre(), "10 Rue Neuve", patient.getTelephone());
+
+        String etagAvant = patientController.getPatientById(2L).getHeaders().getETag();
+        String etagApres = patientController.updatePatient(2L, modifications).getHeaders().getETag();
+        long requetes = statistiques.getPrepareStatementCount();
+
+        Patient relu = patientRepository.findById(2L).orElseThrow();
+        assertEquals("10 Rue Neuve", relu.getAdresse());
+        assertEquals(requetes, statistiques.getPrepareStatementCount());
+        assertNotEquals(etagAvant, etagApres);
+        assertEquals(etagApres, patientController.getPatientById(2L).getHeaders().getETag());
+    }
+}
@@ -0,0 +1,68 @@
+package com.medilabo.patient_service;
+
+import com.medilabo.patient_service.model.Patient;
+import com.medilabo.patient_service.proxies.AssessmentProxy;
+import com.medilabo.patient_service.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests d'intégration de la lecture groupée des patients.
+ */
+@SpringBootTest
+class PatientMultiGetTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AssessmentProxy assessmentProxy;
+
+    /**
+     * Vérifie qu'un millier de patients sont lus en une requête, dans l'ordre demandé,
+     * puis servis par le cache de second niveau sans requête (seul un identifiant inexistant
+     * obligerait à interroger de nouveau la base).
+     */
+    @Test
+    void findAllInOrder_shouldLoadThousandPatientsInOneQuery() {
+        List<Patient> nouveaux = new ArrayList<>();
+        for (int i = 0; i < 999; i++) {
+            nouveaux.add(new Patient(null, "Prenom" + i, "Nom" + i, null, "F", null, null));
+        }
+        List<Long> ids = new ArrayList<>(patientRepository.saveAll(nouveaux).stream().map(Patient::getId).toList());
+        Collections.reverse(ids);
+        ids.add(2, -1L);
+
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistiques.clear();
+
+        List<Patient> patients = patientRepository.findAllInOrder(ids);
+
+        assertEquals(1, statistiques.getPrepareStatementCount());
+        assertEquals(ids.size(), patients.size());
+        assertEquals(ids.get(0), patients.get(0).getId());
+        assertNull(patients.get(2));
+        assertEquals(ids.get(ids.size() - 1), patients.get(ids.size() - 1).getId());
+
+        ids.remove(2);
+        statistiques.clear();
+        patientRepository.findAllInOrder(ids);
+        assertEquals(0, statistiques.getPrepareStatementCount());
+    }
+}
@@ -2,22 +2,36 @@ package com.medilabo.patient_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medilabo.patient_service.model.Patient;
+import com.medilabo.patient_service.model.PatientSummary;
+import com.medilabo.patient_service.proxies.AssessmentProxy;
 import com.medilabo.patient_service.repository.PatientRepository;
+import com.medilabo.patient_service.service.PatientTrigramIndex;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -36,6 +50,12 @@ public class PatientControllerTest {
     @MockitoBean
     private PatientRepository patientRepository;
 
+    @MockitoBean
+    private AssessmentProxy assessmentProxy;
+
+    @MockitoBean
+    private PatientTrigramIndex trigramIndex;
+
     /**
      * Vérifie la récupération de la liste complète des patients.
      * @throws Exception En cas d'erreur lors de la requête simulée.
@@ -53,6 +73,23 @@ public class PatientControllerTest {
                 .andExpect(jsonPath("$[0].nom").value("TestNom"));
     }
 
+    /**
+     * Vérifie la pagination sur clé de la liste des patients.
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testGetPatientsPage() throws Exception {
+        PatientSummary p3 = new PatientSummary(3L, "Test", "TestBorderline", LocalDate.of(1945, 6, 24), "M");
+        when(patientRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(1))).thenReturn(List.of(p3));
+
+        mockMvc.perform(get("/api/patients").param("after", "2").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[0].dateDeNaissance").value("1945-06-24"))
+                .andExpect(jsonPath("$[0].adresse").doesNotExist());
+    }
+
     /**
      * Vérifie la récupération d'un patient par son identifiant.
      * @throws Exception En cas d'erreur lors de la requête simulée.
@@ -67,7 +104,29 @@ public class PatientControllerTest {
 
         mockMvc.perform(get("/api/patients/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.prenom").value("John"));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.prenom").value("John"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    /**
+     * Vérifie qu'une lecture conditionnelle portant la version courante reçoit un 304 sans corps.
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testGetPatientByIdNotModified() throws Exception {
+        Patient p = new Patient();
+        p.setId(1L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(p));
+
+        mockMvc.perform(get("/api/patients/1").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/patients/1").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
     }
 
     /**
@@ -106,5 +165,96 @@ public class PatientControllerTest {
                         .content(objectMapper.writeValueAsString(updateInfo)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.nom").value("NouveauNom"));
+
+        verify(assessmentProxy).invalidateAssessment(1L);
+        verify(trigramIndex).indexer(1L, null, "NouveauNom");
+    }
+
+    /**
+     * Vérifie la lecture groupée : ordre de la demande conservé, doublons ignorés, introuvables signalés.
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testGetPatientsByIds() throws Exception {
+        Patient p3 = new Patient(3L, "TestInDanger", "Test", null, "M", null, null);
+        Patient p1 = new Patient(1L, "TestNone", "Test", null, "F", null, null);
+        when(patientRepository.findAllInOrder(List.of(3L, 99L, 1L))).thenReturn(Arrays.asList(p3, null, p1));
+
+        mockMvc.perform(get("/api/patients").param("ids", "3,99,1,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients[0].id").value(3))
+                .andExpect(jsonPath("$.patients[1].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(99));
+    }
+
+    /**
+     * Vérifie la lecture groupée par POST et le refus des listes trop longues.
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testGetPatientsByIdsPost() throws Exception {
+        when(patientRepository.findAllInOrder(List.of(1L))).thenReturn(Arrays.asList((Patient) null));
+
+        mockMvc.perform(post("/api/patients/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients").isEmpty())
+                .andExpect(jsonPath("$.missing[0]").value(1));
+
+        List<Long> tropLongue = LongStream.rangeClosed(1, PatientController.MAX_BATCH_SIZE + 1).boxed().toList();
+        mockMvc.perform(post("/api/patients/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tropLongue)))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Vérifie que la recherche par préfixe compare le nom normalisé (casse et accents ignorés).
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testSearchPatientsByPrefix() throws Exception {
+        PatientSummary p = new PatientSummary(5L, "Hélène", "Émery", LocalDate.of(1970, 3, 2), "F");
+        when(patientRepository.findByNomNormaliseStartingWith(eq("eme"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(p), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/patients/search").param("name", "ÉMe").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients[0].nom").value("Émery"))
+                .andExpect(jsonPath("$.next").value(1));
+    }
+
+    /**
+     * Vérifie que la recherche approchante conserve l'ordre de similarité de l'index.
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testSearchPatientsFuzzy() throws Exception {
+        when(trigramIndex.rechercher("Dupnot", PatientController.MAX_FUZZY_RESULTS)).thenReturn(List.of(8L, 3L));
+        when(patientRepository.findByIdIn(List.of(8L, 3L))).thenReturn(List.of(
+                new PatientSummary(3L, "Jean", "Dupond", null, "M"),
+                new PatientSummary(8L, "Jean", "Dupont", null, "M")));
+
+        mockMvc.perform(get("/api/patients/search").param("name", "Dupnot").param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients[0].id").value(8))
+                .andExpect(jsonPath("$.patients[1].id").value(3))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    /**
+     * Vérifie qu'une recherche sans critère est refusée.
+     * @throws Exception En cas d'erreur lors de la requête simulée.
+     */
+    @Test
+    @WithMockUser(username = "user")
+    public void testSearchPatientsWithoutCriteria() throws Exception {
+        mockMvc.perform(get("/api/patients/search").param("name", " - "))
+                .andExpect(status().isBadRequest());
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.medilabo.patient_service.service;
+
+import com.medilabo.patient_service.model.PatientSummary;
+import com.medilabo.patient_service.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests unitaires de l'index des trigrammes utilisé pour la recherche approchante.
+ */
+class PatientTrigramIndexTest {
+
+    private PatientTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientTrigramIndex(null);
+        index.indexer(1L, "Jean", "Dupont");
+        index.indexer(2L, "Hélène", "Dupond");
+        index.indexer(3L, "Marc", "Martin");
+    }
+
+    /**
+     * Vérifie le découpage d'un mot complété d'espaces.
+     */
+    @Test
+    void trigrammes_shouldPadEachWord() {
+        assertArrayEquals(new String[]{"  a", " ab", "abc", "bc "}, PatientTrigramIndex.trigrammes("abc"));
+    }
+
+    /**
+     * Vérifie qu'une faute de frappe retrouve le patient, classé avant les noms moins proches.
+     */
+    @Test
+    void rechercher_shouldTolerateTypos() {
+        List<Long> resultats = index.rechercher("jean dupnot", 10);
+
+        assertEquals(1L, resultats.get(0));
+        assertFalse(resultats.contains(3L));
+    }
+
+    /**
+     * Vérifie que les accents et la casse sont ignorés.
+     */
+    @Test
+    void rechercher_shouldIgnoreAccents() {
+        assertEquals(List.of(2L), index.rechercher("HELENE", 10));
+    }
+
+    /**
+     * Vérifie qu'un changement de nom remplace l'entrée du patient.
+     */
+    @Test
+    void indexer_shouldReplacePreviousName() {
+        index.indexer(3L, "Marc", "Durand");
+
+        assertEquals(List.of(), index.rechercher("martin", 10));
+        assertEquals(List.of(3L), index.rechercher("durand", 10));
+    }
+
+    /**
+     * Vérifie que l'index est construit à partir de la base dès la fin de la création des singletons,
+     * c'est-à-dire avant le démarrage du serveur web, et qu'il remplace alors les entrées existantes.
+     */
+    @Test
+    void afterSingletonsInstantiated_shouldBuildIndexFromRepository() {
+        PatientRepository patientRepository = mock(PatientRepository.class);
+        given(patientRepository.streamAllByOrderByIdAsc()).willReturn(Stream.of(
+                new PatientSummary(4L, "Lucie", "Bernard", null, "F"),
+                new PatientSummary(5L, "Paul", "Petit", null, "M")));
+        PatientTrigramIndex construit = new PatientTrigramIndex(patientRepository);
+
+        construit.afterSingletonsInstantiated();
+
+        assertEquals(List.of(4L), construit.rechercher("lucie bernrad", 10));
+        assertEquals(List.of(5L), construit.rechercher("petit", 10));
+    }
+}